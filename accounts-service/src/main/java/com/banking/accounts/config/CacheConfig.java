@@ -0,0 +1,19 @@
+package com.banking.accounts.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caffeine-backed read-through caches for account lookups; size, TTL and stats
+ * recording come from spring.cache.caffeine.spec. Lookups are cached with sync = true,
+ * so the database read runs inside Caffeine's per-key computation and an eviction of
+ * that key waits for it to finish and then removes what it loaded. A read that saw the
+ * row before a write committed can therefore never outlive the write's eviction.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String ACCOUNTS = "accounts";
+    public static final String ACCOUNTS_BY_CUSTOMER = "accountsByCustomer";
+}
@@ -1,15 +1,31 @@
 package com.banking.accounts.controller;
 
 import com.banking.accounts.dto.AccountDto;
+import com.banking.accounts.dto.AccountFilter;
+import com.banking.accounts.dto.AccountLookupDto;
+import com.banking.accounts.dto.AccountLookupResultDto;
+import com.banking.accounts.dto.AccountPageDto;
+import com.banking.accounts.dto.BalancePostingDto;
+import com.banking.accounts.dto.TransferDto;
+import com.banking.accounts.dto.TransferResultDto;
+import com.banking.accounts.entity.AccountType;
 import com.banking.accounts.service.AccountService;
+import com.banking.common.web.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.groups.Default;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,25 +38,53 @@ public class AccountController {
     
     @PostMapping
     @Operation(summary = "Create a new account", description = "Creates a new bank account with the provided details")
-    public ResponseEntity<AccountDto> createAccount(@Valid @RequestBody AccountDto accountDto) {
+    public ResponseEntity<AccountDto> createAccount(@Validated({Default.class, AccountDto.Create.class}) @RequestBody AccountDto accountDto) {
         AccountDto createdAccount = accountService.createAccount(accountDto);
         return new ResponseEntity<>(createdAccount, HttpStatus.CREATED);
     }
     
     @GetMapping
-    @Operation(summary = "Get all accounts", description = "Retrieves a list of all bank accounts")
-    public ResponseEntity<List<AccountDto>> getAllAccounts() {
-        List<AccountDto> accounts = accountService.getAllAccounts();
+    @Operation(summary = "List accounts", description = "Retrieves accounts one page at a time, filtered by customer, type and balance range and sorted by id, balance or accountNumber; page by number or with the returned keyset cursor, at most 500 accounts per page")
+    public ResponseEntity<AccountPageDto> getAccounts(@RequestParam(required = false) Long customerId,
+                                                      @RequestParam(required = false) String type,
+                                                      @RequestParam(required = false) BigDecimal minBalance,
+                                                      @RequestParam(required = false) BigDecimal maxBalance,
+                                                      @RequestParam(defaultValue = "id") String sort,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "50") int size) {
+        AccountFilter filter = new AccountFilter(customerId, type != null ? AccountType.fromLabel(type) : null, minBalance, maxBalance);
+        AccountPageDto accounts = accountService.getAccountPage(filter, sort, page, cursor, size);
         return ResponseEntity.ok(accounts);
     }
     
     @GetMapping("/{id}")
-    @Operation(summary = "Get account by ID", description = "Retrieves account details by account ID")
-    public ResponseEntity<AccountDto> getAccountById(@PathVariable Long id) {
+    @Operation(summary = "Get account by ID", description = "Retrieves account details by account ID, with the version as ETag; If-None-Match with the current ETag returns 304")
+    public ResponseEntity<AccountDto> getAccountById(@PathVariable Long id, WebRequest webRequest) {
         AccountDto account = accountService.getAccountById(id);
+        String eTag = ETags.of(account.getVersion());
+        // Answers 304 Not Modified when If-None-Match carries the current version
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(account);
+    }
+    
+    @GetMapping("/{id}/balance")
+    @Operation(summary = "Get balance at a point in time", description = "Returns the account with its balance before the postings applied at or after the given time, taken from the recorded postings")
+    public ResponseEntity<AccountDto> getBalanceBefore(@PathVariable Long id,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+        AccountDto account = accountService.getBalanceBefore(id, before);
         return ResponseEntity.ok(account);
     }
     
+    @PostMapping("/lookup")
+    @Operation(summary = "Look up accounts in bulk", description = "Retrieves up to " + AccountLookupDto.MAX_KEYS + " accounts by ID and up to " + AccountLookupDto.MAX_KEYS + " by account number in one request; results follow the request order and keys without an account are listed as missing")
+    public ResponseEntity<AccountLookupResultDto> lookupAccounts(@Valid @RequestBody AccountLookupDto lookupDto) {
+        AccountLookupResultDto result = accountService.lookupAccounts(lookupDto);
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping("/customer/{customerId}")
     @Operation(summary = "Get accounts by customer ID", description = "Retrieves all accounts belonging to a specific customer")
     public ResponseEntity<List<AccountDto>> getAccountsByCustomerId(@PathVariable Long customerId) {
@@ -49,10 +93,27 @@ public class AccountController {
     }
     
     @PutMapping("/{id}")
-    @Operation(summary = "Update account", description = "Updates account information")
-    public ResponseEntity<AccountDto> updateAccount(@PathVariable Long id, @Valid @RequestBody AccountDto accountDto) {
-        AccountDto updatedAccount = accountService.updateAccount(id, accountDto);
-        return ResponseEntity.ok(updatedAccount);
+    @Operation(summary = "Update account", description = "Updates the account number and type; the balance only changes through postings and transfers and is ignored here. With If-Match (or the version in the body) the update fails with 412 unless the account is still at that version, and a concurrent update fails with 409")
+    public ResponseEntity<AccountDto> updateAccount(@PathVariable Long id,
+                                                    @Valid @RequestBody AccountDto accountDto,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch != null ? ETags.parseIfMatch(ifMatch) : accountDto.getVersion();
+        AccountDto updatedAccount = accountService.updateAccount(id, accountDto, expectedVersion);
+        return ResponseEntity.ok().eTag(ETags.of(updatedAccount.getVersion())).body(updatedAccount);
+    }
+    
+    @PostMapping("/{id}/postings")
+    @Operation(summary = "Post to account balance", description = "Atomically applies a deposit or withdrawal to the account balance; a posting whose reference was already applied is not applied again and returns the balance the original posting left")
+    public ResponseEntity<AccountDto> postBalance(@PathVariable Long id, @Valid @RequestBody BalancePostingDto postingDto) {
+        AccountDto account = accountService.postBalance(id, postingDto);
+        return ResponseEntity.ok(account);
+    }
+    
+    @PostMapping("/transfers")
+    @Operation(summary = "Transfer between accounts", description = "Atomically debits the source account and credits the destination account; fails with 422 and changes neither balance if the source has insufficient funds. Called by transactions-service, which records the transfer as a pair of transactions; a transfer whose reference was already applied is not applied again")
+    public ResponseEntity<TransferResultDto> transfer(@Valid @RequestBody TransferDto transferDto) {
+        TransferResultDto result = accountService.transfer(transferDto);
+        return ResponseEntity.ok(result);
     }
     
     @DeleteMapping("/{id}")
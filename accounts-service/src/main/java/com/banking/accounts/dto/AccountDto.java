@@ -1,11 +1,14 @@
 package com.banking.accounts.dto;
 
+import com.banking.accounts.entity.AccountType;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
@@ -22,13 +25,43 @@ public class AccountDto {
     @Positive(message = "Customer ID must be positive")
     private Long customerId;
     
-    @NotBlank(message = "Account type is required")
-    @Pattern(regexp = "^(Savings|Checking|Current)$", message = "Account type must be Savings, Checking, or Current")
-    private String type;
+    @NotNull(message = "Account type is required")
+    private AccountType type;
     
-    @NotNull(message = "Balance is required")
-    @DecimalMin(value = "0.0", inclusive = true, message = "Balance cannot be negative")
+    /**
+     * Opening balance, required only when creating: updates leave the balance to postings
+     */
+    @NotNull(message = "Balance is required", groups = Create.class)
+    @DecimalMin(value = "0.0", inclusive = true, message = "Balance cannot be negative", groups = Create.class)
     private BigDecimal balance;
     
     private String createdAt;
+    
+    /**
+     * Version the representation was read at, also sent as the ETag
+     */
+    private Long version;
+    
+    /**
+     * When the posting that left this balance was applied, set only on the responses of
+     * postings and transfers made with a reference. Strictly increasing per account in the
+     * order postings are applied, so callers can order the postings of an account by it.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime postedAt;
+    
+    /**
+     * Constructor used by JPQL constructor expressions, so read queries build DTOs
+     * straight from the result set without loading managed entities
+     */
+    public AccountDto(Long id, String accountNumber, Long customerId, AccountType type, BigDecimal balance,
+                      LocalDateTime createdAt, Long version) {
+        this(id, accountNumber, customerId, type, balance, createdAt.toString(), version, null);
+    }
+    
+    /**
+     * Validation group for constraints that apply only to the body of a create request
+     */
+    public interface Create {
+    }
 }
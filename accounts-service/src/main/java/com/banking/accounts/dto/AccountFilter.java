@@ -0,0 +1,24 @@
+package com.banking.accounts.dto;
+
+import com.banking.accounts.entity.AccountType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountFilter {
+    
+    private Long customerId;
+    
+    private AccountType type;
+    
+    /** Inclusive lower bound of the balance */
+    private BigDecimal minBalance;
+    
+    /** Inclusive upper bound of the balance */
+    private BigDecimal maxBalance;
+}
@@ -0,0 +1,30 @@
+package com.banking.accounts.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountLookupDto {
+    
+    public static final int MAX_KEYS = 100;
+    
+    @Size(max = MAX_KEYS, message = "At most " + MAX_KEYS + " account IDs can be looked up at once")
+    private List<@NotNull(message = "Account ID must not be null") Long> ids = new ArrayList<>();
+    
+    @Size(max = MAX_KEYS, message = "At most " + MAX_KEYS + " account numbers can be looked up at once")
+    private List<@NotBlank(message = "Account number must not be blank") String> accountNumbers = new ArrayList<>();
+    
+    @JsonIgnore
+    @AssertTrue(message = "At least one account ID or account number is required")
+    public boolean isNotEmpty() {
+        return (ids != null && !ids.isEmpty()) || (accountNumbers != null && !accountNumbers.isEmpty());
+    }
+}
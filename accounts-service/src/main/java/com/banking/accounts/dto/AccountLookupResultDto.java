@@ -0,0 +1,23 @@
+package com.banking.accounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Accounts found by a bulk lookup, in request order (IDs first, then account numbers),
+ * and the keys that matched no account
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountLookupResultDto {
+    
+    private List<AccountDto> accounts;
+    
+    private List<Long> missingIds;
+    
+    private List<String> missingAccountNumbers;
+}
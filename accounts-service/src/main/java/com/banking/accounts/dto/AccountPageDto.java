@@ -0,0 +1,23 @@
+package com.banking.accounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountPageDto {
+    
+    private List<AccountDto> accounts;
+    
+    /** Page number, or null when the page was read from a cursor */
+    private Integer page;
+    
+    private int size;
+    
+    /** Cursor of the following page, or null on the last page */
+    private String nextCursor;
+}
@@ -0,0 +1,33 @@
+package com.banking.accounts.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+/**
+ * Properties the account list can be sorted by. Each is backed by an index ending in the
+ * account ID, which breaks ties so keyset cursors stay stable.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AccountSortField {
+    
+    ID("id", AccountDto::getId, Long::valueOf),
+    BALANCE("balance", AccountDto::getBalance, BigDecimal::new),
+    ACCOUNT_NUMBER("accountNumber", AccountDto::getAccountNumber, value -> value);
+    
+    private final String property;
+    private final Function<AccountDto, Object> accessor;
+    private final Function<String, Object> parser;
+    
+    public static AccountSortField fromProperty(String property) {
+        for (AccountSortField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Accounts can be sorted by id, balance or accountNumber");
+    }
+}
@@ -0,0 +1,32 @@
+package com.banking.accounts.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalancePostingDto {
+    
+    @NotNull(message = "Posting type is required")
+    private PostingType type;
+    
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be positive")
+    private BigDecimal amount;
+    
+    /**
+     * Caller's unique ID for the posting, e.g. the transaction it settles. A posting whose
+     * reference was already applied is not applied again.
+     */
+    @Size(max = 64, message = "Reference must not exceed 64 characters")
+    private String reference;
+    
+    public BalancePostingDto(PostingType type, BigDecimal amount) {
+        this(type, amount, null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.banking.accounts.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Balance posting type, exposed in JSON by its label
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PostingType {
+    
+    DEPOSIT("Deposit"),
+    WITHDRAWAL("Withdrawal");
+    
+    @JsonValue
+    private final String label;
+    
+    @JsonCreator
+    public static PostingType fromLabel(String label) {
+        for (PostingType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Posting type must be Deposit or Withdrawal");
+    }
+}
@@ -0,0 +1,45 @@
+package com.banking.accounts.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferDto {
+    
+    @NotNull(message = "Source account ID is required")
+    @Positive(message = "Source account ID must be positive")
+    private Long sourceAccountId;
+    
+    @NotNull(message = "Destination account ID is required")
+    @Positive(message = "Destination account ID must be positive")
+    private Long destinationAccountId;
+    
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be positive")
+    private BigDecimal amount;
+    
+    /**
+     * Caller's unique ID for the transfer, e.g. the transaction it settles. A transfer whose
+     * reference was already applied is not applied again. The credit posting is recorded under
+     * the reference followed by {@code /credit}, so the reference is shorter than a posting's.
+     */
+    @Size(max = 56, message = "Reference must not exceed 56 characters")
+    private String reference;
+    
+    public TransferDto(Long sourceAccountId, Long destinationAccountId, BigDecimal amount) {
+        this(sourceAccountId, destinationAccountId, amount, null);
+    }
+    
+    @JsonIgnore
+    @AssertTrue(message = "Source and destination accounts must differ")
+    public boolean isDistinctAccounts() {
+        return sourceAccountId == null || !sourceAccountId.equals(destinationAccountId);
+    }
+}
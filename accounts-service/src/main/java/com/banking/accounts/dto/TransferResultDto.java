@@ -0,0 +1,18 @@
+package com.banking.accounts.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Both accounts of a completed transfer, with their new balances
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferResultDto {
+    
+    private AccountDto source;
+    
+    private AccountDto destination;
+}
@@ -10,7 +10,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+        @Index(name = "idx_accounts_customer_id", columnList = "customer_id"),
+        @Index(name = "idx_accounts_balance_id", columnList = "balance, id"),
+        @Index(name = "idx_accounts_type_balance_id", columnList = "type, balance, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,10 +34,9 @@ public class Account {
     @Positive(message = "Customer ID must be positive")
     private Long customerId;
     
-    @Column(name = "type", nullable = false, length = 50)
-    @NotBlank(message = "Account type is required")
-    @Pattern(regexp = "^(Savings|Checking|Current)$", message = "Account type must be Savings, Checking, or Current")
-    private String type;
+    @Column(name = "type", nullable = false, length = 1)
+    @NotNull(message = "Account type is required")
+    private AccountType type;
     
     @Column(name = "balance", nullable = false, precision = 15, scale = 2)
     @NotNull(message = "Balance is required")
@@ -43,6 +46,13 @@ public class Account {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
+    /**
+     * Incremented on every update; a write based on an older version fails instead of overwriting
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,57 @@
+package com.banking.accounts.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A balance change applied under a caller-supplied reference. The reference is unique, so a
+ * posting sent again, after a timeout or by a second settlement worker, is recognised and not
+ * applied twice.
+ */
+@Entity
+@Table(name = "account_postings", indexes = {
+        @Index(name = "idx_account_postings_account_posted_at", columnList = "account_id, posted_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountPosting {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "reference", unique = true, nullable = false, length = 64)
+    private String reference;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    /**
+     * Signed change to the balance: positive for credits, negative for debits
+     */
+    @Column(name = "amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(name = "balance_after", nullable = false, precision = 15, scale = 2)
+    private BigDecimal balanceAfter;
+    
+    /**
+     * When the posting was applied, strictly increasing per account in the order postings
+     * are applied, so it orders the postings of an account even across instances
+     */
+    @Column(name = "posted_at", nullable = false)
+    private LocalDateTime postedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (postedAt == null) {
+            postedAt = LocalDateTime.now();
+        }
+    }
+}
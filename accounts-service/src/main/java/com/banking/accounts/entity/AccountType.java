@@ -0,0 +1,41 @@
+package com.banking.accounts.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Account type, exposed in JSON by its label and stored as a one-character code
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AccountType {
+    
+    SAVINGS("Savings", 'S'),
+    CHECKING("Checking", 'C'),
+    CURRENT("Current", 'U');
+    
+    @JsonValue
+    private final String label;
+    private final char code;
+    
+    @JsonCreator
+    public static AccountType fromLabel(String label) {
+        for (AccountType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Account type must be Savings, Checking, or Current");
+    }
+    
+    public static AccountType fromCode(char code) {
+        for (AccountType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown account type code: " + code);
+    }
+}
@@ -0,0 +1,18 @@
+package com.banking.accounts.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class AccountTypeConverter implements AttributeConverter<AccountType, Character> {
+    
+    @Override
+    public Character convertToDatabaseColumn(AccountType type) {
+        return type == null ? null : type.getCode();
+    }
+    
+    @Override
+    public AccountType convertToEntityAttribute(Character code) {
+        return code == null ? null : AccountType.fromCode(code);
+    }
+}
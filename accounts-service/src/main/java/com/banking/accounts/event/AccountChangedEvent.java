@@ -0,0 +1,14 @@
+package com.banking.accounts.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published whenever an account is created, updated, posted to or deleted
+ */
+@Data
+@AllArgsConstructor
+public class AccountChangedEvent {
+    private Long accountId;
+    private Long customerId;
+}
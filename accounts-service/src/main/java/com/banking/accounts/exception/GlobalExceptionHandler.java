@@ -1,32 +1,92 @@
 package com.banking.accounts.exception;
 
+import com.banking.common.web.PreconditionFailedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
+    static final String EXCEPTIONS_METRIC = "banking.exceptions";
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Counter> exceptionCounters = new ConcurrentHashMap<>();
+    
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        // Register the expected types up front so they are exported at zero before the first failure
+        List.of(AccountNotFoundException.class,
+                DuplicateAccountException.class,
+                InsufficientFundsException.class,
+                PreconditionFailedException.class,
+                ObjectOptimisticLockingFailureException.class,
+                IllegalArgumentException.class,
+                MethodArgumentNotValidException.class,
+                HttpMessageNotReadableException.class,
+                MethodArgumentTypeMismatchException.class)
+                .forEach(this::counterFor);
+    }
+    
     @ExceptionHandler(AccountNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleAccountNotFoundException(AccountNotFoundException ex) {
+        counterFor(ex.getClass()).increment();
         ErrorResponse error = new ErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND.value(), System.currentTimeMillis());
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
     
     @ExceptionHandler(DuplicateAccountException.class)
     public ResponseEntity<ErrorResponse> handleDuplicateAccountException(DuplicateAccountException ex) {
+        counterFor(ex.getClass()).increment();
         ErrorResponse error = new ErrorResponse(ex.getMessage(), HttpStatus.CONFLICT.value(), System.currentTimeMillis());
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
     
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientFundsException(InsufficientFundsException ex) {
+        counterFor(ex.getClass()).increment();
+        ErrorResponse error = new ErrorResponse(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY.value(), System.currentTimeMillis());
+        return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+    
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex) {
+        counterFor(ex.getClass()).increment();
+        ErrorResponse error = new ErrorResponse(ex.getMessage(), HttpStatus.PRECONDITION_FAILED.value(), System.currentTimeMillis());
+        return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+    }
+    
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        counterFor(ex.getClass()).increment();
+        ErrorResponse error = new ErrorResponse("Account was modified concurrently, reload it and retry", HttpStatus.CONFLICT.value(), System.currentTimeMillis());
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+        counterFor(ex.getClass()).increment();
+        ErrorResponse error = new ErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST.value(), System.currentTimeMillis());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        counterFor(ex.getClass()).increment();
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach((error) -> {
             String fieldName = ((FieldError) error).getField();
@@ -36,9 +96,31 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
     
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
+        counterFor(ex.getClass()).increment();
+        ErrorResponse error = new ErrorResponse(ex.getMostSpecificCause().getMessage(), HttpStatus.BAD_REQUEST.value(), System.currentTimeMillis());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+    
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+        counterFor(ex.getClass()).increment();
+        ErrorResponse error = new ErrorResponse("Invalid value for " + ex.getName() + ": " + ex.getValue(), HttpStatus.BAD_REQUEST.value(), System.currentTimeMillis());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
+        counterFor(ex.getClass()).increment();
         ErrorResponse error = new ErrorResponse("Internal server error", HttpStatus.INTERNAL_SERVER_ERROR.value(), System.currentTimeMillis());
         return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+    
+    private Counter counterFor(Class<?> exceptionType) {
+        return exceptionCounters.computeIfAbsent(exceptionType, type -> Counter.builder(EXCEPTIONS_METRIC)
+                .description("Exceptions handled by GlobalExceptionHandler")
+                .tag("exception", type.getSimpleName())
+                .register(meterRegistry));
+    }
 }
@@ -0,0 +1,7 @@
+package com.banking.accounts.exception;
+
+public class InsufficientFundsException extends RuntimeException {
+    public InsufficientFundsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package com.banking.accounts.repository;
+
+import com.banking.accounts.entity.AccountPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AccountPostingRepository extends JpaRepository<AccountPosting, Long> {
+    
+    Optional<AccountPosting> findByReference(String reference);
+    
+    /**
+     * Latest posting applied to an account
+     */
+    Optional<AccountPosting> findFirstByAccountIdOrderByPostedAtDesc(Long accountId);
+    
+    /**
+     * Latest posting applied to an account strictly before a point in time
+     */
+    Optional<AccountPosting> findFirstByAccountIdAndPostedAtLessThanOrderByPostedAtDesc(Long accountId, LocalDateTime postedAt);
+    
+    /**
+     * Earliest posting applied to an account at or after a point in time
+     */
+    Optional<AccountPosting> findFirstByAccountIdAndPostedAtGreaterThanEqualOrderByPostedAtAsc(Long accountId, LocalDateTime postedAt);
+}
@@ -1,18 +1,42 @@
 package com.banking.accounts.repository;
 
+import com.banking.accounts.dto.AccountDto;
 import com.banking.accounts.entity.Account;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountSearchRepository {
+    
+    /**
+     * Select clause of the read queries below. Constructor expressions return unmanaged DTOs,
+     * so list reads neither allocate entities nor register them in the persistence context.
+     */
+    String SELECT_DTO = "SELECT new com.banking.accounts.dto.AccountDto(" +
+                        "a.id, a.accountNumber, a.customerId, a.type, a.balance, a.createdAt, a.version) ";
     
     Optional<Account> findByAccountNumber(String accountNumber);
     
-    List<Account> findByCustomerId(Long customerId);
+    @Query(SELECT_DTO + "FROM Account a WHERE a.customerId = :customerId")
+    List<AccountDto> findDtosByCustomerId(@Param("customerId") Long customerId);
+    
+    @Query(SELECT_DTO + "FROM Account a WHERE a.id IN :ids")
+    List<AccountDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(SELECT_DTO + "FROM Account a WHERE a.accountNumber IN :accountNumbers")
+    List<AccountDto> findDtosByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
     
     boolean existsByAccountNumber(String accountNumber);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
 }
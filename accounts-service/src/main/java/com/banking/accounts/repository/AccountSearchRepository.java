@@ -0,0 +1,25 @@
+package com.banking.accounts.repository;
+
+import com.banking.accounts.dto.AccountDto;
+import com.banking.accounts.dto.AccountFilter;
+import com.banking.accounts.dto.AccountSortField;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface AccountSearchRepository {
+    
+    /**
+     * Accounts matching a filter in a whitelisted order, either at an offset or after a keyset position
+     * @param filter Filters; null fields are not applied
+     * @param sortField Sort property
+     * @param direction Sort direction, also applied to the ID tie-breaker
+     * @param afterValue Sort value of the last row of the previous page, or null to start at the offset
+     * @param afterId ID of the last row of the previous page, or null to start at the offset
+     * @param offset Rows to skip
+     * @param limit Maximum number of rows
+     * @return Matching accounts
+     */
+    List<AccountDto> search(AccountFilter filter, AccountSortField sortField, Sort.Direction direction,
+                            Object afterValue, Long afterId, int offset, int limit);
+}
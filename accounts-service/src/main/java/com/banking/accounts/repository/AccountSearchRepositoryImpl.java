@@ -0,0 +1,70 @@
+package com.banking.accounts.repository;
+
+import com.banking.accounts.dto.AccountDto;
+import com.banking.accounts.dto.AccountFilter;
+import com.banking.accounts.dto.AccountSortField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the list query from only the filters that are set, so each combination can use
+ * a matching index instead of one query full of optional predicates
+ */
+public class AccountSearchRepositoryImpl implements AccountSearchRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<AccountDto> search(AccountFilter filter, AccountSortField sortField, Sort.Direction direction,
+                                   Object afterValue, Long afterId, int offset, int limit) {
+        StringBuilder jpql = new StringBuilder(AccountRepository.SELECT_DTO).append("FROM Account a WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.getCustomerId() != null) {
+            jpql.append(" AND a.customerId = :customerId");
+            parameters.put("customerId", filter.getCustomerId());
+        }
+        if (filter.getType() != null) {
+            jpql.append(" AND a.type = :type");
+            parameters.put("type", filter.getType());
+        }
+        if (filter.getMinBalance() != null) {
+            jpql.append(" AND a.balance >= :minBalance");
+            parameters.put("minBalance", filter.getMinBalance());
+        }
+        if (filter.getMaxBalance() != null) {
+            jpql.append(" AND a.balance <= :maxBalance");
+            parameters.put("maxBalance", filter.getMaxBalance());
+        }
+        
+        // Property names come from the whitelist enum, never from the request
+        String column = "a." + sortField.getProperty();
+        String after = direction.isAscending() ? " > " : " < ";
+        if (afterId != null) {
+            if (sortField == AccountSortField.ID) {
+                jpql.append(" AND a.id").append(after).append(":afterId");
+            } else {
+                jpql.append(" AND (").append(column).append(after).append(":afterValue OR (")
+                        .append(column).append(" = :afterValue AND a.id").append(after).append(":afterId))");
+                parameters.put("afterValue", afterValue);
+            }
+            parameters.put("afterId", afterId);
+        }
+        jpql.append(" ORDER BY ").append(column).append(' ').append(direction.name());
+        if (sortField != AccountSortField.ID) {
+            jpql.append(", a.id ").append(direction.name());
+        }
+        
+        TypedQuery<AccountDto> query = entityManager.createQuery(jpql.toString(), AccountDto.class);
+        parameters.forEach(query::setParameter);
+        return query.setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
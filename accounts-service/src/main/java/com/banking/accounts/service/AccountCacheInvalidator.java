@@ -0,0 +1,36 @@
+package com.banking.accounts.service;
+
+import com.banking.accounts.config.CacheConfig;
+import com.banking.accounts.event.AccountChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class AccountCacheInvalidator {
+    
+    private final CacheManager cacheManager;
+    
+    /**
+     * Evict the changed account and its customer's account list once the write has committed,
+     * or immediately when the write ran outside a transaction. An eviction racing a lookup of the
+     * same key waits for the lookup's load and removes it, so a value read before the commit is
+     * not left in the cache (see {@link CacheConfig}).
+     * @param event Changed account
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        evict(CacheConfig.ACCOUNTS, event.getAccountId());
+        evict(CacheConfig.ACCOUNTS_BY_CUSTOMER, event.getCustomerId());
+    }
+    
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.banking.accounts.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks shared by account ID, so postings to the same account are
+ * serialized in-process without keeping one lock object per account
+ */
+@Component
+public class AccountLockStripes {
+    
+    private final ReentrantLock[] locks;
+    
+    public AccountLockStripes(@Value("${accounts.posting.lock-stripes:64}") int stripes) {
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+    
+    /**
+     * Get the lock guarding an account
+     * @param accountId Account ID
+     * @return Lock shared by every account mapped to the same stripe
+     */
+    public ReentrantLock lockFor(Long accountId) {
+        return locks[stripeOf(accountId)];
+    }
+    
+    /**
+     * Get the locks guarding two accounts, ordered by stripe. Callers that acquire them in
+     * list order never deadlock with each other, whichever way round the accounts are given.
+     * @param firstId First account ID
+     * @param secondId Second account ID
+     * @return One lock if both accounts share a stripe, otherwise two
+     */
+    public List<ReentrantLock> locksFor(Long firstId, Long secondId) {
+        int first = stripeOf(firstId);
+        int second = stripeOf(secondId);
+        if (first == second) {
+            return List.of(locks[first]);
+        }
+        return List.of(locks[Math.min(first, second)], locks[Math.max(first, second)]);
+    }
+    
+    private int stripeOf(Long accountId) {
+        return Math.floorMod(Long.hashCode(accountId), locks.length);
+    }
+}
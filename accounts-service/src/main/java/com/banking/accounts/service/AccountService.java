@@ -1,21 +1,65 @@
 package com.banking.accounts.service;
 
+import com.banking.accounts.config.CacheConfig;
 import com.banking.accounts.dto.AccountDto;
+import com.banking.accounts.dto.AccountFilter;
+import com.banking.accounts.dto.AccountLookupDto;
+import com.banking.accounts.dto.AccountLookupResultDto;
+import com.banking.accounts.dto.AccountPageDto;
+import com.banking.accounts.dto.AccountSortField;
+import com.banking.accounts.dto.BalancePostingDto;
+import com.banking.accounts.dto.PostingType;
+import com.banking.accounts.dto.TransferDto;
+import com.banking.accounts.dto.TransferResultDto;
 import com.banking.accounts.entity.Account;
+import com.banking.accounts.entity.AccountPosting;
+import com.banking.accounts.event.AccountChangedEvent;
 import com.banking.accounts.exception.AccountNotFoundException;
 import com.banking.accounts.exception.DuplicateAccountException;
+import com.banking.accounts.exception.InsufficientFundsException;
+import com.banking.accounts.repository.AccountPostingRepository;
 import com.banking.accounts.repository.AccountRepository;
+import com.banking.common.observation.ObservationAutoConfiguration;
+import com.banking.common.web.PreconditionFailedException;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Observed(name = ObservationAutoConfiguration.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 public class AccountService {
     
+    static final int MAX_PAGE_SIZE = 500;
+    
+    /**
+     * Appended to a transfer reference to form the reference of its credit posting
+     */
+    static final String CREDIT_REFERENCE_SUFFIX = "/credit";
+    
     private final AccountRepository accountRepository;
+    private final AccountPostingRepository accountPostingRepository;
+    private final AccountLockStripes accountLockStripes;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Create a new account
@@ -29,17 +73,57 @@ public class AccountService {
         
         Account account = convertToEntity(accountDto);
         Account savedAccount = accountRepository.save(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(savedAccount.getId(), savedAccount.getCustomerId()));
         return convertToDto(savedAccount);
     }
     
     /**
-     * Get all accounts
-     * @return List of all accounts
+     * List accounts one page at a time. Pages are addressed by number, or by the opaque cursor
+     * returned with the previous page, which stays cheap however deep the client pages.
+     * @param filter Filters; null fields are not applied
+     * @param sort Whitelisted sort property, optionally followed by ",asc" or ",desc"
+     * @param page Page number, ignored when a cursor is given
+     * @param cursor Cursor returned with the previous page, or null
+     * @param size Maximum number of accounts to return, capped at {@value #MAX_PAGE_SIZE}
+     * @return Page of accounts with the cursor of the next page
      */
-    public List<AccountDto> getAllAccounts() {
-        return accountRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public AccountPageDto getAccountPage(AccountFilter filter, String sort, int page, String cursor, int size) {
+        if (filter.getMinBalance() != null && filter.getMaxBalance() != null
+                && filter.getMinBalance().compareTo(filter.getMaxBalance()) > 0) {
+            throw new IllegalArgumentException("minBalance must not exceed maxBalance");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String[] sortParts = sort.split(",", 2);
+        AccountSortField sortField = AccountSortField.fromProperty(sortParts[0].trim());
+        Sort.Direction direction = sortParts.length > 1 ? Sort.Direction.fromString(sortParts[1].trim()) : Sort.Direction.ASC;
+        
+        // Fetch one extra row to find out whether another page follows
+        List<AccountDto> accounts;
+        Integer pageNumber = null;
+        if (cursor == null || cursor.isBlank()) {
+            long offset = (long) page * pageSize;
+            if (page < 0 || offset > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Page must be between 0 and " + Integer.MAX_VALUE / pageSize);
+            }
+            pageNumber = page;
+            accounts = accountRepository.search(filter, sortField, direction, null, null, (int) offset, pageSize + 1);
+        } else {
+            String[] position = decodeCursor(cursor, sortField, direction);
+            Object afterValue;
+            try {
+                afterValue = sortField.getParser().apply(position[1]);
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            accounts = accountRepository.search(filter, sortField, direction, afterValue, Long.valueOf(position[0]), 0, pageSize + 1);
+        }
+        
+        String nextCursor = null;
+        if (accounts.size() > pageSize) {
+            accounts = accounts.subList(0, pageSize);
+            nextCursor = encodeCursor(accounts.get(pageSize - 1), sortField, direction);
+        }
+        return new AccountPageDto(accounts, pageNumber, pageSize, nextCursor);
     }
     
     /**
@@ -47,6 +131,7 @@ public class AccountService {
      * @param id Account ID
      * @return Account details
      */
+    @Cacheable(cacheNames = CacheConfig.ACCOUNTS, key = "#id", sync = true)
     public AccountDto getAccountById(Long id) {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + id));
@@ -58,21 +143,63 @@ public class AccountService {
      * @param customerId Customer ID
      * @return List of customer accounts
      */
+    @Cacheable(cacheNames = CacheConfig.ACCOUNTS_BY_CUSTOMER, key = "#customerId", sync = true)
     public List<AccountDto> getAccountsByCustomerId(Long customerId) {
-        return accountRepository.findByCustomerId(customerId).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return accountRepository.findDtosByCustomerId(customerId);
     }
     
     /**
-     * Update account details
+     * Look up many accounts at once, with one IN query for the IDs and one for the account numbers
+     * @param lookup Account IDs and account numbers, in the order the results should follow
+     * @return Accounts in request order, duplicates removed, and the keys that matched no account
+     */
+    public AccountLookupResultDto lookupAccounts(AccountLookupDto lookup) {
+        List<Long> ids = distinct(lookup.getIds());
+        List<String> accountNumbers = distinct(lookup.getAccountNumbers());
+        Map<Long, AccountDto> byId = ids.isEmpty() ? Map.of()
+                : accountRepository.findDtosByIdIn(ids).stream().collect(Collectors.toMap(AccountDto::getId, Function.identity()));
+        Map<String, AccountDto> byAccountNumber = accountNumbers.isEmpty() ? Map.of()
+                : accountRepository.findDtosByAccountNumberIn(accountNumbers).stream()
+                        .collect(Collectors.toMap(AccountDto::getAccountNumber, Function.identity()));
+        
+        List<AccountDto> accounts = new ArrayList<>(ids.size() + accountNumbers.size());
+        List<Long> missingIds = new ArrayList<>();
+        List<String> missingAccountNumbers = new ArrayList<>();
+        for (Long id : ids) {
+            AccountDto account = byId.get(id);
+            if (account == null) {
+                missingIds.add(id);
+            } else {
+                accounts.add(account);
+            }
+        }
+        for (String accountNumber : accountNumbers) {
+            AccountDto account = byAccountNumber.get(accountNumber);
+            if (account == null) {
+                missingAccountNumbers.add(accountNumber);
+            } else {
+                accounts.add(account);
+            }
+        }
+        return new AccountLookupResultDto(accounts, missingIds, missingAccountNumbers);
+    }
+    
+    /**
+     * Update account details. The write fails with an optimistic locking exception if the
+     * account changes between the read and the write. The balance is not updatable here: it
+     * only changes through postings and transfers, so the balance in the request is ignored.
      * @param id Account ID
-     * @param accountDto Updated account details
+     * @param accountDto Updated account number and type
+     * @param expectedVersion Version the client last read, or null to skip the check
      * @return Updated account
+     * @throws PreconditionFailedException if the account is no longer at the expected version
      */
-    public AccountDto updateAccount(Long id, AccountDto accountDto) {
+    public AccountDto updateAccount(Long id, AccountDto accountDto, Long expectedVersion) {
         Account existingAccount = accountRepository.findById(id)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(existingAccount.getVersion())) {
+            throw new PreconditionFailedException("Account " + id + " has changed since version " + expectedVersion);
+        }
         
         // Check if account number is being changed and if it already exists
         if (!existingAccount.getAccountNumber().equals(accountDto.getAccountNumber()) &&
@@ -82,21 +209,240 @@ public class AccountService {
         
         existingAccount.setAccountNumber(accountDto.getAccountNumber());
         existingAccount.setType(accountDto.getType());
-        existingAccount.setBalance(accountDto.getBalance());
         
         Account updatedAccount = accountRepository.save(existingAccount);
+        eventPublisher.publishEvent(new AccountChangedEvent(updatedAccount.getId(), updatedAccount.getCustomerId()));
         return convertToDto(updatedAccount);
     }
     
+    /**
+     * Atomically apply a deposit or withdrawal to an account balance.
+     * Postings to the same account are serialized by a striped in-process lock and a
+     * row lock, so concurrent posts never lose updates. A posting with a reference is applied
+     * at most once: sending it again returns the account without changing the balance, with the
+     * balance the original posting left it at, so a replay is answered like the original.
+     * @param id Account ID
+     * @param posting Posting type, amount and optional reference
+     * @return Account with the balance right after the posting
+     */
+    public AccountDto postBalance(Long id, BalancePostingDto posting) {
+        BigDecimal delta = posting.getType() == PostingType.DEPOSIT ? posting.getAmount() : posting.getAmount().negate();
+        
+        ReentrantLock lock = accountLockStripes.lockFor(id);
+        lock.lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                Account account = lockAccount(id);
+                // Checked under the row lock, so a retry racing the original waits for it and sees its record
+                Optional<AccountPosting> applied = findApplied(posting.getReference(), id);
+                if (applied.isPresent()) {
+                    return withPosting(convertToDto(account), applied.get());
+                }
+                
+                BigDecimal newBalance = account.getBalance().add(delta);
+                // Balance cannot be negative, same rule as the entity validation
+                if (newBalance.signum() < 0) {
+                    throw new InsufficientFundsException("Insufficient funds in account with id: " + id);
+                }
+                
+                account.setBalance(newBalance);
+                Account savedAccount = accountRepository.save(account);
+                AccountDto result = convertToDto(savedAccount);
+                if (posting.getReference() != null) {
+                    AccountPosting applying = new AccountPosting(null, posting.getReference(), id, delta, newBalance, nextPostedAt(id));
+                    accountPostingRepository.save(applying);
+                    withPosting(result, applying);
+                }
+                eventPublisher.publishEvent(new AccountChangedEvent(savedAccount.getId(), savedAccount.getCustomerId()));
+                return result;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Move money between two accounts in one database transaction: either both balances
+     * change or neither does. Both the striped in-process locks and the row locks are
+     * acquired in a fixed order (stripe index, then ascending account ID), so concurrent
+     * transfers in opposite directions between the same accounts queue instead of deadlocking.
+     * A transfer with a reference is applied at most once and recorded as a debit posting under
+     * the reference and a credit posting under the reference plus {@value #CREDIT_REFERENCE_SUFFIX};
+     * sending it again returns both accounts without changing them, with the balances the original
+     * transfer left them at.
+     * @param transfer Source account, destination account, amount and optional reference
+     * @return Both accounts with their new balances
+     * @throws InsufficientFundsException if the source balance would become negative
+     */
+    public TransferResultDto transfer(TransferDto transfer) {
+        Long sourceId = transfer.getSourceAccountId();
+        Long destinationId = transfer.getDestinationAccountId();
+        
+        List<ReentrantLock> locks = accountLockStripes.locksFor(sourceId, destinationId);
+        locks.forEach(ReentrantLock::lock);
+        try {
+            return transactionTemplate.execute(status -> {
+                Account lower = lockAccount(Math.min(sourceId, destinationId));
+                Account higher = lockAccount(Math.max(sourceId, destinationId));
+                Account source = lower.getId().equals(sourceId) ? lower : higher;
+                Account destination = source == lower ? higher : lower;
+                String reference = transfer.getReference();
+                Optional<AccountPosting> applied = findApplied(reference, sourceId);
+                if (applied.isPresent()) {
+                    AccountDto destinationDto = convertToDto(destination);
+                    findApplied(reference + CREDIT_REFERENCE_SUFFIX, destinationId)
+                            .ifPresent(credit -> withPosting(destinationDto, credit));
+                    return new TransferResultDto(withPosting(convertToDto(source), applied.get()), destinationDto);
+                }
+                
+                BigDecimal newSourceBalance = source.getBalance().subtract(transfer.getAmount());
+                if (newSourceBalance.signum() < 0) {
+                    throw new InsufficientFundsException("Insufficient funds in account with id: " + sourceId);
+                }
+                
+                source.setBalance(newSourceBalance);
+                destination.setBalance(destination.getBalance().add(transfer.getAmount()));
+                Account savedSource = accountRepository.save(source);
+                Account savedDestination = accountRepository.save(destination);
+                AccountDto sourceDto = convertToDto(savedSource);
+                AccountDto destinationDto = convertToDto(savedDestination);
+                if (reference != null) {
+                    AccountPosting debit = new AccountPosting(null, reference, sourceId,
+                            transfer.getAmount().negate(), savedSource.getBalance(), nextPostedAt(sourceId));
+                    AccountPosting credit = new AccountPosting(null, reference + CREDIT_REFERENCE_SUFFIX, destinationId,
+                            transfer.getAmount(), savedDestination.getBalance(), nextPostedAt(destinationId));
+                    accountPostingRepository.save(debit);
+                    accountPostingRepository.save(credit);
+                    withPosting(sourceDto, debit);
+                    withPosting(destinationDto, credit);
+                }
+                eventPublisher.publishEvent(new AccountChangedEvent(savedSource.getId(), savedSource.getCustomerId()));
+                eventPublisher.publishEvent(new AccountChangedEvent(savedDestination.getId(), savedDestination.getCustomerId()));
+                return new TransferResultDto(sourceDto, destinationDto);
+            });
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+    
+    /**
+     * Balance of an account before the postings applied at or after a point in time, read from
+     * the recorded postings: the balance the last earlier posting left, or else the balance the
+     * first later posting started from. Unlike the live balance it leaves out every posting
+     * applied since, whether or not the caller has recorded its outcome yet.
+     * Only postings made with a reference are recorded, so those made without one are not
+     * taken back.
+     * @param id Account ID
+     * @param before Point in time
+     * @return Account with its balance before the point in time
+     */
+    public AccountDto getBalanceBefore(Long id, LocalDateTime before) {
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + id));
+        BigDecimal balance = accountPostingRepository.findFirstByAccountIdAndPostedAtLessThanOrderByPostedAtDesc(id, before)
+                .map(AccountPosting::getBalanceAfter)
+                .or(() -> accountPostingRepository.findFirstByAccountIdAndPostedAtGreaterThanEqualOrderByPostedAtAsc(id, before)
+                        .map(posting -> posting.getBalanceAfter().subtract(posting.getAmount())))
+                .orElse(account.getBalance());
+        return withBalance(convertToDto(account), balance);
+    }
+    
     /**
      * Delete account by ID
      * @param id Account ID
      */
     public void deleteAccount(Long id) {
-        if (!accountRepository.existsById(id)) {
-            throw new AccountNotFoundException("Account not found with id: " + id);
-        }
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + id));
         accountRepository.deleteById(id);
+        eventPublisher.publishEvent(new AccountChangedEvent(id, account.getCustomerId()));
+    }
+    
+    /**
+     * Encode the keyset position of an account under a sort as an opaque cursor
+     */
+    private String encodeCursor(AccountDto account, AccountSortField sortField, Sort.Direction direction) {
+        String position = sortField + "|" + direction + "|" + account.getId() + "|" + sortField.getAccessor().apply(account);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor into its account ID and sort value parts, rejecting cursors issued for another sort
+     */
+    private String[] decodeCursor(String cursor, AccountSortField sortField, Sort.Direction direction) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            Long.parseLong(parts[2]);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (!parts[0].equals(sortField.name()) || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort");
+        }
+        return new String[]{parts[2], parts[3]};
+    }
+    
+    private static <T> List<T> distinct(List<T> keys) {
+        return keys == null ? List.of() : new ArrayList<>(new LinkedHashSet<>(keys));
+    }
+    
+    /**
+     * Posting already applied to an account under a reference
+     * @param reference Posting reference, or null for a posting that is always applied
+     * @return The applied posting, or empty if the reference is null or was not used yet
+     * @throws IllegalArgumentException if the reference was applied to another account
+     */
+    private Optional<AccountPosting> findApplied(String reference, Long accountId) {
+        if (reference == null) {
+            return Optional.empty();
+        }
+        Optional<AccountPosting> applied = accountPostingRepository.findByReference(reference);
+        if (applied.isPresent() && !applied.get().getAccountId().equals(accountId)) {
+            throw new IllegalArgumentException("Posting reference " + reference + " was already used for another account");
+        }
+        return applied;
+    }
+    
+    private static AccountDto withBalance(AccountDto account, BigDecimal balance) {
+        account.setBalance(balance);
+        return account;
+    }
+    
+    /**
+     * Answer with the balance a posting left and when it was applied
+     */
+    private static AccountDto withPosting(AccountDto account, AccountPosting posting) {
+        account.setPostedAt(posting.getPostedAt());
+        return withBalance(account, posting.getBalanceAfter());
+    }
+    
+    /**
+     * Time to record a new posting of an account at: now, but always after the latest posting
+     * of the account, so posting times follow the order postings are applied in even when the
+     * clock steps back or differs between instances. Must run under the account's row lock.
+     * Truncated to the microseconds the posted_at column keeps.
+     */
+    private LocalDateTime nextPostedAt(Long accountId) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return accountPostingRepository.findFirstByAccountIdOrderByPostedAtDesc(accountId)
+                .map(AccountPosting::getPostedAt)
+                .filter(latest -> !now.isAfter(latest))
+                .map(latest -> latest.plus(1, ChronoUnit.MICROS))
+                .orElse(now);
+    }
+    
+    /**
+     * Load an account under a row lock held until the surrounding transaction ends
+     */
+    private Account lockAccount(Long id) {
+        return accountRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + id));
     }
     
     /**
@@ -110,6 +456,7 @@ public class AccountService {
         dto.setType(account.getType());
         dto.setBalance(account.getBalance());
         dto.setCreatedAt(account.getCreatedAt().toString());
+        dto.setVersion(account.getVersion());
         return dto;
     }
     
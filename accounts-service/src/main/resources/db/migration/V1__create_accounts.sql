@@ -0,0 +1,11 @@
+CREATE TABLE accounts (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_number VARCHAR(20)    NOT NULL,
+    customer_id    BIGINT         NOT NULL,
+    type           VARCHAR(50)    NOT NULL,
+    balance        NUMERIC(15, 2) NOT NULL,
+    created_at     TIMESTAMP(6)   NOT NULL
+);
+
+CREATE UNIQUE INDEX uk_accounts_account_number ON accounts (account_number);
+CREATE INDEX idx_accounts_customer_id ON accounts (customer_id);
@@ -0,0 +1,8 @@
+-- Store account type as a one-character code (see AccountType)
+UPDATE accounts SET type = CASE type
+    WHEN 'Savings' THEN 'S'
+    WHEN 'Checking' THEN 'C'
+    WHEN 'Current' THEN 'U'
+END;
+
+ALTER TABLE accounts ALTER COLUMN type SET DATA TYPE CHAR(1);
@@ -0,0 +1,2 @@
+-- Version column for optimistic locking (see Account.version)
+ALTER TABLE accounts ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
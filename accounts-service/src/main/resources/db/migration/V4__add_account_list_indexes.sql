@@ -0,0 +1,3 @@
+-- Serve balance filters and balance-sorted pages, with the ID as keyset tie-breaker
+CREATE INDEX idx_accounts_balance_id ON accounts (balance, id);
+CREATE INDEX idx_accounts_type_balance_id ON accounts (type, balance, id);
@@ -0,0 +1,11 @@
+CREATE TABLE account_postings (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    reference     VARCHAR(64)    NOT NULL,
+    account_id    BIGINT         NOT NULL,
+    amount        NUMERIC(15, 2) NOT NULL,
+    balance_after NUMERIC(15, 2) NOT NULL,
+    posted_at     TIMESTAMP(6)   NOT NULL
+);
+
+-- A reference is applied at most once, whichever instance or retry sends it
+CREATE UNIQUE INDEX uk_account_postings_reference ON account_postings (reference);
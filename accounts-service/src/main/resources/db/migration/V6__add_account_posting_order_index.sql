@@ -0,0 +1,3 @@
+-- Serves the latest posting of an account, read under its row lock to keep posted_at increasing,
+-- and the balance of an account before a point in time
+CREATE INDEX idx_account_postings_account_posted_at ON account_postings (account_id, posted_at);
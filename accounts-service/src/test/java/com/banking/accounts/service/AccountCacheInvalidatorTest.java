@@ -0,0 +1,70 @@
+package com.banking.accounts.service;
+
+import com.banking.accounts.config.CacheConfig;
+import com.banking.accounts.event.AccountChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountCacheInvalidatorTest {
+
+    private CaffeineCacheManager cacheManager;
+    private AccountCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager(CacheConfig.ACCOUNTS, CacheConfig.ACCOUNTS_BY_CUSTOMER);
+        invalidator = new AccountCacheInvalidator(cacheManager);
+    }
+
+    @Test
+    void onAccountChanged_EvictsAccountAndCustomerList() {
+        cacheManager.getCache(CacheConfig.ACCOUNTS).put(1L, "account");
+        cacheManager.getCache(CacheConfig.ACCOUNTS_BY_CUSTOMER).put(2002L, "accounts");
+
+        invalidator.onAccountChanged(new AccountChangedEvent(1L, 2002L));
+
+        assertNull(cacheManager.getCache(CacheConfig.ACCOUNTS).get(1L));
+        assertNull(cacheManager.getCache(CacheConfig.ACCOUNTS_BY_CUSTOMER).get(2002L));
+    }
+
+    @Test
+    void onAccountChanged_RemovesValueLoadedBeforeTheCommit() throws Exception {
+        Cache accounts = cacheManager.getCache(CacheConfig.ACCOUNTS);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+
+        // A sync lookup that read the row before the write committed, and only stores it afterwards
+        CompletableFuture<Object> lookup = CompletableFuture.supplyAsync(() -> accounts.get(1L, () -> {
+            loading.countDown();
+            committed.await(5, TimeUnit.SECONDS);
+            return "stale";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Thread writer = new Thread(() -> invalidator.onAccountChanged(new AccountChangedEvent(1L, 2002L)));
+        writer.start();
+        awaitBlockedOrDone(writer);
+        committed.countDown();
+
+        assertEquals("stale", lookup.get(5, TimeUnit.SECONDS));
+        writer.join(5000);
+        assertNull(accounts.get(1L));
+    }
+
+    /**
+     * Wait until the eviction is blocked on the in-flight load, or has finished without waiting
+     */
+    private static void awaitBlockedOrDone(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.isAlive() && thread.getState() == Thread.State.RUNNABLE && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
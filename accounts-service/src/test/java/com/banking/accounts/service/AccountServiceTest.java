@@ -1,22 +1,47 @@
 package com.banking.accounts.service;
 
 import com.banking.accounts.dto.AccountDto;
+import com.banking.accounts.dto.AccountFilter;
+import com.banking.accounts.dto.AccountLookupDto;
+import com.banking.accounts.dto.AccountLookupResultDto;
+import com.banking.accounts.dto.AccountPageDto;
+import com.banking.accounts.dto.AccountSortField;
+import com.banking.accounts.dto.BalancePostingDto;
+import com.banking.accounts.dto.PostingType;
+import com.banking.accounts.dto.TransferDto;
+import com.banking.accounts.dto.TransferResultDto;
 import com.banking.accounts.entity.Account;
+import com.banking.accounts.entity.AccountPosting;
+import com.banking.accounts.entity.AccountType;
+import com.banking.accounts.event.AccountChangedEvent;
 import com.banking.accounts.exception.AccountNotFoundException;
 import com.banking.accounts.exception.DuplicateAccountException;
+import com.banking.accounts.exception.InsufficientFundsException;
+import com.banking.accounts.repository.AccountPostingRepository;
 import com.banking.accounts.repository.AccountRepository;
+import com.banking.common.web.PreconditionFailedException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,6 +53,15 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private AccountPostingRepository accountPostingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -39,14 +73,14 @@ class AccountServiceTest {
         accountDto = new AccountDto();
         accountDto.setAccountNumber("NL91ABNA0417164300");
         accountDto.setCustomerId(1001L);
-        accountDto.setType("Savings");
+        accountDto.setType(AccountType.SAVINGS);
         accountDto.setBalance(new BigDecimal("5000.00"));
 
         account = new Account();
         account.setId(1L);
         account.setAccountNumber("NL91ABNA0417164300");
         account.setCustomerId(1001L);
-        account.setType("Savings");
+        account.setType(AccountType.SAVINGS);
         account.setBalance(new BigDecimal("5000.00"));
         account.setCreatedAt(LocalDateTime.now());
     }
@@ -89,28 +123,411 @@ class AccountServiceTest {
     }
 
     @Test
-    void getAllAccounts_Success() {
-        when(accountRepository.findAll()).thenReturn(Arrays.asList(account));
+    void getAccountPage_ReturnsNextCursorWhenMoreRowsFollow() {
+        AccountFilter filter = new AccountFilter(1001L, null, null, null);
+        AccountDto first = new AccountDto(1L, "ACC1", 1001L, AccountType.SAVINGS, new BigDecimal("5000.00"), LocalDateTime.now(), 0L);
+        AccountDto second = new AccountDto(2L, "ACC2", 1001L, AccountType.SAVINGS, new BigDecimal("5000.00"), LocalDateTime.now(), 0L);
+        AccountDto third = new AccountDto(3L, "ACC3", 1001L, AccountType.SAVINGS, new BigDecimal("7000.00"), LocalDateTime.now(), 0L);
+        when(accountRepository.search(filter, AccountSortField.BALANCE, Sort.Direction.ASC, null, null, 0, 3))
+                .thenReturn(List.of(first, second, third));
+
+        AccountPageDto page = accountService.getAccountPage(filter, "balance", 0, null, 2);
+
+        assertEquals(List.of(first, second), page.getAccounts());
+        assertEquals(0, page.getPage());
+        assertNotNull(page.getNextCursor());
+
+        // The cursor resumes after the last row returned, tie-broken by ID
+        when(accountRepository.search(filter, AccountSortField.BALANCE, Sort.Direction.ASC, new BigDecimal("5000.00"), 2L, 0, 3))
+                .thenReturn(List.of(third));
+
+        AccountPageDto next = accountService.getAccountPage(filter, "balance", 0, page.getNextCursor(), 2);
+
+        assertEquals(List.of(third), next.getAccounts());
+        assertNull(next.getPage());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void getAccountPage_UsesOffsetForPageNumber() {
+        AccountFilter filter = new AccountFilter(null, null, null, null);
+        when(accountRepository.search(filter, AccountSortField.ID, Sort.Direction.DESC, null, null, 100, 51))
+                .thenReturn(List.of(accountDto));
+
+        AccountPageDto page = accountService.getAccountPage(filter, "id,desc", 2, null, 50);
+
+        assertEquals(1, page.getAccounts().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getAccountPage_CapsPageSize() {
+        AccountFilter filter = new AccountFilter(null, null, null, null);
+        when(accountRepository.search(filter, AccountSortField.ID, Sort.Direction.ASC, null, null, 0, AccountService.MAX_PAGE_SIZE + 1))
+                .thenReturn(List.of());
 
-        List<AccountDto> results = accountService.getAllAccounts();
+        AccountPageDto page = accountService.getAccountPage(filter, "id", 0, null, 10_000);
 
-        assertNotNull(results);
-        assertEquals(1, results.size());
+        assertEquals(AccountService.MAX_PAGE_SIZE, page.getSize());
+    }
+
+    @Test
+    void getAccountPage_RejectsUnknownSortProperty() {
+        AccountFilter filter = new AccountFilter(null, null, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.getAccountPage(filter, "customerId", 0, null, 50));
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void getAccountPage_RejectsCursorFromAnotherSort() {
+        AccountFilter filter = new AccountFilter(null, null, null, null);
+        AccountDto first = new AccountDto(1L, "ACC1", 1001L, AccountType.SAVINGS, new BigDecimal("5000.00"), LocalDateTime.now(), 0L);
+        when(accountRepository.search(filter, AccountSortField.ID, Sort.Direction.ASC, null, null, 0, 2))
+                .thenReturn(List.of(first, accountDto));
+        String cursor = accountService.getAccountPage(filter, "id", 0, null, 1).getNextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.getAccountPage(filter, "balance", 0, cursor, 1));
+        assertThrows(IllegalArgumentException.class, () -> accountService.getAccountPage(filter, "id", 0, "not-a-cursor", 1));
+    }
+
+    @Test
+    void lookupAccounts_ReturnsRequestOrderAndFlagsMissing() {
+        AccountDto first = new AccountDto(1L, "ACC1", 1001L, AccountType.SAVINGS, new BigDecimal("5000.00"), LocalDateTime.now(), 0L);
+        AccountDto second = new AccountDto(2L, "ACC2", 1001L, AccountType.CHECKING, new BigDecimal("1000.00"), LocalDateTime.now(), 0L);
+        when(accountRepository.findDtosByIdIn(List.of(2L, 9L, 1L))).thenReturn(Arrays.asList(first, second));
+        when(accountRepository.findDtosByAccountNumberIn(List.of("ACC2", "UNKNOWN"))).thenReturn(List.of(second));
+
+        AccountLookupResultDto result = accountService.lookupAccounts(
+                new AccountLookupDto(List.of(2L, 9L, 1L, 9L), List.of("ACC2", "UNKNOWN")));
+
+        assertEquals(List.of(2L, 1L, 2L), result.getAccounts().stream().map(AccountDto::getId).toList());
+        assertEquals(List.of(9L), result.getMissingIds());
+        assertEquals(List.of("UNKNOWN"), result.getMissingAccountNumbers());
+        verify(accountRepository, never()).findById(anyLong());
+        verify(accountRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void updateAccount_MatchingVersion() {
+        account.setVersion(3L);
+        accountDto.setType(AccountType.CHECKING);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.save(any(Account.class))).thenReturn(account);
+
+        AccountDto result = accountService.updateAccount(1L, accountDto, 3L);
+
+        assertEquals(AccountType.CHECKING, result.getType());
+        assertEquals(3L, result.getVersion());
+    }
+
+    @Test
+    void updateAccount_IgnoresBalance() {
+        accountDto.setBalance(new BigDecimal("999999.00"));
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.save(any(Account.class))).thenReturn(account);
+
+        AccountDto result = accountService.updateAccount(1L, accountDto, null);
+
+        assertEquals(new BigDecimal("5000.00"), result.getBalance());
+    }
+
+    @Test
+    void updateAccount_StaleVersionFailsPrecondition() {
+        account.setVersion(3L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+
+        assertThrows(PreconditionFailedException.class, () -> accountService.updateAccount(1L, accountDto, 2L));
+        verify(accountRepository, never()).save(any(Account.class));
     }
 
     @Test
     void deleteAccount_Success() {
-        when(accountRepository.existsById(1L)).thenReturn(true);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
         doNothing().when(accountRepository).deleteById(1L);
 
         assertDoesNotThrow(() -> accountService.deleteAccount(1L));
         verify(accountRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(new AccountChangedEvent(1L, 1001L));
     }
 
     @Test
     void deleteAccount_NotFound() {
-        when(accountRepository.existsById(1L)).thenReturn(false);
+        when(accountRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(AccountNotFoundException.class, () -> accountService.deleteAccount(1L));
     }
+
+    @Test
+    void postBalance_Deposit() {
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        AccountDto result = postingService().postBalance(1L, new BalancePostingDto(PostingType.DEPOSIT, new BigDecimal("250.00")));
+
+        assertEquals(new BigDecimal("5250.00"), result.getBalance());
+        verify(eventPublisher).publishEvent(new AccountChangedEvent(1L, 1001L));
+    }
+
+    @Test
+    void postBalance_InsufficientFunds() {
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+
+        assertThrows(InsufficientFundsException.class,
+            () -> postingService().postBalance(1L, new BalancePostingDto(PostingType.WITHDRAWAL, new BigDecimal("5000.01"))));
+        assertEquals(new BigDecimal("5000.00"), account.getBalance());
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void postBalance_RecordsReference() {
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountPostingRepository.findByReference("transaction-7")).thenReturn(Optional.empty());
+
+        postingService().postBalance(1L, new BalancePostingDto(PostingType.WITHDRAWAL, new BigDecimal("250.00"), "transaction-7"));
+
+        verify(accountPostingRepository).save(argThat(posting -> posting.getReference().equals("transaction-7")
+                && posting.getAccountId() == 1L
+                && posting.getAmount().equals(new BigDecimal("-250.00"))
+                && posting.getBalanceAfter().equals(new BigDecimal("4750.00"))
+                && posting.getPostedAt() != null));
+    }
+
+    @Test
+    void postBalance_PostedAtFollowsLatestPostingOfAccount() {
+        // The latest posting was stamped by an instance whose clock runs ahead of this one
+        LocalDateTime latest = LocalDateTime.now().plusMinutes(5).truncatedTo(ChronoUnit.MICROS);
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountPostingRepository.findByReference("transaction-8")).thenReturn(Optional.empty());
+        when(accountPostingRepository.findFirstByAccountIdOrderByPostedAtDesc(1L)).thenReturn(Optional.of(new AccountPosting(
+                3L, "transaction-7", 1L, new BigDecimal("250.00"), new BigDecimal("5000.00"), latest)));
+
+        AccountDto result = postingService().postBalance(1L,
+                new BalancePostingDto(PostingType.DEPOSIT, new BigDecimal("250.00"), "transaction-8"));
+
+        assertEquals(latest.plus(1, ChronoUnit.MICROS), result.getPostedAt());
+        verify(accountPostingRepository).save(argThat(posting -> posting.getPostedAt().equals(result.getPostedAt())));
+    }
+
+    @Test
+    void postBalance_ReplayedReferenceIsNotAppliedAgain() {
+        LocalDateTime postedAt = LocalDateTime.now().minusMinutes(1);
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountPostingRepository.findByReference("transaction-7")).thenReturn(Optional.of(new AccountPosting(
+                3L, "transaction-7", 1L, new BigDecimal("250.00"), new BigDecimal("4750.00"), postedAt)));
+
+        AccountDto result = postingService().postBalance(1L,
+                new BalancePostingDto(PostingType.DEPOSIT, new BigDecimal("250.00"), "transaction-7"));
+
+        // Answered with the balance the original posting left, not the current 5000.00
+        assertEquals(new BigDecimal("4750.00"), result.getBalance());
+        assertEquals(postedAt, result.getPostedAt());
+        verify(accountRepository, never()).save(any(Account.class));
+        verify(accountPostingRepository, never()).save(any(AccountPosting.class));
+    }
+
+    @Test
+    void postBalance_ReferenceOfAnotherAccountIsRejected() {
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountPostingRepository.findByReference("transaction-7")).thenReturn(Optional.of(new AccountPosting(
+                3L, "transaction-7", 2L, new BigDecimal("250.00"), new BigDecimal("1250.00"), LocalDateTime.now())));
+
+        assertThrows(IllegalArgumentException.class, () -> postingService().postBalance(1L,
+                new BalancePostingDto(PostingType.DEPOSIT, new BigDecimal("250.00"), "transaction-7")));
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void postBalance_ConcurrentPostsToHotAccountAreSerialized() throws Exception {
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        AccountService service = postingService();
+        int threads = 8;
+        int postsPerThread = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < postsPerThread; i++) {
+                    service.postBalance(1L, new BalancePostingDto(PostingType.DEPOSIT, new BigDecimal("1.00")));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(new BigDecimal("7000.00"), account.getBalance());
+    }
+
+    @Test
+    void transfer_DebitsSourceAndCreditsDestination() {
+        Account destination = account(2L, "1000.00");
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(destination));
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransferResultDto result = postingService().transfer(new TransferDto(1L, 2L, new BigDecimal("750.00")));
+
+        assertEquals(new BigDecimal("4250.00"), result.getSource().getBalance());
+        assertEquals(new BigDecimal("1750.00"), result.getDestination().getBalance());
+        verify(eventPublisher).publishEvent(new AccountChangedEvent(1L, 1001L));
+        verify(eventPublisher).publishEvent(new AccountChangedEvent(2L, 1001L));
+    }
+
+    @Test
+    void transfer_LocksRowsInAscendingIdOrder() {
+        Account destination = account(2L, "1000.00");
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(destination));
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransferResultDto result = postingService().transfer(new TransferDto(2L, 1L, new BigDecimal("100.00")));
+
+        InOrder rowLocks = inOrder(accountRepository);
+        rowLocks.verify(accountRepository).findByIdForUpdate(1L);
+        rowLocks.verify(accountRepository).findByIdForUpdate(2L);
+        assertEquals(2L, result.getSource().getId());
+        assertEquals(new BigDecimal("900.00"), result.getSource().getBalance());
+        assertEquals(new BigDecimal("5100.00"), result.getDestination().getBalance());
+    }
+
+    @Test
+    void transfer_InsufficientFundsChangesNeitherAccount() {
+        Account destination = account(2L, "1000.00");
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(destination));
+
+        assertThrows(InsufficientFundsException.class,
+            () -> postingService().transfer(new TransferDto(1L, 2L, new BigDecimal("5000.01"))));
+        assertEquals(new BigDecimal("5000.00"), account.getBalance());
+        assertEquals(new BigDecimal("1000.00"), destination.getBalance());
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void transfer_RecordsDebitAndCreditPostingsUnderReference() {
+        Account destination = account(2L, "1000.00");
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(destination));
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountPostingRepository.findByReference("transaction-9")).thenReturn(Optional.empty());
+
+        postingService().transfer(new TransferDto(1L, 2L, new BigDecimal("750.00"), "transaction-9"));
+
+        verify(accountPostingRepository).save(argThat(posting -> posting.getReference().equals("transaction-9")
+                && posting.getAccountId() == 1L
+                && posting.getAmount().equals(new BigDecimal("-750.00"))
+                && posting.getBalanceAfter().equals(new BigDecimal("4250.00"))
+                && posting.getPostedAt() != null));
+        verify(accountPostingRepository).save(argThat(posting -> posting.getReference().equals("transaction-9/credit")
+                && posting.getAccountId() == 2L
+                && posting.getAmount().equals(new BigDecimal("750.00"))
+                && posting.getBalanceAfter().equals(new BigDecimal("1750.00"))
+                && posting.getPostedAt() != null));
+    }
+
+    @Test
+    void transfer_ReplayedReferenceIsNotAppliedAgain() {
+        Account destination = account(2L, "1000.00");
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(destination));
+        when(accountPostingRepository.findByReference("transaction-9")).thenReturn(Optional.of(new AccountPosting(
+                3L, "transaction-9", 1L, new BigDecimal("-750.00"), new BigDecimal("5250.00"), LocalDateTime.now())));
+        when(accountPostingRepository.findByReference("transaction-9/credit")).thenReturn(Optional.of(new AccountPosting(
+                4L, "transaction-9/credit", 2L, new BigDecimal("750.00"), new BigDecimal("750.00"), LocalDateTime.now())));
+
+        TransferResultDto result = postingService().transfer(new TransferDto(1L, 2L, new BigDecimal("750.00"), "transaction-9"));
+
+        // Answered with the balances the original transfer left, not the current ones
+        assertEquals(new BigDecimal("5250.00"), result.getSource().getBalance());
+        assertEquals(new BigDecimal("750.00"), result.getDestination().getBalance());
+        verify(accountRepository, never()).save(any(Account.class));
+        verify(accountPostingRepository, never()).save(any(AccountPosting.class));
+    }
+
+    @Test
+    void getBalanceBefore_TakesBalanceLeftByLastEarlierPosting() {
+        LocalDateTime before = LocalDateTime.now().minusHours(1);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountPostingRepository.findFirstByAccountIdAndPostedAtLessThanOrderByPostedAtDesc(1L, before))
+                .thenReturn(Optional.of(new AccountPosting(3L, "transaction-7", 1L, new BigDecimal("250.00"),
+                        new BigDecimal("4750.00"), before.minusMinutes(1))));
+
+        assertEquals(new BigDecimal("4750.00"), accountService.getBalanceBefore(1L, before).getBalance());
+    }
+
+    @Test
+    void getBalanceBefore_TakesBalanceFirstLaterPostingStartedFrom() {
+        LocalDateTime before = LocalDateTime.now().minusHours(1);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountPostingRepository.findFirstByAccountIdAndPostedAtLessThanOrderByPostedAtDesc(1L, before))
+                .thenReturn(Optional.empty());
+        when(accountPostingRepository.findFirstByAccountIdAndPostedAtGreaterThanEqualOrderByPostedAtAsc(1L, before))
+                .thenReturn(Optional.of(new AccountPosting(3L, "transaction-7", 1L, new BigDecimal("-250.00"),
+                        new BigDecimal("4750.00"), before.plusMinutes(1))));
+
+        assertEquals(new BigDecimal("5000.00"), accountService.getBalanceBefore(1L, before).getBalance());
+    }
+
+    @Test
+    void getBalanceBefore_WithoutPostingsIsTheCurrentBalance() {
+        LocalDateTime before = LocalDateTime.now().minusHours(1);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+
+        assertEquals(new BigDecimal("5000.00"), accountService.getBalanceBefore(1L, before).getBalance());
+    }
+
+    @Test
+    void transfer_OppositeConcurrentTransfersComplete() throws Exception {
+        // Accounts 1 and 18 fall on stripes 1 and 2 of 16, so the stripe order differs from the transfer direction
+        Account other = account(18L, "5000.00");
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByIdForUpdate(18L)).thenReturn(Optional.of(other));
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        AccountService service = postingService();
+        int threads = 8;
+        int transfersPerThread = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threads; t++) {
+            TransferDto transfer = t % 2 == 0
+                    ? new TransferDto(1L, 18L, new BigDecimal("1.00"))
+                    : new TransferDto(18L, 1L, new BigDecimal("1.00"));
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < transfersPerThread; i++) {
+                    service.transfer(transfer);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(new BigDecimal("5000.00"), account.getBalance());
+        assertEquals(new BigDecimal("5000.00"), other.getBalance());
+    }
+
+    private Account account(Long id, String balance) {
+        Account other = new Account();
+        other.setId(id);
+        other.setAccountNumber("ACC" + id);
+        other.setCustomerId(1001L);
+        other.setType(AccountType.CHECKING);
+        other.setBalance(new BigDecimal(balance));
+        other.setCreatedAt(LocalDateTime.now());
+        return other;
+    }
+
+    private AccountService postingService() {
+        return new AccountService(accountRepository, accountPostingRepository, new AccountLockStripes(16), new TransactionTemplate(transactionManager), eventPublisher);
+    }
 }
@@ -0,0 +1,18 @@
+package com.banking.gateway.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+public class WebClientConfig {
+    
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder(ObservationRegistry observationRegistry) {
+        // Records http.client.requests for the overview fan-out calls
+        return WebClient.builder().observationRegistry(observationRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.banking.gateway.controller;
+
+import com.banking.gateway.dto.CustomerOverviewDto;
+import com.banking.gateway.service.CustomerOverviewService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Composite endpoint served by the gateway itself; annotated controllers take precedence
+ * over the /api/customers/** proxy route
+ */
+@RestController
+@RequestMapping("/api/customers")
+@RequiredArgsConstructor
+public class CustomerOverviewController {
+    
+    private final CustomerOverviewService customerOverviewService;
+    
+    @GetMapping("/{id}/overview")
+    public Mono<CustomerOverviewDto> getCustomerOverview(@PathVariable Long id) {
+        return customerOverviewService.getOverview(id);
+    }
+}
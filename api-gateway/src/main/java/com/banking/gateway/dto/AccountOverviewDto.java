@@ -0,0 +1,16 @@
+package com.banking.gateway.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountOverviewDto {
+    
+    private JsonNode account;
+    
+    private JsonNode recentTransactions;
+}
@@ -0,0 +1,23 @@
+package com.banking.gateway.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerOverviewDto {
+    
+    private JsonNode customer;
+    
+    private List<AccountOverviewDto> accounts;
+    
+    /**
+     * Downstream calls that failed or timed out; the matching parts of the overview are null or empty
+     */
+    private List<String> errors;
+}
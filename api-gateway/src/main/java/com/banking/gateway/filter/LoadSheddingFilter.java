@@ -0,0 +1,90 @@
+package com.banking.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency-based load shedding. Requests beyond the current concurrency limit are rejected
+ * with 503 straight away instead of queueing. The limit adapts to downstream latency: it
+ * backs off multiplicatively while responses are slower than the target and grows back by
+ * one per fast response, up to the configured maximum.
+ */
+@Component
+public class LoadSheddingFilter implements WebFilter, Ordered {
+    
+    private static final double BACKOFF_FACTOR = 0.9d;
+    
+    private final int maxConcurrent;
+    private final int minConcurrent;
+    private final long targetLatencyNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit;
+    private final Counter rejected;
+    
+    public LoadSheddingFilter(MeterRegistry meterRegistry,
+                              @Value("${gateway.admission.load-shedding.max-concurrent:512}") int maxConcurrent,
+                              @Value("${gateway.admission.load-shedding.min-concurrent:16}") int minConcurrent,
+                              @Value("${gateway.admission.load-shedding.target-latency:250ms}") Duration targetLatency) {
+        this.maxConcurrent = maxConcurrent;
+        this.minConcurrent = minConcurrent;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.limit = new AtomicInteger(maxConcurrent);
+        this.rejected = Counter.builder("gateway.loadshedding.rejected")
+                .description("Requests shed because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("gateway.loadshedding.inflight", inFlight, AtomicInteger::get)
+                .description("Requests currently being proxied")
+                .register(meterRegistry);
+        Gauge.builder("gateway.loadshedding.limit", limit, AtomicInteger::get)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (RateLimitFilter.routeOf(exchange.getRequest()) == null) {
+            return chain.filter(exchange);
+        }
+        
+        if (inFlight.incrementAndGet() > limit.get()) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return exchange.getResponse().setComplete();
+        }
+        
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    inFlight.decrementAndGet();
+                    adjustLimit(System.nanoTime() - start);
+                });
+    }
+    
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 20;
+    }
+    
+    private void adjustLimit(long latencyNanos) {
+        if (latencyNanos > targetLatencyNanos) {
+            limit.updateAndGet(current -> Math.max(minConcurrent, (int) (current * BACKOFF_FACTOR)));
+        } else {
+            limit.updateAndGet(current -> Math.min(maxConcurrent, current + 1));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.banking.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process token-bucket rate limiter keyed by client and route. A request carrying one of the
+ * configured API keys in the X-API-Key header is limited as the client the key belongs to; any
+ * other request, including one with an unknown key, is limited by its remote address, so
+ * inventing keys does not buy a fresh bucket.
+ */
+@Component
+public class RateLimitFilter implements WebFilter, Ordered {
+    
+    static final String API_KEY_HEADER = "X-API-Key";
+    static final List<String> ROUTES = List.of("accounts", "customers", "transactions");
+    static final String OTHER_ROUTE = "other";
+    
+    private final Map<String, String> clientsByApiKey;
+    private final long capacity;
+    private final double refillPerSecond;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<String, Counter> rejectedByRoute = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    
+    public RateLimitFilter(MeterRegistry meterRegistry,
+                           @Value("${gateway.admission.rate-limit.capacity:200}") long capacity,
+                           @Value("${gateway.admission.rate-limit.refill-per-second:100}") double refillPerSecond,
+                           @Value("${gateway.admission.rate-limit.max-clients:100000}") long maxClients,
+                           @Value("${gateway.admission.api-keys:}") List<String> apiKeys) {
+        this.meterRegistry = meterRegistry;
+        this.clientsByApiKey = parseApiKeys(apiKeys);
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        // Idle buckets are full by definition, so dropping them loses nothing
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofSeconds(Math.max(1L, (long) Math.ceil(capacity / refillPerSecond))))
+                .build();
+        ROUTES.forEach(this::rejectedCounter);
+        rejectedCounter(OTHER_ROUTE);
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String route = routeOf(exchange.getRequest());
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(clientOf(exchange.getRequest()) + "|" + route,
+                key -> new TokenBucket(capacity, refillPerSecond, now));
+        if (bucket.tryConsume(now)) {
+            return chain.filter(exchange);
+        }
+        
+        rejectedCounter(route).increment();
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(bucket.secondsUntilNextToken(now)));
+        return exchange.getResponse().setComplete();
+    }
+    
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+    
+    /**
+     * Route key taken from /api/{route}/..., or null for non-API paths such as actuator.
+     * Unknown routes share one key to keep metric tags bounded.
+     */
+    static String routeOf(ServerHttpRequest request) {
+        String path = request.getPath().pathWithinApplication().value();
+        if (!path.startsWith("/api/")) {
+            return null;
+        }
+        int end = path.indexOf('/', 5);
+        String route = end < 0 ? path.substring(5) : path.substring(5, end);
+        return ROUTES.contains(route) ? route : OTHER_ROUTE;
+    }
+    
+    /**
+     * Client a request is limited as: the owner of a configured API key, else the remote address.
+     * The two kinds are prefixed differently so a client name can never share an address's bucket.
+     */
+    String clientOf(ServerHttpRequest request) {
+        String apiKey = request.getHeaders().getFirst(API_KEY_HEADER);
+        String client = apiKey != null ? clientsByApiKey.get(apiKey) : null;
+        if (client != null) {
+            return "key:" + client;
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return "address:" + (remoteAddress != null ? remoteAddress.getHostString() : "unknown");
+    }
+    
+    /**
+     * Map each configured API key to its client
+     * @param entries Entries of the form {@code client=key}
+     * @throws IllegalArgumentException if an entry is malformed or a key is configured twice
+     */
+    static Map<String, String> parseApiKeys(List<String> entries) {
+        Map<String, String> clientsByApiKey = new HashMap<>();
+        for (String entry : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            String client = separator < 0 ? "" : entry.substring(0, separator).trim();
+            String apiKey = separator < 0 ? "" : entry.substring(separator + 1).trim();
+            if (client.isEmpty() || apiKey.isEmpty()) {
+                throw new IllegalArgumentException("API key entries must have the form client=key");
+            }
+            if (clientsByApiKey.put(apiKey, client) != null) {
+                throw new IllegalArgumentException("API key of client " + client + " is configured more than once");
+            }
+        }
+        return Map.copyOf(clientsByApiKey);
+    }
+    
+    private Counter rejectedCounter(String route) {
+        return rejectedByRoute.computeIfAbsent(route, r -> Counter.builder("gateway.ratelimit.rejected")
+                .description("Requests rejected by the per-client rate limiter")
+                .tag("route", r)
+                .register(meterRegistry));
+    }
+}
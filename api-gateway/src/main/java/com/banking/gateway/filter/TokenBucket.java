@@ -0,0 +1,52 @@
+package com.banking.gateway.filter;
+
+/**
+ * Token bucket refilled continuously from elapsed time, so no background refill task is needed
+ */
+public class TokenBucket {
+    
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+    
+    public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+    
+    /**
+     * Take one token if available
+     * @param nowNanos Current monotonic time
+     * @return Whether the request is admitted
+     */
+    public synchronized boolean tryConsume(long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1d) {
+            tokens -= 1d;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Time until the next token is available
+     * @param nowNanos Current monotonic time
+     * @return Wait in whole seconds, at least 1
+     */
+    public synchronized long secondsUntilNextToken(long nowNanos) {
+        refill(nowNanos);
+        double missing = Math.max(0d, 1d - tokens);
+        return Math.max(1L, (long) Math.ceil(missing / refillPerNano / 1_000_000_000d));
+    }
+    
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.banking.gateway.service;
+
+import com.banking.gateway.dto.AccountOverviewDto;
+import com.banking.gateway.dto.CustomerOverviewDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class CustomerOverviewService {
+    
+    private final WebClient webClient;
+    private final Duration callTimeout;
+    private final int transactionsPerAccount;
+    
+    public CustomerOverviewService(WebClient.Builder loadBalancedWebClientBuilder,
+                                   @Value("${gateway.overview.call-timeout:2s}") Duration callTimeout,
+                                   @Value("${gateway.overview.transactions-per-account:20}") int transactionsPerAccount) {
+        this.webClient = loadBalancedWebClientBuilder.build();
+        this.callTimeout = callTimeout;
+        this.transactionsPerAccount = transactionsPerAccount;
+    }
+    
+    /**
+     * Build a customer dashboard from the customers, accounts and transactions services.
+     * The customer and account lookups run in parallel, and the transaction pages for all
+     * accounts run in parallel once the account list arrives. Each call has its own timeout;
+     * a failed call leaves its part of the overview null or empty and is listed in the errors.
+     * @param customerId Customer ID
+     * @return Aggregated customer overview
+     */
+    public Mono<CustomerOverviewDto> getOverview(Long customerId) {
+        List<String> errors = new CopyOnWriteArrayList<>();
+        
+        Mono<JsonNode> customer = fetch("http://customers-service/api/customers/{id}", customerId)
+                .onErrorResume(WebClientResponseException.NotFound.class, ex -> Mono.error(
+                        new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found with id: " + customerId)))
+                .onErrorResume(ex -> !(ex instanceof ResponseStatusException), ex -> partial(errors, "customer", ex))
+                .defaultIfEmpty(NullNode.getInstance());
+        
+        Mono<List<AccountOverviewDto>> accounts = fetch("http://accounts-service/api/accounts/customer/{id}", customerId)
+                .flatMapMany(Flux::fromIterable)
+                .flatMapSequential(account -> withRecentTransactions(account, errors))
+                .collectList()
+                .onErrorResume(ex -> partial(errors, "accounts", ex).thenReturn(List.<AccountOverviewDto>of()));
+        
+        return Mono.zip(customer, accounts)
+                .map(parts -> new CustomerOverviewDto(parts.getT1(), parts.getT2(), List.copyOf(errors)));
+    }
+    
+    private Mono<AccountOverviewDto> withRecentTransactions(JsonNode account, List<String> errors) {
+        long accountId = account.path("id").asLong();
+        return fetch("http://transactions-service/api/transactions/account/{id}/page?limit={limit}", accountId, transactionsPerAccount)
+                .map(page -> page.path("transactions"))
+                .onErrorResume(ex -> partial(errors, "transactions for account " + accountId, ex))
+                .defaultIfEmpty(NullNode.getInstance())
+                .map(transactions -> new AccountOverviewDto(account, transactions));
+    }
+    
+    private Mono<JsonNode> fetch(String uri, Object... uriVariables) {
+        return webClient.get()
+                .uri(uri, uriVariables)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(callTimeout);
+    }
+    
+    private Mono<JsonNode> partial(List<String> errors, String part, Throwable ex) {
+        String reason = ex instanceof TimeoutException ? "timed out after " + callTimeout.toMillis() + "ms" : ex.getMessage();
+        errors.add(part + ": " + reason);
+        return Mono.just(NullNode.getInstance());
+    }
+}
@@ -0,0 +1,111 @@
+package com.banking.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadSheddingFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private List<Sinks.Empty<Void>> pending;
+    private WebFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pending = new ArrayList<>();
+        // Holds each proxied request open until the test completes its sink
+        chain = exchange -> {
+            Sinks.Empty<Void> sink = Sinks.empty();
+            pending.add(sink);
+            return sink.asMono();
+        };
+    }
+
+    @Test
+    void filter_ShedsRequestsBeyondTheLimitWith503() {
+        LoadSheddingFilter filter = new LoadSheddingFilter(meterRegistry, 2, 1, Duration.ofHours(1));
+        start(filter, "/api/accounts/1");
+        start(filter, "/api/accounts/2");
+
+        MockServerWebExchange shed = start(filter, "/api/accounts/3");
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getResponse().getStatusCode());
+        assertEquals("1", shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(2, pending.size());
+        assertEquals(1.0, meterRegistry.get("gateway.loadshedding.rejected").counter().count());
+        assertEquals(2.0, gauge("gateway.loadshedding.inflight"));
+    }
+
+    @Test
+    void filter_AdmitsAgainOnceARequestCompletes() {
+        LoadSheddingFilter filter = new LoadSheddingFilter(meterRegistry, 1, 1, Duration.ofHours(1));
+        start(filter, "/api/accounts/1");
+
+        pending.get(0).tryEmitEmpty();
+        MockServerWebExchange admitted = start(filter, "/api/accounts/2");
+
+        assertNull(admitted.getResponse().getStatusCode());
+        assertEquals(2, pending.size());
+        assertEquals(1.0, gauge("gateway.loadshedding.inflight"));
+    }
+
+    @Test
+    void filter_SlowResponsesLowerTheLimitDownToTheMinimum() {
+        LoadSheddingFilter filter = new LoadSheddingFilter(meterRegistry, 10, 8, Duration.ZERO);
+
+        start(filter, "/api/accounts/1");
+        pending.get(0).tryEmitEmpty();
+        assertEquals(9.0, gauge("gateway.loadshedding.limit"));
+
+        for (int i = 0; i < 5; i++) {
+            start(filter, "/api/accounts/1");
+            pending.get(pending.size() - 1).tryEmitEmpty();
+        }
+        assertEquals(8.0, gauge("gateway.loadshedding.limit"));
+    }
+
+    @Test
+    void filter_FastResponsesKeepTheLimitAtTheMaximum() {
+        LoadSheddingFilter filter = new LoadSheddingFilter(meterRegistry, 10, 1, Duration.ofHours(1));
+
+        start(filter, "/api/accounts/1");
+        pending.get(0).tryEmitEmpty();
+
+        assertEquals(10.0, gauge("gateway.loadshedding.limit"));
+    }
+
+    @Test
+    void filter_NonApiPathsAreNotCounted() {
+        LoadSheddingFilter filter = new LoadSheddingFilter(meterRegistry, 1, 1, Duration.ofHours(1));
+        start(filter, "/api/accounts/1");
+
+        MockServerWebExchange health = start(filter, "/actuator/health");
+
+        assertNull(health.getResponse().getStatusCode());
+        assertEquals(2, pending.size());
+        assertEquals(1.0, gauge("gateway.loadshedding.inflight"));
+    }
+
+    private MockServerWebExchange start(LoadSheddingFilter filter, String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path).build());
+        filter.filter(exchange, chain).subscribe();
+        return exchange;
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
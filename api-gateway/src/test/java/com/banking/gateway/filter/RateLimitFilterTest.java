@@ -0,0 +1,137 @@
+package com.banking.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+    private AtomicInteger forwarded;
+    private WebFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // One token per client and route, refilled far slower than the test runs
+        filter = new RateLimitFilter(meterRegistry, 1, 0.001, 1000, List.of("mobile=mobile-key", "web=web-key"));
+        forwarded = new AtomicInteger();
+        chain = exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        };
+    }
+
+    @Test
+    void filter_RejectsWith429AndRetryAfterOnceBucketIsEmpty() {
+        assertNull(run("/api/accounts/1", "10.0.0.1", null).getResponse().getStatusCode());
+
+        MockServerWebExchange rejected = run("/api/accounts/1", "10.0.0.1", null);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertNotNull(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, forwarded.get());
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.rejected").tag("route", "accounts").counter().count());
+    }
+
+    @Test
+    void filter_UnknownApiKeysShareTheAddressBucket() {
+        run("/api/accounts/1", "10.0.0.1", "invented-1");
+
+        MockServerWebExchange rejected = run("/api/accounts/1", "10.0.0.1", "invented-2");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals(1, forwarded.get());
+    }
+
+    @Test
+    void filter_VerifiedApiKeyIsLimitedAsItsClient() {
+        run("/api/accounts/1", "10.0.0.1", null);
+
+        // Same address, but each verified client has its own bucket
+        run("/api/accounts/1", "10.0.0.1", "mobile-key");
+        run("/api/accounts/1", "10.0.0.1", "web-key");
+        // The same client from another address shares its bucket
+        MockServerWebExchange rejected = run("/api/accounts/1", "10.0.0.2", "mobile-key");
+
+        assertEquals(3, forwarded.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+    }
+
+    @Test
+    void filter_RoutesHaveSeparateBuckets() {
+        run("/api/accounts/1", "10.0.0.1", null);
+        run("/api/customers/1", "10.0.0.1", null);
+        run("/api/transactions", "10.0.0.1", null);
+
+        assertEquals(3, forwarded.get());
+    }
+
+    @Test
+    void filter_NonApiPathsAreNotLimited() {
+        run("/actuator/health", "10.0.0.1", null);
+        run("/actuator/health", "10.0.0.1", null);
+
+        assertEquals(2, forwarded.get());
+    }
+
+    @Test
+    void clientOf_PrefixesClientsAndAddressesDifferently() {
+        assertEquals("key:mobile", filter.clientOf(request("/api/accounts/1", "10.0.0.1", "mobile-key")));
+        assertEquals("address:10.0.0.1", filter.clientOf(request("/api/accounts/1", "10.0.0.1", "unknown-key")));
+        assertEquals("address:unknown", filter.clientOf(MockServerHttpRequest.get("/api/accounts/1").build()));
+    }
+
+    @Test
+    void routeOf_GroupsUnknownRoutes() {
+        assertEquals("accounts", RateLimitFilter.routeOf(MockServerHttpRequest.get("/api/accounts").build()));
+        assertEquals(RateLimitFilter.OTHER_ROUTE, RateLimitFilter.routeOf(MockServerHttpRequest.get("/api/loans/1").build()));
+        assertNull(RateLimitFilter.routeOf(MockServerHttpRequest.get("/actuator/prometheus").build()));
+    }
+
+    @Test
+    void parseApiKeys_MapsKeysToClientsAndSkipsBlankEntries() {
+        assertEquals(Map.of("k1", "a", "k2", "b"), RateLimitFilter.parseApiKeys(List.of("a=k1", "", " b = k2 ")));
+    }
+
+    @Test
+    void parseApiKeys_MalformedEntry() {
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.parseApiKeys(List.of("no-separator")));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.parseApiKeys(List.of("=key")));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.parseApiKeys(List.of("client=")));
+    }
+
+    @Test
+    void parseApiKeys_DuplicateKey() {
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.parseApiKeys(List.of("a=shared", "b=shared")));
+    }
+
+    private MockServerWebExchange run(String path, String address, String apiKey) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request(path, address, apiKey));
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    private static MockServerHttpRequest request(String path, String address, String apiKey) {
+        MockServerHttpRequest.BaseBuilder<?> builder = MockServerHttpRequest.get(path)
+                .remoteAddress(new InetSocketAddress(address, 40000));
+        if (apiKey != null) {
+            builder.header(RateLimitFilter.API_KEY_HEADER, apiKey);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.banking.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void tryConsume_AdmitsUpToCapacityThenRejects() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertTrue(bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0));
+        assertFalse(bucket.tryConsume(0));
+    }
+
+    @Test
+    void tryConsume_RefillsFromElapsedTime() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+        assertTrue(bucket.tryConsume(0));
+        assertFalse(bucket.tryConsume(SECOND / 4));
+
+        assertTrue(bucket.tryConsume(SECOND / 2));
+    }
+
+    @Test
+    void tryConsume_RefillIsCappedAtCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 100, 0);
+        assertTrue(bucket.tryConsume(0));
+
+        long later = 60 * SECOND;
+        assertTrue(bucket.tryConsume(later));
+        assertTrue(bucket.tryConsume(later));
+        assertFalse(bucket.tryConsume(later));
+    }
+
+    @Test
+    void tryConsume_ClockGoingBackwardsAddsNoTokens() {
+        TokenBucket bucket = new TokenBucket(1, 1, 10 * SECOND);
+        assertTrue(bucket.tryConsume(10 * SECOND));
+
+        assertFalse(bucket.tryConsume(5 * SECOND));
+        assertFalse(bucket.tryConsume(10 * SECOND));
+    }
+
+    @Test
+    void secondsUntilNextToken_RoundsUpToWholeSeconds() {
+        TokenBucket bucket = new TokenBucket(1, 0.25, 0);
+        assertTrue(bucket.tryConsume(0));
+
+        assertEquals(4, bucket.secondsUntilNextToken(0));
+        assertEquals(2, bucket.secondsUntilNextToken(2 * SECOND));
+    }
+
+    @Test
+    void secondsUntilNextToken_IsAtLeastOneSecond() {
+        TokenBucket bucket = new TokenBucket(1, 1000, 0);
+        assertTrue(bucket.tryConsume(0));
+
+        assertEquals(1, bucket.secondsUntilNextToken(0));
+    }
+}
@@ -0,0 +1,184 @@
+package com.banking.gateway.service;
+
+import com.banking.gateway.dto.AccountOverviewDto;
+import com.banking.gateway.dto.CustomerOverviewDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerOverviewServiceTest {
+
+    private static final String CUSTOMER = "customers-service/api/customers/7";
+    private static final String ACCOUNTS = "accounts-service/api/accounts/customer/7";
+    private static final String TRANSACTIONS_1 = "transactions-service/api/transactions/account/1/page?limit=5";
+    private static final String TRANSACTIONS_2 = "transactions-service/api/transactions/account/2/page?limit=5";
+
+    private Map<String, Supplier<Mono<ClientResponse>>> responses;
+    private List<String> requested;
+    private WebClient.Builder webClientBuilder;
+
+    @BeforeEach
+    void setUp() {
+        responses = new ConcurrentHashMap<>();
+        requested = new CopyOnWriteArrayList<>();
+        // Answers each downstream call from the responses map, keyed by service, path and query
+        ExchangeFunction exchange = request -> {
+            String call = callOf(request.url());
+            requested.add(call);
+            Supplier<Mono<ClientResponse>> response = responses.get(call);
+            return response != null ? response.get() : Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+        };
+        webClientBuilder = WebClient.builder().exchangeFunction(exchange);
+
+        responses.put(CUSTOMER, () -> json("{\"id\":7,\"firstName\":\"Jordan\"}"));
+        responses.put(ACCOUNTS, () -> json("[{\"id\":1},{\"id\":2}]"));
+        responses.put(TRANSACTIONS_1, () -> json("{\"transactions\":[{\"id\":11}],\"nextCursor\":null}"));
+        responses.put(TRANSACTIONS_2, () -> json("{\"transactions\":[{\"id\":21},{\"id\":22}],\"nextCursor\":null}"));
+    }
+
+    @Test
+    void getOverview_CombinesCustomerAccountsAndTransactions() {
+        CustomerOverviewDto overview = service(Duration.ofSeconds(2)).getOverview(7L).block();
+
+        assertEquals("Jordan", overview.getCustomer().path("firstName").asText());
+        assertEquals(List.of(1L, 2L), accountIds(overview));
+        assertEquals(11, overview.getAccounts().get(0).getRecentTransactions().get(0).path("id").asInt());
+        assertEquals(2, overview.getAccounts().get(1).getRecentTransactions().size());
+        assertEquals(List.of(), overview.getErrors());
+        assertTrue(requested.containsAll(List.of(CUSTOMER, ACCOUNTS, TRANSACTIONS_1, TRANSACTIONS_2)));
+    }
+
+    @Test
+    void getOverview_FetchesCustomerAndAccountsInParallel() {
+        // The customer only answers once the accounts call has been made, so a sequential fan-out times out
+        Sinks.Empty<Void> accountsRequested = Sinks.empty();
+        responses.put(CUSTOMER, () -> accountsRequested.asMono().then(json("{\"id\":7}")));
+        responses.put(ACCOUNTS, () -> {
+            accountsRequested.tryEmitEmpty();
+            return json("[]");
+        });
+
+        CustomerOverviewDto overview = service(Duration.ofSeconds(2)).getOverview(7L).block();
+
+        assertEquals(7, overview.getCustomer().path("id").asInt());
+        assertEquals(List.of(), overview.getAccounts());
+        assertEquals(List.of(), overview.getErrors());
+    }
+
+    @Test
+    void getOverview_FetchesTransactionsInParallelAndKeepsAccountOrder() {
+        // Neither account's transactions answer until both were requested, and the first answers last
+        AtomicInteger transactionCalls = new AtomicInteger();
+        Sinks.Empty<Void> bothRequested = Sinks.empty();
+        Supplier<Mono<Void>> requestTransactions = () -> {
+            if (transactionCalls.incrementAndGet() == 2) {
+                bothRequested.tryEmitEmpty();
+            }
+            return bothRequested.asMono();
+        };
+        responses.put(TRANSACTIONS_1, () -> requestTransactions.get()
+                .then(Mono.delay(Duration.ofMillis(50)))
+                .then(json("{\"transactions\":[{\"id\":11}]}")));
+        responses.put(TRANSACTIONS_2, () -> requestTransactions.get()
+                .then(json("{\"transactions\":[{\"id\":21}]}")));
+
+        CustomerOverviewDto overview = service(Duration.ofSeconds(2)).getOverview(7L).block();
+
+        assertEquals(List.of(1L, 2L), accountIds(overview));
+        assertEquals(11, overview.getAccounts().get(0).getRecentTransactions().get(0).path("id").asInt());
+        assertEquals(21, overview.getAccounts().get(1).getRecentTransactions().get(0).path("id").asInt());
+        assertEquals(List.of(), overview.getErrors());
+    }
+
+    @Test
+    void getOverview_ReportsTimedOutCallAndKeepsOtherParts() {
+        responses.put(TRANSACTIONS_2, Mono::never);
+
+        CustomerOverviewDto overview = service(Duration.ofMillis(100)).getOverview(7L).block();
+
+        assertEquals(List.of(1L, 2L), accountIds(overview));
+        assertEquals(1, overview.getAccounts().get(0).getRecentTransactions().size());
+        assertTrue(overview.getAccounts().get(1).getRecentTransactions().isNull());
+        assertEquals(List.of("transactions for account 2: timed out after 100ms"), overview.getErrors());
+    }
+
+    @Test
+    void getOverview_ReportsFailedAccountsCallWithEmptyAccounts() {
+        responses.put(ACCOUNTS, () -> status(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        CustomerOverviewDto overview = service(Duration.ofSeconds(2)).getOverview(7L).block();
+
+        assertEquals("Jordan", overview.getCustomer().path("firstName").asText());
+        assertEquals(List.of(), overview.getAccounts());
+        assertEquals(1, overview.getErrors().size());
+        assertTrue(overview.getErrors().get(0).startsWith("accounts: 500"));
+        assertFalse(requested.contains(TRANSACTIONS_1));
+    }
+
+    @Test
+    void getOverview_ReportsFailedCustomerCallWithNullCustomer() {
+        responses.put(CUSTOMER, () -> status(HttpStatus.SERVICE_UNAVAILABLE));
+
+        CustomerOverviewDto overview = service(Duration.ofSeconds(2)).getOverview(7L).block();
+
+        assertTrue(overview.getCustomer().isNull());
+        assertEquals(List.of(1L, 2L), accountIds(overview));
+        assertEquals(1, overview.getErrors().size());
+        assertTrue(overview.getErrors().get(0).startsWith("customer: 503"));
+    }
+
+    @Test
+    void getOverview_Returns404ForUnknownCustomer() {
+        responses.put(CUSTOMER, () -> status(HttpStatus.NOT_FOUND));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service(Duration.ofSeconds(2)).getOverview(7L).block());
+
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
+    private CustomerOverviewService service(Duration callTimeout) {
+        return new CustomerOverviewService(webClientBuilder, callTimeout, 5);
+    }
+
+    private static List<Long> accountIds(CustomerOverviewDto overview) {
+        return overview.getAccounts().stream()
+                .map(AccountOverviewDto::getAccount)
+                .map(account -> account.path("id").asLong())
+                .toList();
+    }
+
+    private static String callOf(URI uri) {
+        return uri.getHost() + uri.getPath() + (uri.getQuery() != null ? "?" + uri.getQuery() : "");
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+
+    private static Mono<ClientResponse> status(HttpStatus status) {
+        return Mono.just(ClientResponse.create(status).build());
+    }
+}
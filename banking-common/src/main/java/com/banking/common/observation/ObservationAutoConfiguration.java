@@ -0,0 +1,32 @@
+package com.banking.common.observation;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Observes methods of @Observed service classes as banking.service and repository calls
+ * as banking.repository. Each observation is recorded as a timer and, with tracing on, a span.
+ * Applies to applications with AspectJ and Spring Data on the classpath, i.e. the data services.
+ */
+@AutoConfiguration
+@ConditionalOnClass(name = {"org.aspectj.lang.annotation.Aspect", "org.springframework.data.repository.Repository"})
+public class ObservationAutoConfiguration {
+    
+    public static final String SERVICE_OBSERVATION = "banking.service";
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public RepositoryObservationAspect repositoryObservationAspect(ObservationRegistry observationRegistry) {
+        return new RepositoryObservationAspect(observationRegistry);
+    }
+}
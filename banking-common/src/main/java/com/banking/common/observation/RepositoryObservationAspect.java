@@ -0,0 +1,61 @@
+package com.banking.common.observation;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.repository.Repository;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps every Spring Data repository call in a banking.repository observation, which
+ * becomes a child span of the calling service method and a timer tagged by repository
+ * and method. Methods returning a Stream are timed until the Stream is returned, not consumed.
+ */
+@Aspect
+public class RepositoryObservationAspect {
+    
+    public static final String REPOSITORY_OBSERVATION = "banking.repository";
+    
+    private final ObservationRegistry observationRegistry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+    
+    public RepositoryObservationAspect(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+    
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(), this::repositoryName);
+        String method = joinPoint.getSignature().getName();
+        Observation observation = Observation.createNotStarted(REPOSITORY_OBSERVATION, observationRegistry)
+                .contextualName(repository + "." + method)
+                .lowCardinalityKeyValue("repository", repository)
+                .lowCardinalityKeyValue("method", method)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            observation.error(ex);
+            throw ex;
+        } finally {
+            observation.stop();
+        }
+    }
+    
+    /**
+     * Name of the application's repository interface implemented by a repository proxy
+     */
+    private String repositoryName(Class<?> proxyClass) {
+        return Arrays.stream(proxyClass.getInterfaces())
+                .filter(Repository.class::isAssignableFrom)
+                .filter(type -> type.getPackageName().startsWith("com.banking."))
+                .findFirst()
+                .map(Class::getSimpleName)
+                .orElse(proxyClass.getSimpleName());
+    }
+}
@@ -0,0 +1,43 @@
+package com.banking.common.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the DataSource in a JDBC proxy that feeds SlowQueryListener. The pool stays
+ * reachable through unwrap(), so pool metrics and health checks keep working.
+ */
+public class DataSourceProxyPostProcessor implements BeanPostProcessor {
+    
+    private final String applicationName;
+    private final Duration slowThreshold;
+    private final double sampleRate;
+    private final boolean countRows;
+    
+    public DataSourceProxyPostProcessor(String applicationName, Duration slowThreshold, double sampleRate, boolean countRows) {
+        this.applicationName = applicationName;
+        this.slowThreshold = slowThreshold;
+        this.sampleRate = sampleRate;
+        this.countRows = countRows;
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        SlowQueryListener listener = new SlowQueryListener(slowThreshold, sampleRate);
+        ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                .name(applicationName)
+                .listener(listener);
+        if (countRows) {
+            // Row counting needs every ResultSet proxied, which costs a little on each read
+            builder.proxyResultSet().methodListener(listener);
+        }
+        return builder.build();
+    }
+}
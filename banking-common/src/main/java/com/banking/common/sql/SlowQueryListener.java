@@ -0,0 +1,145 @@
+package com.banking.common.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Logs statements slower than a threshold at WARN, and a random sample of the rest at INFO,
+ * to the banking.sql logger. Each entry carries the execution time, bind parameter and row
+ * counts and the service method that issued the statement; bind values are never logged.
+ * Rows of a query are counted while its ResultSet is read, so its entry is written on close.
+ */
+public class SlowQueryListener implements QueryExecutionListener, MethodExecutionListener {
+    
+    private static final Logger log = LoggerFactory.getLogger("banking.sql");
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    
+    private final long thresholdMillis;
+    private final double sampleRate;
+    private final ThreadLocal<QueryRecord> openQuery = new ThreadLocal<>();
+    
+    public SlowQueryListener(Duration threshold, double sampleRate) {
+        this.thresholdMillis = threshold.toMillis();
+        this.sampleRate = sampleRate;
+    }
+    
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+    
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        boolean slow = execInfo.getElapsedTime() >= thresholdMillis;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        
+        QueryRecord record = new QueryRecord(slow, execInfo, queryInfoList, callingServiceMethod());
+        Object result = execInfo.getResult();
+        if (result instanceof ResultSet) {
+            QueryRecord previous = openQuery.get();
+            if (previous != null) {
+                previous.write();
+            }
+            openQuery.set(record);
+        } else {
+            record.rows = updateCount(result);
+            record.write();
+        }
+    }
+    
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+    
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        QueryRecord record = openQuery.get();
+        if (record == null || !(executionContext.getTarget() instanceof ResultSet)) {
+            return;
+        }
+        String method = executionContext.getMethod().getName();
+        if ("next".equals(method) && Boolean.TRUE.equals(executionContext.getResult())) {
+            record.rows++;
+        } else if ("close".equals(method)) {
+            openQuery.remove();
+            record.write();
+        }
+    }
+    
+    /**
+     * First application service frame on the stack, e.g. TransactionService.getTransactionById
+     */
+    private static String callingServiceMethod() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("com.banking.")
+                        && frame.getClassName().contains(".service.")
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName())
+                .orElse("unknown"));
+    }
+    
+    private static long updateCount(Object result) {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return -1;
+    }
+    
+    private static class QueryRecord {
+        
+        private final boolean slow;
+        private final long elapsedMillis;
+        private final long executedAt = System.nanoTime();
+        private final int parameters;
+        private final int batchSize;
+        private final boolean success;
+        private final String caller;
+        private final String sql;
+        private long rows;
+        
+        QueryRecord(boolean slow, ExecutionInfo execInfo, List<QueryInfo> queryInfoList, String caller) {
+            this.slow = slow;
+            this.elapsedMillis = execInfo.getElapsedTime();
+            this.parameters = queryInfoList.stream()
+                    .flatMap(query -> query.getParametersList().stream())
+                    .mapToInt(List::size)
+                    .sum();
+            this.batchSize = execInfo.isBatch() ? execInfo.getBatchSize() : 0;
+            this.success = execInfo.isSuccess();
+            this.caller = caller;
+            this.sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        }
+        
+        void write() {
+            long fetchMillis = (System.nanoTime() - executedAt) / 1_000_000;
+            if (slow) {
+                log.warn("slow_query elapsed_ms={} fetch_ms={} rows={} params={} batch_size={} success={} caller={} sql=\"{}\"",
+                        elapsedMillis, fetchMillis, rows, parameters, batchSize, success, caller, sql);
+            } else {
+                log.info("sampled_query elapsed_ms={} fetch_ms={} rows={} params={} batch_size={} success={} caller={} sql=\"{}\"",
+                        elapsedMillis, fetchMillis, rows, parameters, batchSize, success, caller, sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.banking.common.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Registers the {@link DataSourceProxyPostProcessor}, so every DataSource in the application
+ * reports slow and sampled statements through {@link SlowQueryListener}
+ */
+@AutoConfiguration
+@ConditionalOnClass({DataSource.class, ProxyDataSourceBuilder.class})
+public class SqlLoggingAutoConfiguration {
+    
+    // Static so the post-processor is created before, and without initializing, the other beans
+    @Bean
+    public static DataSourceProxyPostProcessor dataSourceProxyPostProcessor(@Value("${spring.application.name}") String applicationName,
+                                                                            @Value("${banking.sql.slow-threshold:100ms}") Duration slowThreshold,
+                                                                            @Value("${banking.sql.sample-rate:0}") double sampleRate,
+                                                                            @Value("${banking.sql.count-rows:true}") boolean countRows) {
+        return new DataSourceProxyPostProcessor(applicationName, slowThreshold, sampleRate, countRows);
+    }
+}
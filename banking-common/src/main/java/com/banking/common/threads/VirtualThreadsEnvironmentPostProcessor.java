@@ -0,0 +1,49 @@
+package com.banking.common.threads;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Applies the shared virtual-thread settings to an application running with the virtual-threads
+ * profile. They are added with the lowest precedence, so a service can still override any of them
+ * in its own configuration.
+ */
+public class VirtualThreadsEnvironmentPostProcessor implements EnvironmentPostProcessor {
+    
+    public static final String PROFILE = "virtual-threads";
+    
+    private static final String SETTINGS = "com/banking/common/threads/virtual-threads.properties";
+    
+    private final Log log;
+    
+    public VirtualThreadsEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(VirtualThreadsEnvironmentPostProcessor.class);
+    }
+    
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!environment.acceptsProfiles(Profiles.of(PROFILE))) {
+            return;
+        }
+        if (Runtime.version().feature() < 21) {
+            // Spring Boot ignores spring.threads.virtual.enabled below Java 21
+            log.warn("The " + PROFILE + " profile is active, but Java " + Runtime.version().feature()
+                    + " has no virtual threads; requests are handled on platform threads");
+        }
+        try {
+            environment.getPropertySources().addLast(new ResourcePropertySource(PROFILE,
+                    new ClassPathResource(SETTINGS, VirtualThreadsEnvironmentPostProcessor.class.getClassLoader())));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read " + SETTINGS, ex);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.banking.common.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes finished spans to a local file, one JSON object per line, so latency breakdowns
+ * can be inspected without a tracing backend. Spans of one request share a traceId
+ * across the gateway and the services.
+ * The file is rotated once it would grow past the size limit: it is renamed to
+ * {@code <file>.1}, older files move up by one, and the oldest is deleted, so at most
+ * {@code maxFiles} files of {@code maxFileBytes} each are kept.
+ */
+public class FileSpanExporter implements SpanExporter {
+    
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path exportFile;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private OutputStream out;
+    private long fileBytes;
+    
+    /**
+     * @param exportFile File spans are appended to
+     * @param maxFileBytes Size at which the file is rotated
+     * @param maxFiles Files kept, including the one being written
+     */
+    public FileSpanExporter(Path exportFile, long maxFileBytes, int maxFiles) throws IOException {
+        if (maxFileBytes <= 0 || maxFiles < 1) {
+            throw new IllegalArgumentException("Span export needs a positive file size and at least one file");
+        }
+        this.exportFile = exportFile;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        if (exportFile.getParent() != null) {
+            Files.createDirectories(exportFile.getParent());
+        }
+        open();
+    }
+    
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            for (SpanData span : spans) {
+                byte[] line = objectMapper.writeValueAsBytes(toMap(span));
+                if (fileBytes > 0 && fileBytes + line.length + NEWLINE.length > maxFileBytes) {
+                    rotate();
+                }
+                out.write(line);
+                out.write(NEWLINE);
+                fileBytes += line.length + NEWLINE.length;
+            }
+            out.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException ex) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+    
+    @Override
+    public synchronized CompletableResultCode flush() {
+        try {
+            out.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException ex) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+    
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        try {
+            out.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException ex) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+    
+    /**
+     * Path of the n-th rotated file, 1 being the most recent
+     */
+    Path rotatedFile(int n) {
+        return exportFile.resolveSibling(exportFile.getFileName() + "." + n);
+    }
+    
+    private void open() throws IOException {
+        out = new BufferedOutputStream(Files.newOutputStream(exportFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        fileBytes = Files.size(exportFile);
+    }
+    
+    private void rotate() throws IOException {
+        out.close();
+        if (maxFiles == 1) {
+            Files.delete(exportFile);
+        } else {
+            Files.deleteIfExists(rotatedFile(maxFiles - 1));
+            for (int n = maxFiles - 2; n >= 1; n--) {
+                if (Files.exists(rotatedFile(n))) {
+                    Files.move(rotatedFile(n), rotatedFile(n + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(exportFile, rotatedFile(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+    
+    private Map<String, Object> toMap(SpanData span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceId", span.getTraceId());
+        json.put("spanId", span.getSpanId());
+        json.put("parentSpanId", span.getParentSpanContext().isValid() ? span.getParentSpanId() : null);
+        json.put("service", span.getResource().getAttribute(AttributeKey.stringKey("service.name")));
+        json.put("name", span.getName());
+        json.put("kind", span.getKind().name());
+        json.put("startEpochMicros", TimeUnit.NANOSECONDS.toMicros(span.getStartEpochNanos()));
+        json.put("durationMicros", TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()));
+        json.put("status", span.getStatus().getStatusCode().name());
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+        json.put("attributes", attributes);
+        return json;
+    }
+}
@@ -0,0 +1,29 @@
+package com.banking.common.tracing;
+
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Registers the {@link FileSpanExporter} in every application that has the OpenTelemetry SDK,
+ * writing to {@code traces/<spring.application.name>.jsonl} unless banking.tracing.export-file is set
+ */
+@AutoConfiguration
+@ConditionalOnClass(SpanExporter.class)
+public class FileTracingAutoConfiguration {
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public FileSpanExporter fileSpanExporter(@Value("${banking.tracing.export-file:traces/${spring.application.name}.jsonl}") Path exportFile,
+                                             @Value("${banking.tracing.max-file-size:10MB}") DataSize maxFileSize,
+                                             @Value("${banking.tracing.max-files:5}") int maxFiles) throws IOException {
+        return new FileSpanExporter(exportFile, maxFileSize.toBytes(), maxFiles);
+    }
+}
@@ -0,0 +1,39 @@
+package com.banking.common.web;
+
+/**
+ * Entity tags derived from the entity version, so they change with every update
+ * without hashing the response body
+ */
+public final class ETags {
+    
+    private ETags() {
+    }
+    
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+    
+    /**
+     * Version named by an If-Match header
+     * @param ifMatch Header value, or null when absent
+     * @return Expected version, or null when any version is acceptable
+     * @throws PreconditionFailedException if the header is not a single tag issued by this API
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match does not match the current version");
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new PreconditionFailedException("If-Match does not match the current version");
+        }
+    }
+}
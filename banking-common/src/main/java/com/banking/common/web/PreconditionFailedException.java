@@ -0,0 +1,7 @@
+package com.banking.common.web;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
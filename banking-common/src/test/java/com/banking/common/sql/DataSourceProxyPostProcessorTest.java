@@ -0,0 +1,40 @@
+package com.banking.common.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DataSourceProxyPostProcessorTest {
+
+    private final DataSourceProxyPostProcessor postProcessor =
+            new DataSourceProxyPostProcessor("test-service", Duration.ofMillis(100), 0, true);
+
+    @Test
+    void postProcessAfterInitialization_WrapsDataSource() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+
+        Object result = postProcessor.postProcessAfterInitialization(dataSource, "dataSource");
+
+        ProxyDataSource proxy = assertInstanceOf(ProxyDataSource.class, result);
+        assertSame(dataSource, proxy.getDataSource());
+    }
+
+    @Test
+    void postProcessAfterInitialization_DoesNotWrapTwice() {
+        Object proxy = postProcessor.postProcessAfterInitialization(mock(DataSource.class), "dataSource");
+
+        assertSame(proxy, postProcessor.postProcessAfterInitialization(proxy, "dataSource"));
+    }
+
+    @Test
+    void postProcessAfterInitialization_LeavesOtherBeansAlone() {
+        Object bean = new Object();
+
+        assertSame(bean, postProcessor.postProcessAfterInitialization(bean, "other"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.banking.common.threads;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.logging.DeferredLogs;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadsEnvironmentPostProcessorTest {
+
+    private final VirtualThreadsEnvironmentPostProcessor postProcessor =
+            new VirtualThreadsEnvironmentPostProcessor(new DeferredLogs());
+
+    @Test
+    void postProcessEnvironment_AppliesSettingsWithProfile() {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles(VirtualThreadsEnvironmentPostProcessor.PROFILE);
+
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertEquals("true", environment.getProperty("spring.threads.virtual.enabled"));
+        assertEquals("50", environment.getProperty("spring.datasource.hikari.maximum-pool-size"));
+    }
+
+    @Test
+    void postProcessEnvironment_LetsServiceOverrideSettings() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "20");
+        environment.setActiveProfiles(VirtualThreadsEnvironmentPostProcessor.PROFILE);
+
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertEquals("20", environment.getProperty("spring.datasource.hikari.maximum-pool-size"));
+    }
+
+    @Test
+    void postProcessEnvironment_IgnoresOtherProfiles() {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles("persistent");
+
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertNull(environment.getProperty("spring.threads.virtual.enabled"));
+    }
+}
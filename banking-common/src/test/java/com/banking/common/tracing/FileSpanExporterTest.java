@@ -0,0 +1,117 @@
+package com.banking.common.tracing;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FileSpanExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void export_WritesOneJsonLinePerSpan() throws Exception {
+        Path file = tempDir.resolve("traces/service.jsonl");
+        FileSpanExporter exporter = new FileSpanExporter(file, 1_000_000, 3);
+
+        CompletableResultCode result = exporter.export(List.of(span("a"), span("b")));
+        exporter.shutdown();
+
+        assertTrue(result.isSuccess());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"name\":\"a\""));
+        assertTrue(lines.get(1).contains("\"durationMicros\":1500"));
+    }
+
+    @Test
+    void export_RotatesOnceFileIsFull() throws Exception {
+        Path file = tempDir.resolve("service.jsonl");
+        long lineBytes = lineBytes();
+        FileSpanExporter exporter = new FileSpanExporter(file, 2 * lineBytes, 3);
+
+        exporter.export(List.of(span("spanA"), span("spanB"), span("spanC")));
+        exporter.shutdown();
+
+        assertEquals(1, Files.readAllLines(file).size());
+        assertTrue(Files.readString(file).contains("spanC"));
+        assertEquals(2, Files.readAllLines(exporter.rotatedFile(1)).size());
+    }
+
+    @Test
+    void export_KeepsAtMostMaxFiles() throws Exception {
+        Path file = tempDir.resolve("service.jsonl");
+        FileSpanExporter exporter = new FileSpanExporter(file, lineBytes(), 3);
+
+        for (int i = 0; i < 6; i++) {
+            exporter.export(List.of(span("span" + i)));
+        }
+        exporter.shutdown();
+
+        assertTrue(Files.readString(file).contains("span5"));
+        assertTrue(Files.readString(exporter.rotatedFile(1)).contains("span4"));
+        assertTrue(Files.readString(exporter.rotatedFile(2)).contains("span3"));
+        assertFalse(Files.exists(exporter.rotatedFile(3)));
+    }
+
+    @Test
+    void export_AppendsToExistingFileAndCountsItsSize() throws Exception {
+        Path file = tempDir.resolve("service.jsonl");
+        long lineBytes = lineBytes();
+        FileSpanExporter before = new FileSpanExporter(file, 2 * lineBytes, 2);
+        before.export(List.of(span("spanA"), span("spanB")));
+        before.shutdown();
+
+        FileSpanExporter after = new FileSpanExporter(file, 2 * lineBytes, 2);
+        after.export(List.of(span("spanC")));
+        after.shutdown();
+
+        assertTrue(Files.readString(file).contains("spanC"));
+        assertEquals(2, Files.readAllLines(after.rotatedFile(1)).size());
+    }
+
+    @Test
+    void constructor_RejectsEmptyLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new FileSpanExporter(tempDir.resolve("a.jsonl"), 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FileSpanExporter(tempDir.resolve("a.jsonl"), 1024, 0));
+    }
+
+    /**
+     * Size of one exported line for a five-character span name, as all names in these tests are
+     */
+    private long lineBytes() throws Exception {
+        Path probe = tempDir.resolve("probe.jsonl");
+        FileSpanExporter exporter = new FileSpanExporter(probe, 1_000_000, 1);
+        exporter.export(List.of(span("probe")));
+        exporter.shutdown();
+        return Files.size(probe);
+    }
+
+    private static SpanData span(String name) {
+        SpanData span = mock(SpanData.class);
+        when(span.getTraceId()).thenReturn("4bf92f3577b34da6a3ce929d0e0e4736");
+        when(span.getSpanId()).thenReturn("00f067aa0ba902b7");
+        when(span.getParentSpanContext()).thenReturn(SpanContext.getInvalid());
+        when(span.getResource()).thenReturn(Resource.empty());
+        when(span.getName()).thenReturn(name);
+        when(span.getKind()).thenReturn(SpanKind.INTERNAL);
+        when(span.getStartEpochNanos()).thenReturn(1_000_000L);
+        when(span.getEndEpochNanos()).thenReturn(2_500_000L);
+        when(span.getStatus()).thenReturn(StatusData.unset());
+        when(span.getAttributes()).thenReturn(Attributes.empty());
+        return span;
+    }
+}
@@ -0,0 +1,33 @@
+package com.banking.common.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    @Test
+    void of_QuotesVersion() {
+        assertEquals("\"3\"", ETags.of(3L));
+    }
+
+    @Test
+    void parseIfMatch_ReadsStrongAndWeakTags() {
+        assertEquals(3L, ETags.parseIfMatch("\"3\""));
+        assertEquals(3L, ETags.parseIfMatch(" W/\"3\" "));
+    }
+
+    @Test
+    void parseIfMatch_AcceptsAnyVersionForWildcardOrBlank() {
+        assertNull(ETags.parseIfMatch("*"));
+        assertNull(ETags.parseIfMatch(" "));
+        assertNull(ETags.parseIfMatch(null));
+    }
+
+    @Test
+    void parseIfMatch_RejectsTagsNotIssuedByTheApi() {
+        assertThrows(PreconditionFailedException.class, () -> ETags.parseIfMatch("3"));
+        assertThrows(PreconditionFailedException.class, () -> ETags.parseIfMatch("\"abc\""));
+        assertThrows(PreconditionFailedException.class, () -> ETags.parseIfMatch("\"3\", \"4\""));
+    }
+}
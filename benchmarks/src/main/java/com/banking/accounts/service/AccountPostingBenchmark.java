@@ -0,0 +1,81 @@
+package com.banking.accounts.service;
+
+import com.banking.accounts.dto.AccountDto;
+import com.banking.accounts.dto.BalancePostingDto;
+import com.banking.accounts.dto.PostingType;
+import com.banking.accounts.entity.Account;
+import com.banking.accounts.entity.AccountType;
+import com.banking.accounts.repository.AccountPostingRepository;
+import com.banking.accounts.repository.AccountRepository;
+import com.banking.benchmarks.Stubs;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent balance postings through AccountService.postBalance. The number of
+ * distinct accounts sets the contention level; the stripe count shows how much
+ * of it comes from unrelated accounts sharing a lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class AccountPostingBenchmark {
+    
+    @Param({"1", "8", "1024"})
+    int accounts;
+    
+    @Param({"1", "64"})
+    int lockStripes;
+    
+    private AccountService accountService;
+    private final BalancePostingDto deposit = new BalancePostingDto(PostingType.DEPOSIT, new BigDecimal("1.00"));
+    private final AtomicInteger threadIds = new AtomicInteger();
+    
+    @Setup
+    public void setUp() {
+        Map<Long, Account> store = new ConcurrentHashMap<>();
+        for (long id = 1; id <= accounts; id++) {
+            store.put(id, new Account(id, "ACC" + id, 1L, AccountType.CHECKING, new BigDecimal("1000.00"), LocalDateTime.now(), 0L));
+        }
+        AccountRepository repository = Stubs.repository(AccountRepository.class, Map.of(
+                "findByIdForUpdate", args -> Optional.ofNullable(store.get((Long) args[0])),
+                "save", args -> args[0]));
+        accountService = new AccountService(repository, Stubs.repository(AccountPostingRepository.class, Map.of()),
+                new AccountLockStripes(lockStripes), new TransactionTemplate(Stubs.transactionManager()), event -> { });
+    }
+    
+    @Benchmark
+    public AccountDto postBalance(Poster poster) {
+        return accountService.postBalance(poster.nextAccountId(accounts), deposit);
+    }
+    
+    /**
+     * Per-thread cursor over the account IDs, starting at a different account per thread
+     */
+    @State(Scope.Thread)
+    public static class Poster {
+        
+        private long next;
+        
+        @Setup
+        public void setUp(AccountPostingBenchmark benchmark) {
+            next = benchmark.threadIds.getAndIncrement();
+        }
+        
+        long nextAccountId(int accounts) {
+            return next++ % accounts + 1;
+        }
+    }
+}
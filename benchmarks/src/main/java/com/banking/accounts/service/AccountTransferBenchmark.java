@@ -0,0 +1,85 @@
+package com.banking.accounts.service;
+
+import com.banking.accounts.dto.TransferDto;
+import com.banking.accounts.dto.TransferResultDto;
+import com.banking.accounts.entity.Account;
+import com.banking.accounts.entity.AccountType;
+import com.banking.accounts.repository.AccountPostingRepository;
+import com.banking.accounts.repository.AccountRepository;
+import com.banking.benchmarks.Stubs;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent transfers through AccountService.transfer over a small set of hot accounts.
+ * Neighbouring threads move money in opposite directions between the same accounts,
+ * which deadlocks unless both locks are always taken in the same order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class AccountTransferBenchmark {
+    
+    @Param({"2", "8", "1024"})
+    int accounts;
+    
+    @Param({"64"})
+    int lockStripes;
+    
+    private AccountService accountService;
+    private final AtomicInteger threadIds = new AtomicInteger();
+    
+    @Setup
+    public void setUp() {
+        Map<Long, Account> store = new ConcurrentHashMap<>();
+        for (long id = 1; id <= accounts; id++) {
+            store.put(id, new Account(id, "ACC" + id, 1L, AccountType.CHECKING, new BigDecimal("1000000000.00"), LocalDateTime.now(), 0L));
+        }
+        AccountRepository repository = Stubs.repository(AccountRepository.class, Map.of(
+                "findByIdForUpdate", args -> Optional.ofNullable(store.get((Long) args[0])),
+                "save", args -> args[0]));
+        accountService = new AccountService(repository, Stubs.repository(AccountPostingRepository.class, Map.of()),
+                new AccountLockStripes(lockStripes), new TransactionTemplate(Stubs.transactionManager()), event -> { });
+    }
+    
+    @Benchmark
+    public TransferResultDto transfer(Transferor transferor) {
+        return accountService.transfer(transferor.nextTransfer(accounts));
+    }
+    
+    /**
+     * Per-thread cursor over account pairs; even threads walk the pairs forwards, odd threads backwards
+     */
+    @State(Scope.Thread)
+    public static class Transferor {
+        
+        private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+        
+        private int thread;
+        private long next;
+        
+        @Setup
+        public void setUp(AccountTransferBenchmark benchmark) {
+            thread = benchmark.threadIds.getAndIncrement();
+            next = thread / 2;
+        }
+        
+        TransferDto nextTransfer(int accounts) {
+            long from = next++ % accounts + 1;
+            long to = from % accounts + 1;
+            return thread % 2 == 0 ? new TransferDto(from, to, AMOUNT) : new TransferDto(to, from, AMOUNT);
+        }
+    }
+}
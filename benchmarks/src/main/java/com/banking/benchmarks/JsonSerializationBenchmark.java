@@ -0,0 +1,61 @@
+package com.banking.benchmarks;
+
+import com.banking.accounts.dto.AccountDto;
+import com.banking.accounts.entity.AccountType;
+import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the list payloads returned by the list endpoints,
+ * using an ObjectMapper configured like the one Spring MVC uses
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    
+    @Param({"1", "100", "10000"})
+    int size;
+    
+    private ObjectMapper objectMapper;
+    private List<TransactionDto> transactions;
+    private List<AccountDto> accounts;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        String now = LocalDateTime.now().toString();
+        transactions = new ArrayList<>(size);
+        accounts = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            transactions.add(new TransactionDto(i, 1000L + i % 50, TransactionType.DEPOSIT,
+                    new BigDecimal("250.00"), now, TransactionStatus.SUCCESS));
+            accounts.add(new AccountDto(i, String.format("ACC%010d", i), 100L + i % 20, AccountType.SAVINGS,
+                    new BigDecimal("5000.00"), now, 0L, null));
+        }
+    }
+    
+    @Benchmark
+    public byte[] serializeTransactions() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactions);
+    }
+    
+    @Benchmark
+    public byte[] serializeAccounts() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accounts);
+    }
+}
@@ -0,0 +1,67 @@
+package com.banking.benchmarks;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for Spring Data repositories, so benchmarks measure the
+ * service code rather than H2 or a mocking framework
+ */
+public final class Stubs {
+    
+    private Stubs() {
+    }
+    
+    /**
+     * Create a repository whose methods are answered by name
+     * @param type Repository interface
+     * @param answers Method name to answer, called with the invocation arguments
+     * @return Repository stub; methods without an answer throw UnsupportedOperationException
+     */
+    public static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+            }
+            return answer.apply(args);
+        });
+        return type.cast(stub);
+    }
+    
+    /**
+     * Create a transaction manager without a database, so only the service's own
+     * transaction handling is measured
+     * @return Transaction manager whose transactions do nothing
+     */
+    public static PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+            
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+            
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+}
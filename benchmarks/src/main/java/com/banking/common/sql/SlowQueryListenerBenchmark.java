@@ -0,0 +1,88 @@
+package com.banking.common.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the JDBC proxy and SlowQueryListener on a page-sized indexed query and a
+ * single-row update against in-memory H2, with nothing slow enough to be logged
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlowQueryListenerBenchmark {
+    
+    @Param({"plain", "proxy", "proxy-count-rows"})
+    String dataSource;
+    
+    private Connection connection;
+    
+    @Setup
+    public void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:slow-query-benchmark;DB_CLOSE_DELAY=-1");
+        try (Connection setup = h2.getConnection(); Statement statement = setup.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS transactions");
+            statement.execute("CREATE TABLE transactions (id BIGINT PRIMARY KEY, account_id BIGINT NOT NULL, amount NUMERIC(15, 2) NOT NULL)");
+            statement.execute("CREATE INDEX idx_transactions_account_id ON transactions (account_id)");
+            statement.execute("INSERT INTO transactions SELECT x, MOD(x, 100), 25.00 FROM SYSTEM_RANGE(1, 2000)");
+        }
+        connection = wrap(h2).getConnection();
+    }
+    
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+    
+    @Benchmark
+    public BigDecimal selectAccountPage() throws SQLException {
+        BigDecimal total = BigDecimal.ZERO;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, account_id, amount FROM transactions WHERE account_id = ? ORDER BY id")) {
+            statement.setLong(1, 42);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    total = total.add(resultSet.getBigDecimal(3));
+                }
+            }
+        }
+        return total;
+    }
+    
+    @Benchmark
+    public int updateById() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE transactions SET amount = ? WHERE id = ?")) {
+            statement.setBigDecimal(1, new BigDecimal("30.00"));
+            statement.setLong(2, 42);
+            return statement.executeUpdate();
+        }
+    }
+    
+    private DataSource wrap(DataSource target) {
+        if ("plain".equals(dataSource)) {
+            return target;
+        }
+        SlowQueryListener listener = new SlowQueryListener(Duration.ofSeconds(1), 0);
+        ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(target).listener(listener);
+        if ("proxy-count-rows".equals(dataSource)) {
+            builder.proxyResultSet().methodListener(listener);
+        }
+        return builder.build();
+    }
+}
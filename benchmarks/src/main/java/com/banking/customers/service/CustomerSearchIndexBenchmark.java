@@ -0,0 +1,54 @@
+package com.banking.customers.service;
+
+import com.banking.customers.dto.CustomerDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead queries against CustomerSearchIndex filled with generated customers. Names are
+ * drawn from small pools, so common prefixes match a large share of the index, as they do
+ * for real customer bases.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CustomerSearchIndexBenchmark {
+    
+    private static final String[] FIRST_NAMES = {"Jordan", "Sam", "Alex", "Noor", "Daan", "Emma", "Lucas", "Sophie",
+            "Milan", "Julia", "Levi", "Tess", "Finn", "Anna", "Bram", "Eva"};
+    private static final String[] LAST_NAMES = {"de Jong", "Jansen", "de Vries", "van den Berg", "Bakker", "Visser",
+            "Smit", "Meijer", "de Boer", "Mulder", "Lee", "Bos", "Vos", "Peters", "Hendriks", "Dekker"};
+    
+    @Param({"100000", "1000000"})
+    int customers;
+    
+    @Param({"j", "jordan vis", "visser.4521", "+31 6123"})
+    String query;
+    
+    private CustomerSearchIndex index;
+    
+    @Setup
+    public void setUp() {
+        index = new CustomerSearchIndex();
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= customers; id++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String email = (firstName + "." + lastName.replace(" ", "") + "." + id + "@bank.com").toLowerCase();
+            String phone = "+316" + (10_000_000 + random.nextInt(90_000_000));
+            index.put(new CustomerDto(id, firstName, lastName, email, phone, "10 Bank Avenue, Rotterdam", now, 0L));
+        }
+    }
+    
+    @Benchmark
+    public CustomerSearchMatches search() {
+        return index.search(query, 20);
+    }
+}
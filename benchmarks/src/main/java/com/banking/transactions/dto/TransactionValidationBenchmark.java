@@ -0,0 +1,90 @@
+package com.banking.transactions.dto;
+
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionStatusConverter;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.entity.TransactionTypeConverter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of validating and encoding a transaction type and status, comparing
+ * the enum-backed TransactionDto with the earlier String fields checked by @Pattern
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionValidationBenchmark {
+    
+    private Validator validator;
+    private TransactionDto enumRow;
+    private PatternTransactionDto patternRow;
+    private final TransactionTypeConverter typeConverter = new TransactionTypeConverter();
+    private final TransactionStatusConverter statusConverter = new TransactionStatusConverter();
+    
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        enumRow = new TransactionDto(null, 1001L, TransactionType.WITHDRAWAL, new BigDecimal("250.00"), null, TransactionStatus.PENDING);
+        patternRow = new PatternTransactionDto();
+        patternRow.accountId = 1001L;
+        patternRow.type = "Withdrawal";
+        patternRow.amount = new BigDecimal("250.00");
+        patternRow.status = "PENDING";
+        // Bean metadata is built lazily on the first validation of each class
+        validator.validate(enumRow);
+        validator.validate(patternRow);
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<TransactionDto>> validateEnumRow() {
+        return validator.validate(enumRow);
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<PatternTransactionDto>> validatePatternRow() {
+        return validator.validate(patternRow);
+    }
+    
+    @Benchmark
+    public TransactionType parseTypeLabel() {
+        return TransactionType.fromLabel("Withdrawal");
+    }
+    
+    @Benchmark
+    public Character encodeEnumColumns() {
+        typeConverter.convertToDatabaseColumn(enumRow.getType());
+        return statusConverter.convertToDatabaseColumn(enumRow.getStatus());
+    }
+    
+    /**
+     * Shape of TransactionDto before type and status became enums
+     */
+    public static class PatternTransactionDto {
+        
+        @NotNull(message = "Account ID is required")
+        @Positive(message = "Account ID must be positive")
+        private Long accountId;
+        
+        @NotBlank(message = "Transaction type is required")
+        @Pattern(regexp = "^(Deposit|Withdrawal|Transfer)$", message = "Transaction type must be Deposit, Withdrawal, or Transfer")
+        private String type;
+        
+        @NotNull(message = "Amount is required")
+        @DecimalMin(value = "0.01", message = "Amount must be positive")
+        private BigDecimal amount;
+        
+        @Pattern(regexp = "^(SUCCESS|FAILED|PENDING)$", message = "Status must be SUCCESS, FAILED, or PENDING")
+        private String status;
+    }
+}
@@ -0,0 +1,114 @@
+package com.banking.transactions.repository;
+
+import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionStatusConverter;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.entity.TransactionTypeConverter;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Account history reads through Hibernate on in-memory H2, loading managed entities and
+ * copying them into DTOs versus the constructor-expression query the repository now uses.
+ * Run with {@code -prof gc} and divide gc.alloc.rate.norm by the row count for bytes per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionReadBenchmark {
+    
+    private static final Long ACCOUNT_ID = 1001L;
+    
+    private static final String ENTITY_QUERY = "SELECT t FROM Transaction t WHERE t.accountId = :accountId " +
+                                               "ORDER BY t.transactionDate DESC, t.id DESC";
+    
+    @Param({"100", "10000"})
+    int rows;
+    
+    private SessionFactory sessionFactory;
+    private String projectionQuery;
+    
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Transaction.class)
+                .addAnnotatedClass(TransactionTypeConverter.class)
+                .addAnnotatedClass(TransactionStatusConverter.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:transaction-reads;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "500")
+                .buildSessionFactory();
+        // Benchmark the query text the repository actually runs
+        projectionQuery = TransactionRepository.class.getMethod("findDtosByAccountId", Long.class)
+                .getAnnotation(Query.class).value();
+        
+        LocalDateTime now = LocalDateTime.now();
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < rows; i++) {
+                Transaction transaction = new Transaction(null, ACCOUNT_ID, TransactionType.DEPOSIT, new BigDecimal("250.00"),
+                        null, TransactionStatus.SUCCESS, null, null, null, null);
+                session.persist(transaction);
+                transaction.setTransactionDate(now.minusMinutes(i));
+            }
+        });
+    }
+    
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+    
+    /**
+     * The previous read path: managed entities copied field by field into DTOs
+     */
+    @Benchmark
+    public List<TransactionDto> loadEntities() {
+        return read(session -> {
+            List<Transaction> transactions = session.createQuery(ENTITY_QUERY, Transaction.class)
+                    .setParameter("accountId", ACCOUNT_ID)
+                    .getResultList();
+            List<TransactionDto> dtos = new ArrayList<>(transactions.size());
+            for (Transaction transaction : transactions) {
+                dtos.add(new TransactionDto(transaction.getId(), transaction.getAccountId(), transaction.getType(),
+                        transaction.getAmount(), transaction.getTransactionDate().toString(), transaction.getStatus()));
+            }
+            return dtos;
+        });
+    }
+    
+    @Benchmark
+    public List<TransactionDto> projectDtos() {
+        return read(session -> session.createQuery(projectionQuery, TransactionDto.class)
+                .setParameter("accountId", ACCOUNT_ID)
+                .getResultList());
+    }
+    
+    /**
+     * Run a read in a session set up the way Spring runs read-only repository methods
+     */
+    private List<TransactionDto> read(Function<Session, List<TransactionDto>> query) {
+        return sessionFactory.fromTransaction(session -> {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            return query.apply(session);
+        });
+    }
+}
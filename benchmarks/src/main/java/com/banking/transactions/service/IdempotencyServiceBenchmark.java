@@ -0,0 +1,74 @@
+package com.banking.transactions.service;
+
+import com.banking.benchmarks.Stubs;
+import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.entity.IdempotencyKey;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.repository.IdempotencyKeyRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IdempotencyService overhead around a create request, with the key table replaced by an
+ * in-memory stub and the request itself returning a prepared transaction. Sampled, so the
+ * results carry percentiles: the budget is 50 us at p99 for both paths, before the database
+ * round trips the new-key path adds in production (one insert and one update).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdempotencyServiceBenchmark {
+    
+    private static final String HOT_KEY = "hot-key";
+    
+    private IdempotencyService idempotencyService;
+    private TransactionDto payload;
+    private TransactionDto created;
+    private final AtomicLong keys = new AtomicLong();
+    
+    @Setup
+    public void setUp() {
+        AtomicLong sequence = new AtomicLong();
+        IdempotencyKeyRepository repository = Stubs.repository(IdempotencyKeyRepository.class, Map.of(
+                "saveAndFlush", args -> {
+                    IdempotencyKey key = (IdempotencyKey) args[0];
+                    key.setId(sequence.incrementAndGet());
+                    return key;
+                },
+                "complete", args -> 1));
+        // Replays of keys completed elsewhere are the only callers of the transaction service
+        idempotencyService = new IdempotencyService(repository, null, new TransactionTemplate(Stubs.transactionManager()),
+                100_000, Duration.ofHours(24), Duration.ofMinutes(2), Duration.ofHours(24));
+        payload = new TransactionDto(null, 1001L, TransactionType.DEPOSIT, new BigDecimal("250.00"), (String) null, null);
+        created = new TransactionDto(1L, 1001L, TransactionType.DEPOSIT, new BigDecimal("250.00"),
+                LocalDateTime.now(), TransactionStatus.SUCCESS);
+        idempotencyService.execute(HOT_KEY, payload, () -> created);
+    }
+    
+    /**
+     * Retry of a request this instance completed: fingerprint and cache lookup only
+     */
+    @Benchmark
+    public TransactionDto cacheHit() {
+        return idempotencyService.execute(HOT_KEY, payload, () -> created);
+    }
+    
+    /**
+     * First request with a key: fingerprint, claim insert, completion and cache write
+     */
+    @Benchmark
+    public TransactionDto newKey() {
+        return idempotencyService.execute("key-" + keys.incrementAndGet(), payload, () -> created);
+    }
+}
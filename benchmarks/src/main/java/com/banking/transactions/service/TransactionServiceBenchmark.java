@@ -0,0 +1,130 @@
+package com.banking.transactions.service;
+
+import com.banking.benchmarks.Stubs;
+import com.banking.transactions.client.AccountsClient;
+import com.banking.transactions.dto.AccountBalanceDto;
+import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.entity.BalanceSnapshot;
+import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.repository.BalanceSnapshotRepository;
+import com.banking.transactions.repository.OutboxEventRepository;
+import com.banking.transactions.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TransactionService hot paths with the repository and accounts-service client
+ * replaced by in-memory stubs. createTransaction covers the PENDING write, the posting
+ * and the settled write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionServiceBenchmark {
+    
+    private TransactionService transactionService;
+    private TransactionDto request;
+    private Transaction stored;
+    
+    @Setup
+    public void setUp() {
+        AtomicLong sequence = new AtomicLong();
+        LocalDateTime now = LocalDateTime.now();
+        TransactionRepository repository = Stubs.repository(TransactionRepository.class, Map.of(
+                "save", args -> {
+                    Transaction transaction = (Transaction) args[0];
+                    transaction.setId(sequence.incrementAndGet());
+                    transaction.setTransactionDate(now);
+                    return transaction;
+                },
+                "sumPostedAmounts", args -> BigDecimal.ZERO));
+        BalanceSnapshotService snapshots = snapshots(repository);
+        OutboxService outbox = outbox();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(Stubs.transactionManager());
+        TransactionSettler settler = new TransactionSettler(repository, new AcceptingAccountsClient(), outbox, snapshots,
+                transactionTemplate, Duration.ofSeconds(30));
+        transactionService = new TransactionService(repository, settler, snapshots, outbox, transactionTemplate);
+        request = request(1001L, TransactionType.DEPOSIT, "250.00");
+        stored = transaction(1L, 1001L, now);
+    }
+    
+    @Benchmark
+    public TransactionDto createTransaction() {
+        return transactionService.createTransaction(request);
+    }
+    
+    @Benchmark
+    public TransactionDto convertToDto() {
+        return transactionService.convertToDto(stored);
+    }
+    
+    @Benchmark
+    public Transaction convertToEntity() {
+        return transactionService.convertToEntity(request);
+    }
+    
+    /**
+     * Accounts client that accepts every posting without a network call
+     */
+    static class AcceptingAccountsClient extends AccountsClient {
+        
+        private final AccountBalanceDto balance = new AccountBalanceDto(1001L, new BigDecimal("1000.00"));
+        
+        AcceptingAccountsClient() {
+            super(RestClient.builder(), "http://localhost");
+        }
+        
+        @Override
+        public AccountBalanceDto post(Long accountId, TransactionType type, BigDecimal amount, String reference) {
+            return balance;
+        }
+    }
+    
+    /**
+     * Snapshot bookkeeping over an in-memory snapshot table, so createTransaction pays for
+     * the due check on every posting and a snapshot write on every hundredth
+     */
+    static BalanceSnapshotService snapshots(TransactionRepository transactionRepository) {
+        BalanceSnapshotRepository snapshotRepository = Stubs.repository(BalanceSnapshotRepository.class, Map.of(
+                "findFirstByAccountIdOrderByAsOfDescTransactionIdDesc", args -> Optional.empty(),
+                "save", args -> (BalanceSnapshot) args[0]));
+        return new BalanceSnapshotService(snapshotRepository, transactionRepository, new AcceptingAccountsClient(),
+                Duration.ofHours(1), 100, 100_000);
+    }
+    
+    /**
+     * Outbox writes with JSON serialization of the payload but no database
+     */
+    static OutboxService outbox() {
+        OutboxEventRepository outboxEventRepository = Stubs.repository(OutboxEventRepository.class, Map.of(
+                "save", args -> args[0]));
+        return new OutboxService(outboxEventRepository, new ObjectMapper());
+    }
+    
+    static TransactionDto request(Long accountId, TransactionType type, String amount) {
+        TransactionDto dto = new TransactionDto();
+        dto.setAccountId(accountId);
+        dto.setType(type);
+        dto.setAmount(new BigDecimal(amount));
+        return dto;
+    }
+    
+    static Transaction transaction(long id, Long accountId, LocalDateTime date) {
+        return new Transaction(id, accountId, TransactionType.DEPOSIT, new BigDecimal("250.00"), date, TransactionStatus.SUCCESS, null, null, null, null);
+    }
+}
@@ -0,0 +1,16 @@
+package com.banking.customers.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caffeine-backed read-through caches for customer lookups; size, TTL and stats
+ * recording come from spring.cache.caffeine.spec
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String CUSTOMERS = "customers";
+    public static final String CUSTOMERS_BY_EMAIL = "customersByEmail";
+}
@@ -0,0 +1,12 @@
+package com.banking.customers.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs background jobs such as the search index sync on Spring's scheduler thread
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,16 +1,25 @@
 package com.banking.customers.controller;
 
 import com.banking.customers.dto.CustomerDto;
+import com.banking.customers.dto.CustomerFilter;
+import com.banking.customers.dto.CustomerLookupDto;
+import com.banking.customers.dto.CustomerLookupResultDto;
+import com.banking.customers.dto.CustomerPageDto;
+import com.banking.customers.dto.CustomerSearchResultDto;
 import com.banking.customers.service.CustomerService;
+import com.banking.common.web.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/customers")
@@ -28,17 +37,44 @@ public class CustomerController {
     }
     
     @GetMapping
-    @Operation(summary = "Get all customers", description = "Retrieves a list of all customer profiles")
-    public ResponseEntity<List<CustomerDto>> getAllCustomers() {
-        List<CustomerDto> customers = customerService.getAllCustomers();
+    @Operation(summary = "List customers", description = "Retrieves customer profiles one page at a time, filtered by last name and registration time and sorted by id, lastName, email or createdAt; page by number or with the returned keyset cursor, at most 500 customers per page")
+    public ResponseEntity<CustomerPageDto> getCustomers(@RequestParam(required = false) String lastName,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+                                                        @RequestParam(defaultValue = "id") String sort,
+                                                        @RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int size) {
+        CustomerFilter filter = new CustomerFilter(lastName, createdFrom, createdTo);
+        CustomerPageDto customers = customerService.getCustomerPage(filter, sort, page, cursor, size);
         return ResponseEntity.ok(customers);
     }
     
+    @GetMapping("/search")
+    @Operation(summary = "Search customers", description = "Typeahead search by name, email or phone prefix: every word of q must start a word of the customer's first name, last name or email, ignoring case and accents, or the digits of q must start the phone number; returns up to " + CustomerService.MAX_SEARCH_RESULTS + " customers, with truncated set when more customers may match than were examined")
+    public ResponseEntity<CustomerSearchResultDto> searchCustomers(@RequestParam String q,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        CustomerSearchResultDto result = customerService.searchCustomers(q, limit);
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping("/{id}")
-    @Operation(summary = "Get customer by ID", description = "Retrieves customer profile by customer ID")
-    public ResponseEntity<CustomerDto> getCustomerById(@PathVariable Long id) {
+    @Operation(summary = "Get customer by ID", description = "Retrieves customer profile by customer ID, with the version as ETag; If-None-Match with the current ETag returns 304")
+    public ResponseEntity<CustomerDto> getCustomerById(@PathVariable Long id, WebRequest webRequest) {
         CustomerDto customer = customerService.getCustomerById(id);
-        return ResponseEntity.ok(customer);
+        String eTag = ETags.of(customer.getVersion());
+        // Answers 304 Not Modified when If-None-Match carries the current version
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(customer);
+    }
+    
+    @PostMapping("/lookup")
+    @Operation(summary = "Look up customers in bulk", description = "Retrieves up to " + CustomerLookupDto.MAX_KEYS + " customers by ID and up to " + CustomerLookupDto.MAX_KEYS + " by email in one request; results follow the request order and keys without a customer are listed as missing")
+    public ResponseEntity<CustomerLookupResultDto> lookupCustomers(@Valid @RequestBody CustomerLookupDto lookupDto) {
+        CustomerLookupResultDto result = customerService.lookupCustomers(lookupDto);
+        return ResponseEntity.ok(result);
     }
     
     @GetMapping("/email/{email}")
@@ -49,10 +85,13 @@ public class CustomerController {
     }
     
     @PutMapping("/{id}")
-    @Operation(summary = "Update customer profile", description = "Updates customer profile information")
-    public ResponseEntity<CustomerDto> updateCustomer(@PathVariable Long id, @Valid @RequestBody CustomerDto customerDto) {
-        CustomerDto updatedCustomer = customerService.updateCustomer(id, customerDto);
-        return ResponseEntity.ok(updatedCustomer);
+    @Operation(summary = "Update customer profile", description = "Updates customer profile information; with If-Match (or the version in the body) the update fails with 412 unless the customer is still at that version, and a concurrent update fails with 409")
+    public ResponseEntity<CustomerDto> updateCustomer(@PathVariable Long id,
+                                                      @Valid @RequestBody CustomerDto customerDto,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch != null ? ETags.parseIfMatch(ifMatch) : customerDto.getVersion();
+        CustomerDto updatedCustomer = customerService.updateCustomer(id, customerDto, expectedVersion);
+        return ResponseEntity.ok().eTag(ETags.of(updatedCustomer.getVersion())).body(updatedCustomer);
     }
     
     @DeleteMapping("/{id}")
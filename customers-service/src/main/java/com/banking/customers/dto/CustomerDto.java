@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,4 +36,18 @@ public class CustomerDto {
     private String address;
     
     private String createdAt;
+    
+    /**
+     * Version the representation was read at, also sent as the ETag
+     */
+    private Long version;
+    
+    /**
+     * Constructor used by JPQL constructor expressions, so read queries build DTOs
+     * straight from the result set without loading managed entities
+     */
+    public CustomerDto(Long id, String firstName, String lastName, String email, String phone, String address,
+                       LocalDateTime createdAt, Long version) {
+        this(id, firstName, lastName, email, phone, address, createdAt.toString(), version);
+    }
 }
@@ -0,0 +1,21 @@
+package com.banking.customers.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerFilter {
+    
+    private String lastName;
+    
+    /** Inclusive lower bound of the registration time */
+    private LocalDateTime createdFrom;
+    
+    /** Exclusive upper bound of the registration time */
+    private LocalDateTime createdTo;
+}
@@ -0,0 +1,30 @@
+package com.banking.customers.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerLookupDto {
+    
+    public static final int MAX_KEYS = 100;
+    
+    @Size(max = MAX_KEYS, message = "At most " + MAX_KEYS + " customer IDs can be looked up at once")
+    private List<@NotNull(message = "Customer ID must not be null") Long> ids = new ArrayList<>();
+    
+    @Size(max = MAX_KEYS, message = "At most " + MAX_KEYS + " emails can be looked up at once")
+    private List<@NotBlank(message = "Email must not be blank") String> emails = new ArrayList<>();
+    
+    @JsonIgnore
+    @AssertTrue(message = "At least one customer ID or email is required")
+    public boolean isNotEmpty() {
+        return (ids != null && !ids.isEmpty()) || (emails != null && !emails.isEmpty());
+    }
+}
@@ -0,0 +1,23 @@
+package com.banking.customers.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Customers found by a bulk lookup, in request order (IDs first, then emails),
+ * and the keys that matched no customer
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerLookupResultDto {
+    
+    private List<CustomerDto> customers;
+    
+    private List<Long> missingIds;
+    
+    private List<String> missingEmails;
+}
@@ -0,0 +1,21 @@
+package com.banking.customers.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Customers found by a typeahead search
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSearchResultDto {
+    
+    private List<CustomerDto> customers;
+    
+    /** More customers may match than were examined; a longer query narrows the search */
+    private boolean truncated;
+}
@@ -0,0 +1,34 @@
+package com.banking.customers.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Properties the customer list can be sorted by. Each is backed by an index ending in the
+ * customer ID, which breaks ties so keyset cursors stay stable.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CustomerSortField {
+    
+    ID("id", CustomerDto::getId, Long::valueOf),
+    LAST_NAME("lastName", CustomerDto::getLastName, value -> value),
+    EMAIL("email", CustomerDto::getEmail, value -> value),
+    CREATED_AT("createdAt", CustomerDto::getCreatedAt, LocalDateTime::parse);
+    
+    private final String property;
+    private final Function<CustomerDto, Object> accessor;
+    private final Function<String, Object> parser;
+    
+    public static CustomerSortField fromProperty(String property) {
+        for (CustomerSortField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Customers can be sorted by id, lastName, email or createdAt");
+    }
+}
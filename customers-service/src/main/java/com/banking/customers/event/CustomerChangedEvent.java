@@ -0,0 +1,16 @@
+package com.banking.customers.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published whenever a customer is created, updated or deleted. Carries the email before the
+ * change as well as after it, since either one may be cached.
+ */
+@Data
+@AllArgsConstructor
+public class CustomerChangedEvent {
+    private Long customerId;
+    private String previousEmail;
+    private String currentEmail;
+}
@@ -0,0 +1,29 @@
+package com.banking.customers.repository;
+
+import com.banking.customers.entity.CustomerChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CustomerChangeRepository extends JpaRepository<CustomerChange, Long> {
+    
+    /**
+     * IDs of the customers changed at or after a point in time, each listed once
+     */
+    @Query("SELECT DISTINCT c.customerId FROM CustomerChange c WHERE c.changedAt >= :since")
+    List<Long> findCustomerIdsChangedSince(@Param("since") LocalDateTime since);
+    
+    /**
+     * Delete changes recorded before a point in time
+     * @return Number of changes deleted
+     */
+    @Modifying
+    @Query("DELETE FROM CustomerChange c WHERE c.changedAt < :cutoff")
+    int deleteChangedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,15 +1,40 @@
 package com.banking.customers.repository;
 
+import com.banking.customers.dto.CustomerDto;
 import com.banking.customers.entity.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerSearchRepository {
+    
+    /**
+     * Select clause of the read queries below. Constructor expressions return unmanaged DTOs,
+     * so list reads neither allocate entities nor register them in the persistence context.
+     */
+    String SELECT_DTO = "SELECT new com.banking.customers.dto.CustomerDto(" +
+                        "c.id, c.firstName, c.lastName, c.email, c.phone, c.address, c.createdAt, c.version) ";
     
     Optional<Customer> findByEmail(String email);
     
+    @Query(SELECT_DTO + "FROM Customer c WHERE c.id IN :ids")
+    List<CustomerDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(SELECT_DTO + "FROM Customer c WHERE c.email IN :emails")
+    List<CustomerDto> findDtosByEmailIn(@Param("emails") Collection<String> emails);
+    
+    /**
+     * Customers with an ID above the given one in ID order, for walking the table in batches
+     */
+    @Query(SELECT_DTO + "FROM Customer c WHERE c.id > :afterId ORDER BY c.id")
+    List<CustomerDto> findDtosAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
     boolean existsByEmail(String email);
 }
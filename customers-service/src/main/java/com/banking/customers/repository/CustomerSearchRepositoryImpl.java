@@ -0,0 +1,66 @@
+package com.banking.customers.repository;
+
+import com.banking.customers.dto.CustomerDto;
+import com.banking.customers.dto.CustomerFilter;
+import com.banking.customers.dto.CustomerSortField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the list query from only the filters that are set, so each combination can use
+ * a matching index instead of one query full of optional predicates
+ */
+public class CustomerSearchRepositoryImpl implements CustomerSearchRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<CustomerDto> search(CustomerFilter filter, CustomerSortField sortField, Sort.Direction direction,
+                                    Object afterValue, Long afterId, int offset, int limit) {
+        StringBuilder jpql = new StringBuilder(CustomerRepository.SELECT_DTO).append("FROM Customer c WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.getLastName() != null) {
+            jpql.append(" AND c.lastName = :lastName");
+            parameters.put("lastName", filter.getLastName());
+        }
+        if (filter.getCreatedFrom() != null) {
+            jpql.append(" AND c.createdAt >= :createdFrom");
+            parameters.put("createdFrom", filter.getCreatedFrom());
+        }
+        if (filter.getCreatedTo() != null) {
+            jpql.append(" AND c.createdAt < :createdTo");
+            parameters.put("createdTo", filter.getCreatedTo());
+        }
+        
+        // Property names come from the whitelist enum, never from the request
+        String column = "c." + sortField.getProperty();
+        String after = direction.isAscending() ? " > " : " < ";
+        if (afterId != null) {
+            if (sortField == CustomerSortField.ID) {
+                jpql.append(" AND c.id").append(after).append(":afterId");
+            } else {
+                jpql.append(" AND (").append(column).append(after).append(":afterValue OR (")
+                        .append(column).append(" = :afterValue AND c.id").append(after).append(":afterId))");
+                parameters.put("afterValue", afterValue);
+            }
+            parameters.put("afterId", afterId);
+        }
+        jpql.append(" ORDER BY ").append(column).append(' ').append(direction.name());
+        if (sortField != CustomerSortField.ID) {
+            jpql.append(", c.id ").append(direction.name());
+        }
+        
+        TypedQuery<CustomerDto> query = entityManager.createQuery(jpql.toString(), CustomerDto.class);
+        parameters.forEach(query::setParameter);
+        return query.setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,35 @@
+package com.banking.customers.service;
+
+import com.banking.customers.config.CacheConfig;
+import com.banking.customers.event.CustomerChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class CustomerCacheInvalidator {
+    
+    private final CacheManager cacheManager;
+    
+    /**
+     * Evict the changed customer by ID and by both its old and new email once the write
+     * has committed, or immediately when the write ran outside a transaction
+     * @param event Changed customer
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        evict(CacheConfig.CUSTOMERS, event.getCustomerId());
+        evict(CacheConfig.CUSTOMERS_BY_EMAIL, event.getPreviousEmail());
+        evict(CacheConfig.CUSTOMERS_BY_EMAIL, event.getCurrentEmail());
+    }
+    
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+}
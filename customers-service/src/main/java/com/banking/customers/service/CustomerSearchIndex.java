@@ -0,0 +1,237 @@
+package com.banking.customers.service;
+
+import com.banking.customers.dto.CustomerDto;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over customer first name, last name, email and phone for typeahead
+ * search. Tokens are held in a sorted map, so every token starting with a prefix lies in one
+ * contiguous range and a lookup costs a range seek plus the candidates it visits, however many
+ * customers are indexed. Filled by {@link CustomerSearchIndexer}.
+ */
+@Component
+public class CustomerSearchIndex {
+    
+    /**
+     * Upper bound on the candidates one search examines, so a query whose leading term is a
+     * very common prefix and whose other terms rarely match stays cheap. A search that hits
+     * it reports its matches as truncated.
+     */
+    static final int MAX_CANDIDATES = 10_000;
+    
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern PHONE_QUERY = Pattern.compile("[+(]?\\d[\\d\\s().-]*");
+    
+    private final NavigableMap<String, Set<Long>> customersByToken = new TreeMap<>();
+    private final Map<Long, String[]> tokensByCustomer = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Index a customer, replacing whatever was indexed for it before
+     * @param customer Customer as currently stored
+     */
+    public void put(CustomerDto customer) {
+        String[] tokens = tokensOf(customer);
+        lock.writeLock().lock();
+        try {
+            String[] previous = tokensByCustomer.put(customer.getId(), tokens);
+            if (previous != null) {
+                unlink(customer.getId(), previous);
+            }
+            for (int i = 0; i < tokens.length; i++) {
+                // Names repeat across customers, so keep one String per distinct token
+                String indexed = customersByToken.ceilingKey(tokens[i]);
+                if (tokens[i].equals(indexed)) {
+                    tokens[i] = indexed;
+                }
+                customersByToken.computeIfAbsent(tokens[i], key -> new TreeSet<>()).add(customer.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Remove a customer from the index
+     * @param customerId Customer ID
+     */
+    public void remove(Long customerId) {
+        lock.writeLock().lock();
+        try {
+            String[] previous = tokensByCustomer.remove(customerId);
+            if (previous != null) {
+                unlink(customerId, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Find customers whose tokens start with every term of a query. Case and accents are
+     * ignored; a query made of digits and phone punctuation matches phone numbers by prefix.
+     * @param query Search text, e.g. "jor", "jordan le" or "+31 6900"
+     * @param limit Maximum number of customer IDs to return
+     * @return IDs of matching customers, ordered by the matching token and then by ID, flagged
+     *         as truncated when more than {@value #MAX_CANDIDATES} candidates had to be examined
+     */
+    public CustomerSearchMatches search(String query, int limit) {
+        String[] terms = termsOf(query);
+        if (terms.length == 0) {
+            return new CustomerSearchMatches(List.of(), false);
+        }
+        Set<Long> matches = new LinkedHashSet<>();
+        int examined = 0;
+        lock.readLock().lock();
+        try {
+            // Walk the range of the most selective term and check the others per candidate
+            for (Set<Long> customerIds : tokensStartingWith(leadingTerm(terms)).values()) {
+                for (Long customerId : customerIds) {
+                    if (++examined > MAX_CANDIDATES) {
+                        return new CustomerSearchMatches(new ArrayList<>(matches), true);
+                    }
+                    if (!matches.contains(customerId) && matchesAll(tokensByCustomer.get(customerId), terms)) {
+                        matches.add(customerId);
+                        if (matches.size() == limit) {
+                            return new CustomerSearchMatches(new ArrayList<>(matches), false);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new CustomerSearchMatches(new ArrayList<>(matches), false);
+    }
+    
+    /**
+     * Number of indexed customers
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tokensByCustomer.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * The term whose prefix range holds the fewest customers. Ranges are counted only up to the
+     * smallest count seen so far, longest term first, so counting stays cheap.
+     */
+    private String leadingTerm(String[] terms) {
+        String leading = terms[0];
+        if (terms.length == 1) {
+            return leading;
+        }
+        long fewest = MAX_CANDIDATES;
+        for (String term : terms) {
+            long count = 0;
+            for (Set<Long> customerIds : tokensStartingWith(term).values()) {
+                count += customerIds.size();
+                if (count >= fewest) {
+                    break;
+                }
+            }
+            if (count < fewest) {
+                fewest = count;
+                leading = term;
+            }
+        }
+        return leading;
+    }
+    
+    private NavigableMap<String, Set<Long>> tokensStartingWith(String prefix) {
+        return customersByToken.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+    
+    private void unlink(Long customerId, String[] tokens) {
+        for (String token : tokens) {
+            Set<Long> customerIds = customersByToken.get(token);
+            if (customerIds != null && customerIds.remove(customerId) && customerIds.isEmpty()) {
+                customersByToken.remove(token);
+            }
+        }
+    }
+    
+    private static boolean matchesAll(String[] tokens, String[] terms) {
+        for (String term : terms) {
+            boolean matched = false;
+            for (String token : tokens) {
+                if (token.startsWith(term)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Tokens of a customer: the words of its names and email, and its phone number as digits only
+     */
+    static String[] tokensOf(CustomerDto customer) {
+        Set<String> tokens = new LinkedHashSet<>();
+        addWords(tokens, customer.getFirstName());
+        addWords(tokens, customer.getLastName());
+        addWords(tokens, customer.getEmail());
+        String phone = digitsOf(customer.getPhone());
+        if (!phone.isEmpty()) {
+            tokens.add(phone);
+        }
+        return tokens.toArray(String[]::new);
+    }
+    
+    /**
+     * Terms of a query, longest first, since longer prefixes usually match fewer customers
+     */
+    static String[] termsOf(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        String trimmed = query.trim();
+        if (PHONE_QUERY.matcher(trimmed).matches()) {
+            return new String[]{digitsOf(trimmed)};
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        addWords(terms, trimmed);
+        return terms.stream()
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .toArray(String[]::new);
+    }
+    
+    private static void addWords(Set<String> tokens, String text) {
+        if (text == null) {
+            return;
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        Arrays.stream(SEPARATORS.split(folded.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .forEach(tokens::add);
+    }
+    
+    private static String digitsOf(String text) {
+        return text == null ? "" : text.replaceAll("\\D", "");
+    }
+}
@@ -0,0 +1,146 @@
+package com.banking.customers.service;
+
+import com.banking.customers.dto.CustomerDto;
+import com.banking.customers.entity.CustomerChange;
+import com.banking.customers.event.CustomerChangedEvent;
+import com.banking.customers.repository.CustomerChangeRepository;
+import com.banking.customers.repository.CustomerRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps {@link CustomerSearchIndex} in step with the customers table: loads every customer
+ * before the service starts taking requests, then applies each committed change. Changes are
+ * also recorded in customer_changes, which every instance polls, so a change made through one
+ * instance reaches the indexes of the others within the sync interval.
+ */
+@Component
+public class CustomerSearchIndexer {
+    
+    private static final Logger log = LoggerFactory.getLogger(CustomerSearchIndexer.class);
+    
+    private final CustomerRepository customerRepository;
+    private final CustomerChangeRepository customerChangeRepository;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration syncOverlap;
+    private final Duration changeRetention;
+    private volatile LocalDateTime syncedFrom;
+    
+    public CustomerSearchIndexer(CustomerRepository customerRepository,
+                                 CustomerChangeRepository customerChangeRepository,
+                                 CustomerSearchIndex customerSearchIndex,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${customers.search.rebuild-batch-size:5000}") int batchSize,
+                                 @Value("${customers.search.sync-overlap:5s}") Duration syncOverlap,
+                                 @Value("${customers.search.change-retention:1h}") Duration changeRetention) {
+        this.customerRepository = customerRepository;
+        this.customerChangeRepository = customerChangeRepository;
+        this.customerSearchIndex = customerSearchIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.syncOverlap = syncOverlap;
+        this.changeRetention = changeRetention;
+    }
+    
+    /**
+     * Build the index from the table in ID order, one batch per query, so no single read
+     * holds the whole table
+     */
+    @PostConstruct
+    public void rebuild() {
+        long started = System.nanoTime();
+        // Changes committed while the table is read are picked up again by the first sync
+        syncedFrom = LocalDateTime.now();
+        Long afterId = 0L;
+        List<CustomerDto> batch;
+        do {
+            batch = customerRepository.findDtosAfterId(afterId, PageRequest.of(0, batchSize));
+            batch.forEach(customerSearchIndex::put);
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == batchSize);
+        log.info("Indexed {} customers for search in {} ms", customerSearchIndex.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    /**
+     * Record a change in customer_changes. Runs in the writing transaction, so the change is
+     * recorded if and only if it commits.
+     * @param event Changed customer
+     */
+    @EventListener
+    public void recordChange(CustomerChangedEvent event) {
+        CustomerChange change = new CustomerChange();
+        change.setCustomerId(event.getCustomerId());
+        customerChangeRepository.save(change);
+    }
+    
+    /**
+     * Re-index a created, updated or deleted customer once the write has committed, or
+     * immediately when the write ran outside a transaction, so this instance finds it right away
+     * @param event Changed customer
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        reindex(List.of(event.getCustomerId()));
+    }
+    
+    /**
+     * Re-index the customers changed by any instance since the previous sync. Each sync reads
+     * back a little further than the previous one started, by the sync overlap, so a change
+     * whose transaction was still open then, or stamped by a clock running slightly behind,
+     * is not missed. Re-indexing a customer twice is harmless.
+     */
+    @Scheduled(fixedDelayString = "${customers.search.sync-interval-ms:1000}")
+    public void syncChanges() {
+        LocalDateTime started = LocalDateTime.now();
+        List<Long> changed = customerChangeRepository.findCustomerIdsChangedSince(syncedFrom.minus(syncOverlap));
+        for (int from = 0; from < changed.size(); from += batchSize) {
+            reindex(changed.subList(from, Math.min(from + batchSize, changed.size())));
+        }
+        syncedFrom = started;
+    }
+    
+    /**
+     * Delete recorded changes older than the retention period, which must comfortably exceed
+     * the sync interval plus the sync overlap
+     */
+    @Scheduled(fixedDelayString = "${customers.search.purge-interval-ms:600000}")
+    public void purgeChanges() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(changeRetention);
+        Integer deleted = transactionTemplate.execute(status -> customerChangeRepository.deleteChangedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} customer changes recorded before {}", deleted, cutoff);
+        }
+    }
+    
+    /**
+     * Index the committed state of the given customers, dropping those that no longer exist.
+     * The customers are re-read rather than taken from an event, so listeners for concurrent
+     * writes that run out of order still leave the committed state in the index.
+     */
+    private void reindex(List<Long> customerIds) {
+        Set<Long> missing = new HashSet<>(customerIds);
+        for (CustomerDto customer : customerRepository.findDtosByIdIn(customerIds)) {
+            customerSearchIndex.put(customer);
+            missing.remove(customer.getId());
+        }
+        missing.forEach(customerSearchIndex::remove);
+    }
+}
@@ -0,0 +1,20 @@
+package com.banking.customers.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Customers found by {@link CustomerSearchIndex#search}
+ */
+@Getter
+@AllArgsConstructor
+public class CustomerSearchMatches {
+    
+    /** IDs of matching customers, ordered by the matching token and then by ID */
+    private final List<Long> customerIds;
+    
+    /** The search stopped at the candidate limit before finding enough matches, so more customers may match */
+    private final boolean truncated;
+}
@@ -1,21 +1,51 @@
 package com.banking.customers.service;
 
+import com.banking.common.observation.ObservationAutoConfiguration;
+import com.banking.customers.config.CacheConfig;
 import com.banking.customers.dto.CustomerDto;
+import com.banking.customers.dto.CustomerFilter;
+import com.banking.customers.dto.CustomerLookupDto;
+import com.banking.customers.dto.CustomerLookupResultDto;
+import com.banking.customers.dto.CustomerPageDto;
+import com.banking.customers.dto.CustomerSearchResultDto;
+import com.banking.customers.dto.CustomerSortField;
 import com.banking.customers.entity.Customer;
+import com.banking.customers.event.CustomerChangedEvent;
 import com.banking.customers.exception.CustomerNotFoundException;
 import com.banking.customers.exception.DuplicateEmailException;
 import com.banking.customers.repository.CustomerRepository;
+import com.banking.common.web.PreconditionFailedException;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Observed(name = ObservationAutoConfiguration.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 public class CustomerService {
     
+    static final int MAX_PAGE_SIZE = 500;
+    
+    public static final int MAX_SEARCH_RESULTS = 100;
+    
     private final CustomerRepository customerRepository;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Register a new customer
@@ -27,19 +57,89 @@ public class CustomerService {
             throw new DuplicateEmailException("Email already exists: " + customerDto.getEmail());
         }
         
-        Customer customer = convertToEntity(customerDto);
-        Customer savedCustomer = customerRepository.save(customer);
-        return convertToDto(savedCustomer);
+        // One transaction, so the change is recorded for the other instances' search indexes if and only if it commits
+        return transactionTemplate.execute(status -> {
+            Customer customer = convertToEntity(customerDto);
+            Customer savedCustomer = customerRepository.save(customer);
+            eventPublisher.publishEvent(new CustomerChangedEvent(savedCustomer.getId(), null, savedCustomer.getEmail()));
+            return convertToDto(savedCustomer);
+        });
     }
     
     /**
-     * Get all customers
-     * @return List of all customers
+     * List customers one page at a time. Pages are addressed by number, or by the opaque cursor
+     * returned with the previous page, which stays cheap however deep the client pages.
+     * @param filter Filters; null fields are not applied
+     * @param sort Whitelisted sort property, optionally followed by ",asc" or ",desc"
+     * @param page Page number, ignored when a cursor is given
+     * @param cursor Cursor returned with the previous page, or null
+     * @param size Maximum number of customers to return, capped at {@value #MAX_PAGE_SIZE}
+     * @return Page of customers with the cursor of the next page
      */
-    public List<CustomerDto> getAllCustomers() {
-        return customerRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CustomerPageDto getCustomerPage(CustomerFilter filter, String sort, int page, String cursor, int size) {
+        if (filter.getCreatedFrom() != null && filter.getCreatedTo() != null
+                && !filter.getCreatedFrom().isBefore(filter.getCreatedTo())) {
+            throw new IllegalArgumentException("createdFrom must be before createdTo");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String[] sortParts = sort.split(",", 2);
+        CustomerSortField sortField = CustomerSortField.fromProperty(sortParts[0].trim());
+        Sort.Direction direction = sortParts.length > 1 ? Sort.Direction.fromString(sortParts[1].trim()) : Sort.Direction.ASC;
+        
+        // Fetch one extra row to find out whether another page follows
+        List<CustomerDto> customers;
+        Integer pageNumber = null;
+        if (cursor == null || cursor.isBlank()) {
+            long offset = (long) page * pageSize;
+            if (page < 0 || offset > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Page must be between 0 and " + Integer.MAX_VALUE / pageSize);
+            }
+            pageNumber = page;
+            customers = customerRepository.search(filter, sortField, direction, null, null, (int) offset, pageSize + 1);
+        } else {
+            String[] position = decodeCursor(cursor, sortField, direction);
+            Object afterValue;
+            try {
+                afterValue = sortField.getParser().apply(position[1]);
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            customers = customerRepository.search(filter, sortField, direction, afterValue, Long.valueOf(position[0]), 0, pageSize + 1);
+        }
+        
+        String nextCursor = null;
+        if (customers.size() > pageSize) {
+            customers = customers.subList(0, pageSize);
+            nextCursor = encodeCursor(customers.get(pageSize - 1), sortField, direction);
+        }
+        return new CustomerPageDto(customers, pageNumber, pageSize, nextCursor);
+    }
+    
+    /**
+     * Typeahead search by name, email or phone prefix, answered from the in-memory search index
+     * @param query Search text; every word must start a word of the customer's names or email,
+     *              or the digits must start its phone number
+     * @param limit Maximum number of customers to return, capped at {@value #MAX_SEARCH_RESULTS}
+     * @return Matching customers, ordered by the matching word and then by ID, and whether the
+     *         search was cut short with more customers possibly matching
+     */
+    public CustomerSearchResultDto searchCustomers(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        CustomerSearchMatches matches = customerSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+        List<Long> ids = matches.getCustomerIds();
+        if (ids.isEmpty()) {
+            return new CustomerSearchResultDto(List.of(), matches.isTruncated());
+        }
+        Map<Long, CustomerDto> byId = customerRepository.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(CustomerDto::getId, Function.identity()));
+        // A customer deleted since the index was read is skipped
+        List<CustomerDto> customers = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new CustomerSearchResultDto(customers, matches.isTruncated());
     }
     
     /**
@@ -47,6 +147,7 @@ public class CustomerService {
      * @param id Customer ID
      * @return Customer details
      */
+    @Cacheable(cacheNames = CacheConfig.CUSTOMERS, key = "#id")
     public CustomerDto getCustomerById(Long id) {
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
@@ -58,6 +159,7 @@ public class CustomerService {
      * @param email Customer email
      * @return Customer details
      */
+    @Cacheable(cacheNames = CacheConfig.CUSTOMERS_BY_EMAIL, key = "#email")
     public CustomerDto getCustomerByEmail(String email) {
         Customer customer = customerRepository.findByEmail(email)
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with email: " + email));
@@ -65,14 +167,55 @@ public class CustomerService {
     }
     
     /**
-     * Update customer details
+     * Look up many customers at once, with one IN query for the IDs and one for the emails
+     * @param lookup Customer IDs and emails, in the order the results should follow
+     * @return Customers in request order, duplicates removed, and the keys that matched no customer
+     */
+    public CustomerLookupResultDto lookupCustomers(CustomerLookupDto lookup) {
+        List<Long> ids = distinct(lookup.getIds());
+        List<String> emails = distinct(lookup.getEmails());
+        Map<Long, CustomerDto> byId = ids.isEmpty() ? Map.of()
+                : customerRepository.findDtosByIdIn(ids).stream().collect(Collectors.toMap(CustomerDto::getId, Function.identity()));
+        Map<String, CustomerDto> byEmail = emails.isEmpty() ? Map.of()
+                : customerRepository.findDtosByEmailIn(emails).stream().collect(Collectors.toMap(CustomerDto::getEmail, Function.identity()));
+        
+        List<CustomerDto> customers = new ArrayList<>(ids.size() + emails.size());
+        List<Long> missingIds = new ArrayList<>();
+        List<String> missingEmails = new ArrayList<>();
+        for (Long id : ids) {
+            CustomerDto customer = byId.get(id);
+            if (customer == null) {
+                missingIds.add(id);
+            } else {
+                customers.add(customer);
+            }
+        }
+        for (String email : emails) {
+            CustomerDto customer = byEmail.get(email);
+            if (customer == null) {
+                missingEmails.add(email);
+            } else {
+                customers.add(customer);
+            }
+        }
+        return new CustomerLookupResultDto(customers, missingIds, missingEmails);
+    }
+    
+    /**
+     * Update customer details. The write fails with an optimistic locking exception if the
+     * customer changes between the read and the write.
      * @param id Customer ID
      * @param customerDto Updated customer details
+     * @param expectedVersion Version the client last read, or null to skip the check
      * @return Updated customer
+     * @throws PreconditionFailedException if the customer is no longer at the expected version
      */
-    public CustomerDto updateCustomer(Long id, CustomerDto customerDto) {
+    public CustomerDto updateCustomer(Long id, CustomerDto customerDto, Long expectedVersion) {
         Customer existingCustomer = customerRepository.findById(id)
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(existingCustomer.getVersion())) {
+            throw new PreconditionFailedException("Customer " + id + " has changed since version " + expectedVersion);
+        }
         
         // Check if email is being changed and if it already exists
         if (!existingCustomer.getEmail().equals(customerDto.getEmail()) &&
@@ -80,14 +223,18 @@ public class CustomerService {
             throw new DuplicateEmailException("Email already exists: " + customerDto.getEmail());
         }
         
+        String previousEmail = existingCustomer.getEmail();
         existingCustomer.setFirstName(customerDto.getFirstName());
         existingCustomer.setLastName(customerDto.getLastName());
         existingCustomer.setEmail(customerDto.getEmail());
         existingCustomer.setPhone(customerDto.getPhone());
         existingCustomer.setAddress(customerDto.getAddress());
         
-        Customer updatedCustomer = customerRepository.save(existingCustomer);
-        return convertToDto(updatedCustomer);
+        return transactionTemplate.execute(status -> {
+            Customer updatedCustomer = customerRepository.save(existingCustomer);
+            eventPublisher.publishEvent(new CustomerChangedEvent(id, previousEmail, updatedCustomer.getEmail()));
+            return convertToDto(updatedCustomer);
+        });
     }
     
     /**
@@ -95,10 +242,44 @@ public class CustomerService {
      * @param id Customer ID
      */
     public void deleteCustomer(Long id) {
-        if (!customerRepository.existsById(id)) {
-            throw new CustomerNotFoundException("Customer not found with id: " + id);
+        Customer customer = customerRepository.findById(id)
+                .orElseThrow(() -> new CustomerNotFoundException("Customer not found with id: " + id));
+        transactionTemplate.executeWithoutResult(status -> {
+            customerRepository.deleteById(id);
+            eventPublisher.publishEvent(new CustomerChangedEvent(id, customer.getEmail(), null));
+        });
+    }
+    
+    /**
+     * Encode the keyset position of a customer under a sort as an opaque cursor
+     */
+    private String encodeCursor(CustomerDto customer, CustomerSortField sortField, Sort.Direction direction) {
+        String position = sortField + "|" + direction + "|" + customer.getId() + "|" + sortField.getAccessor().apply(customer);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor into its customer ID and sort value parts, rejecting cursors issued for another sort
+     */
+    private String[] decodeCursor(String cursor, CustomerSortField sortField, Sort.Direction direction) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            Long.parseLong(parts[2]);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (!parts[0].equals(sortField.name()) || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort");
         }
-        customerRepository.deleteById(id);
+        return new String[]{parts[2], parts[3]};
+    }
+    
+    private static <T> List<T> distinct(List<T> keys) {
+        return keys == null ? List.of() : new ArrayList<>(new LinkedHashSet<>(keys));
     }
     
     /**
@@ -113,6 +294,7 @@ public class CustomerService {
         dto.setPhone(customer.getPhone());
         dto.setAddress(customer.getAddress());
         dto.setCreatedAt(customer.getCreatedAt().toString());
+        dto.setVersion(customer.getVersion());
         return dto;
     }
     
@@ -0,0 +1,11 @@
+CREATE TABLE customers (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    first_name VARCHAR(100) NOT NULL,
+    last_name  VARCHAR(100) NOT NULL,
+    email      VARCHAR(100) NOT NULL,
+    phone      VARCHAR(20)  NOT NULL,
+    address    VARCHAR(250) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE UNIQUE INDEX uk_customers_email ON customers (email);
@@ -0,0 +1,2 @@
+-- Version column for optimistic locking (see Customer.version)
+ALTER TABLE customers ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
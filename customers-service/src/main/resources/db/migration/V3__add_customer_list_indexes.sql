@@ -0,0 +1,3 @@
+-- Serve last-name filters and registration-time ranges, with the ID as keyset tie-breaker
+CREATE INDEX idx_customers_last_name_id ON customers (last_name, id);
+CREATE INDEX idx_customers_created_at_id ON customers (created_at, id);
@@ -0,0 +1,8 @@
+-- Customers changed by any instance, read by every instance to keep its search index in step
+CREATE TABLE customer_changes (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    customer_id BIGINT       NOT NULL,
+    changed_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_customer_changes_changed_at ON customer_changes (changed_at);
@@ -0,0 +1,94 @@
+package com.banking.customers.service;
+
+import com.banking.customers.dto.CustomerDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerSearchIndexTest {
+
+    private CustomerSearchIndex customerSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        customerSearchIndex = new CustomerSearchIndex();
+        customerSearchIndex.put(customer(1L, "Jordan", "Lee", "jordan.lee@bank.com", "+31690000000"));
+        customerSearchIndex.put(customer(2L, "Jordy", "Bakker", "j.bakker@bank.com", "+31 612 345 678"));
+        customerSearchIndex.put(customer(3L, "Zo\u00eb", "de Vries", "z.devries@example.com", "+44 20 7946 0000"));
+    }
+
+    @Test
+    void search_MatchesNamePrefixesInTokenOrder() {
+        assertEquals(List.of(1L, 2L), customerSearchIndex.search("jor", 10).getCustomerIds());
+        assertEquals(List.of(2L), customerSearchIndex.search("BAK", 10).getCustomerIds());
+    }
+
+    @Test
+    void search_RequiresEveryTerm() {
+        assertEquals(List.of(1L), customerSearchIndex.search("jor le", 10).getCustomerIds());
+        assertEquals(List.of(), customerSearchIndex.search("jordy lee", 10).getCustomerIds());
+    }
+
+    @Test
+    void search_IgnoresAccentsAndMatchesEmailWords() {
+        assertEquals(List.of(3L), customerSearchIndex.search("zoe", 10).getCustomerIds());
+        assertEquals(List.of(3L), customerSearchIndex.search("Vries", 10).getCustomerIds());
+        assertEquals(List.of(1L), customerSearchIndex.search("jordan.lee@bank", 10).getCustomerIds());
+    }
+
+    @Test
+    void search_MatchesPhoneDigitsWhateverTheFormatting() {
+        assertEquals(List.of(2L), customerSearchIndex.search("+31 612-34", 10).getCustomerIds());
+        assertEquals(List.of(2L, 1L), customerSearchIndex.search("316", 10).getCustomerIds());
+    }
+
+    @Test
+    void search_StopsAtLimit() {
+        assertEquals(List.of(1L), customerSearchIndex.search("jor", 1).getCustomerIds());
+    }
+
+    @Test
+    void put_ReplacesPreviousTokens() {
+        customerSearchIndex.put(customer(1L, "Jordan", "Visser", "jordan.visser@bank.com", "+31690000000"));
+
+        assertEquals(List.of(), customerSearchIndex.search("lee", 10).getCustomerIds());
+        assertEquals(List.of(1L), customerSearchIndex.search("viss", 10).getCustomerIds());
+        assertEquals(3, customerSearchIndex.size());
+    }
+
+    @Test
+    void remove_DropsCustomer() {
+        customerSearchIndex.remove(2L);
+
+        assertEquals(List.of(1L), customerSearchIndex.search("jor", 10).getCustomerIds());
+        assertEquals(List.of(), customerSearchIndex.search("bakker", 10).getCustomerIds());
+        assertEquals(2, customerSearchIndex.size());
+    }
+
+    @Test
+    void search_ReportsTruncationAtCandidateLimit() {
+        // Both terms are common prefixes, but no customer has both
+        for (long id = 10; id < 10 + CustomerSearchIndex.MAX_CANDIDATES + 1; id++) {
+            customerSearchIndex.put(customer(id, "Sam", "Smith", "sam" + id + "@bank.com", "+3170000" + id));
+        }
+        for (long id = 20_000; id < 20_000 + CustomerSearchIndex.MAX_CANDIDATES + 1; id++) {
+            customerSearchIndex.put(customer(id, "Alex", "Jansen", "alex" + id + "@bank.com", "+3171000" + id));
+        }
+
+        CustomerSearchMatches truncated = customerSearchIndex.search("smith jansen", 10);
+        CustomerSearchMatches complete = customerSearchIndex.search("jordan", 10);
+
+        assertTrue(truncated.isTruncated());
+        assertEquals(List.of(), truncated.getCustomerIds());
+        assertFalse(complete.isTruncated());
+        assertEquals(List.of(1L), complete.getCustomerIds());
+    }
+
+    private CustomerDto customer(Long id, String firstName, String lastName, String email, String phone) {
+        return new CustomerDto(id, firstName, lastName, email, phone, "10 Bank Avenue, Rotterdam", LocalDateTime.now(), 0L);
+    }
+}
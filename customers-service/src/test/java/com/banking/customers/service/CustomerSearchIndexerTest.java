@@ -0,0 +1,132 @@
+package com.banking.customers.service;
+
+import com.banking.customers.dto.CustomerDto;
+import com.banking.customers.entity.CustomerChange;
+import com.banking.customers.event.CustomerChangedEvent;
+import com.banking.customers.repository.CustomerChangeRepository;
+import com.banking.customers.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerSearchIndexerTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private CustomerChangeRepository customerChangeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerSearchIndex customerSearchIndex;
+    private CustomerSearchIndexer customerSearchIndexer;
+
+    @BeforeEach
+    void setUp() {
+        customerSearchIndex = new CustomerSearchIndex();
+        customerSearchIndexer = new CustomerSearchIndexer(customerRepository, customerChangeRepository, customerSearchIndex,
+                new TransactionTemplate(transactionManager), 2, Duration.ofSeconds(5), Duration.ofHours(1));
+    }
+
+    @Test
+    void rebuild_LoadsTableInBatches() {
+        when(customerRepository.findDtosAfterId(0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(customer(1L, "Jordan"), customer(4L, "Sam")));
+        when(customerRepository.findDtosAfterId(4L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(customer(7L, "Jordy")));
+
+        customerSearchIndexer.rebuild();
+
+        assertEquals(3, customerSearchIndex.size());
+        assertEquals(List.of(1L, 7L), customerSearchIndex.search("jord", 10).getCustomerIds());
+        verify(customerRepository, times(2)).findDtosAfterId(anyLong(), any());
+    }
+
+    @Test
+    void onCustomerChanged_IndexesCommittedStateAndDropsDeletedCustomers() {
+        when(customerRepository.findDtosByIdIn(List.of(1L))).thenReturn(List.of(customer(1L, "Jordan")));
+
+        customerSearchIndexer.onCustomerChanged(new CustomerChangedEvent(1L, null, "jordan@bank.com"));
+
+        assertEquals(List.of(1L), customerSearchIndex.search("jordan", 10).getCustomerIds());
+
+        when(customerRepository.findDtosByIdIn(List.of(1L))).thenReturn(List.of());
+
+        customerSearchIndexer.onCustomerChanged(new CustomerChangedEvent(1L, "jordan@bank.com", null));
+
+        assertEquals(0, customerSearchIndex.size());
+    }
+
+    @Test
+    void recordChange_SavesChangedCustomer() {
+        customerSearchIndexer.recordChange(new CustomerChangedEvent(1L, null, "jordan@bank.com"));
+
+        verify(customerChangeRepository).save(argThat((CustomerChange change) -> change.getCustomerId().equals(1L)));
+    }
+
+    @Test
+    void syncChanges_ReindexesCustomersChangedByOtherInstances() {
+        when(customerRepository.findDtosAfterId(0L, PageRequest.of(0, 2))).thenReturn(List.of(customer(1L, "Jordan")));
+        customerSearchIndexer.rebuild();
+        when(customerChangeRepository.findCustomerIdsChangedSince(any())).thenReturn(List.of(1L, 4L, 7L));
+        when(customerRepository.findDtosByIdIn(List.of(1L, 4L))).thenReturn(List.of(customer(4L, "Jordy")));
+        when(customerRepository.findDtosByIdIn(List.of(7L))).thenReturn(List.of(customer(7L, "Jorge")));
+
+        customerSearchIndexer.syncChanges();
+
+        assertEquals(List.of(4L, 7L), customerSearchIndex.search("jor", 10).getCustomerIds());
+    }
+
+    @Test
+    void syncChanges_ReadsBackByOverlapFromPreviousSync() {
+        when(customerRepository.findDtosAfterId(0L, PageRequest.of(0, 2))).thenReturn(List.of());
+        when(customerChangeRepository.findCustomerIdsChangedSince(any())).thenReturn(List.of());
+        LocalDateTime beforeRebuild = LocalDateTime.now();
+        customerSearchIndexer.rebuild();
+        LocalDateTime afterRebuild = LocalDateTime.now();
+
+        customerSearchIndexer.syncChanges();
+        customerSearchIndexer.syncChanges();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(customerChangeRepository, times(2)).findCustomerIdsChangedSince(since.capture());
+        LocalDateTime first = since.getAllValues().get(0);
+        assertFalse(first.isBefore(beforeRebuild.minusSeconds(5)));
+        assertFalse(first.isAfter(afterRebuild.minusSeconds(5)));
+        assertFalse(since.getAllValues().get(1).isBefore(first));
+    }
+
+    @Test
+    void purgeChanges_DeletesChangesOlderThanRetention() {
+        when(customerChangeRepository.deleteChangedBefore(any())).thenReturn(3);
+        LocalDateTime before = LocalDateTime.now();
+
+        customerSearchIndexer.purgeChanges();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(customerChangeRepository).deleteChangedBefore(cutoff.capture());
+        assertFalse(cutoff.getValue().isBefore(before.minusHours(1)));
+    }
+
+    private CustomerDto customer(Long id, String firstName) {
+        return new CustomerDto(id, firstName, "Lee", firstName.toLowerCase() + id + "@bank.com", "+3169000000" + id,
+                "10 Bank Avenue, Rotterdam", LocalDateTime.now(), 0L);
+    }
+}
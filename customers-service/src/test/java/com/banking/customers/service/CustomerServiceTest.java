@@ -1,16 +1,27 @@
 package com.banking.customers.service;
 
 import com.banking.customers.dto.CustomerDto;
+import com.banking.customers.dto.CustomerFilter;
+import com.banking.customers.dto.CustomerLookupDto;
+import com.banking.customers.dto.CustomerLookupResultDto;
+import com.banking.customers.dto.CustomerPageDto;
+import com.banking.customers.dto.CustomerSearchResultDto;
+import com.banking.customers.dto.CustomerSortField;
 import com.banking.customers.entity.Customer;
+import com.banking.customers.event.CustomerChangedEvent;
 import com.banking.customers.exception.CustomerNotFoundException;
 import com.banking.customers.exception.DuplicateEmailException;
 import com.banking.customers.repository.CustomerRepository;
+import com.banking.common.web.PreconditionFailedException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -27,7 +38,15 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
-    @InjectMocks
+    @Mock
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private CustomerService customerService;
 
     private CustomerDto customerDto;
@@ -35,6 +54,9 @@ class CustomerServiceTest {
 
     @BeforeEach
     void setUp() {
+        customerService = new CustomerService(customerRepository, customerSearchIndex,
+                new TransactionTemplate(transactionManager), eventPublisher);
+
         customerDto = new CustomerDto();
         customerDto.setFirstName("Jordan");
         customerDto.setLastName("Lee");
@@ -63,6 +85,7 @@ class CustomerServiceTest {
         assertEquals(customerDto.getEmail(), result.getEmail());
         assertEquals(customerDto.getFirstName(), result.getFirstName());
         verify(customerRepository).save(any(Customer.class));
+        verify(eventPublisher).publishEvent(new CustomerChangedEvent(1L, null, "jordan.lee@bank.com"));
     }
 
     @Test
@@ -72,6 +95,39 @@ class CustomerServiceTest {
         assertThrows(DuplicateEmailException.class, () -> customerService.createCustomer(customerDto));
     }
 
+    @Test
+    void searchCustomers_KeepsIndexOrderAndSkipsDeletedCustomers() {
+        CustomerDto first = new CustomerDto(1L, "Jordan", "Lee", "jordan.lee@bank.com", "+31690000000",
+                "10 Bank Avenue, Rotterdam", LocalDateTime.now(), 0L);
+        CustomerDto second = new CustomerDto(2L, "Jordy", "Bakker", "jordy.bakker@bank.com", "+31690000001",
+                "5 Harbour Street, Rotterdam", LocalDateTime.now(), 0L);
+        when(customerSearchIndex.search("jord", CustomerService.MAX_SEARCH_RESULTS))
+                .thenReturn(new CustomerSearchMatches(List.of(2L, 9L, 1L), false));
+        when(customerRepository.findDtosByIdIn(List.of(2L, 9L, 1L))).thenReturn(Arrays.asList(first, second));
+
+        CustomerSearchResultDto result = customerService.searchCustomers("jord", 1_000);
+
+        assertEquals(List.of(second, first), result.getCustomers());
+        assertFalse(result.isTruncated());
+    }
+
+    @Test
+    void searchCustomers_ReportsTruncatedSearch() {
+        when(customerSearchIndex.search("smith jansen", 20)).thenReturn(new CustomerSearchMatches(List.of(), true));
+
+        CustomerSearchResultDto result = customerService.searchCustomers("smith jansen", 20);
+
+        assertEquals(List.of(), result.getCustomers());
+        assertTrue(result.isTruncated());
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void searchCustomers_RejectsBlankQuery() {
+        assertThrows(IllegalArgumentException.class, () -> customerService.searchCustomers(" ", 20));
+        verifyNoInteractions(customerSearchIndex, customerRepository);
+    }
+
     @Test
     void getCustomerById_Success() {
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
@@ -90,27 +146,110 @@ class CustomerServiceTest {
     }
 
     @Test
-    void getAllCustomers_Success() {
-        when(customerRepository.findAll()).thenReturn(Arrays.asList(customer));
+    void getCustomerPage_CursorResumesAfterLastRow() {
+        CustomerFilter filter = new CustomerFilter(null, null, null);
+        LocalDateTime registered = LocalDateTime.of(2024, 1, 1, 9, 0);
+        CustomerDto first = new CustomerDto(1L, "Jordan", "Lee", "jordan.lee@bank.com", "+31690000000",
+                "10 Bank Avenue, Rotterdam", registered, 0L);
+        CustomerDto second = new CustomerDto(2L, "Sam", "de Vries", "sam.devries@bank.com", "+31690000001",
+                "5 Harbour Street, Rotterdam", registered, 0L);
+        when(customerRepository.search(filter, CustomerSortField.CREATED_AT, Sort.Direction.DESC, null, null, 0, 2))
+                .thenReturn(List.of(first, second));
 
-        List<CustomerDto> results = customerService.getAllCustomers();
+        CustomerPageDto page = customerService.getCustomerPage(filter, "createdAt,desc", 0, null, 1);
 
-        assertNotNull(results);
-        assertEquals(1, results.size());
+        assertEquals(List.of(first), page.getCustomers());
+        assertNotNull(page.getNextCursor());
+
+        when(customerRepository.search(filter, CustomerSortField.CREATED_AT, Sort.Direction.DESC, registered, 1L, 0, 2))
+                .thenReturn(List.of(second));
+
+        CustomerPageDto next = customerService.getCustomerPage(filter, "createdAt,desc", 0, page.getNextCursor(), 1);
+
+        assertEquals(List.of(second), next.getCustomers());
+        assertNull(next.getPage());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void getCustomerPage_CapsPageSize() {
+        CustomerFilter filter = new CustomerFilter("Lee", null, null);
+        when(customerRepository.search(filter, CustomerSortField.ID, Sort.Direction.ASC, null, null, 0, CustomerService.MAX_PAGE_SIZE + 1))
+                .thenReturn(Arrays.asList(customerDto));
+
+        CustomerPageDto page = customerService.getCustomerPage(filter, "id", 0, null, 10_000);
+
+        assertEquals(1, page.getCustomers().size());
+        assertEquals(CustomerService.MAX_PAGE_SIZE, page.getSize());
+    }
+
+    @Test
+    void getCustomerPage_RejectsInvalidRequests() {
+        CustomerFilter filter = new CustomerFilter(null, null, null);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(IllegalArgumentException.class, () -> customerService.getCustomerPage(filter, "phone", 0, null, 50));
+        assertThrows(IllegalArgumentException.class, () -> customerService.getCustomerPage(filter, "id,sideways", 0, null, 50));
+        assertThrows(IllegalArgumentException.class, () -> customerService.getCustomerPage(filter, "id", -1, null, 50));
+        assertThrows(IllegalArgumentException.class,
+                () -> customerService.getCustomerPage(new CustomerFilter(null, now, now), "id", 0, null, 50));
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void lookupCustomers_ReturnsRequestOrderAndFlagsMissing() {
+        CustomerDto first = new CustomerDto(1L, "Jordan", "Lee", "jordan.lee@bank.com", "+31690000000",
+                "10 Bank Avenue, Rotterdam", LocalDateTime.now(), 0L);
+        CustomerDto second = new CustomerDto(2L, "Sam", "de Vries", "sam.devries@bank.com", "+31690000001",
+                "5 Harbour Street, Rotterdam", LocalDateTime.now(), 0L);
+        when(customerRepository.findDtosByIdIn(List.of(2L, 9L, 1L))).thenReturn(Arrays.asList(first, second));
+        when(customerRepository.findDtosByEmailIn(List.of("nobody@bank.com"))).thenReturn(List.of());
+
+        CustomerLookupResultDto result = customerService.lookupCustomers(
+                new CustomerLookupDto(List.of(2L, 9L, 1L, 2L), List.of("nobody@bank.com")));
+
+        assertEquals(List.of(2L, 1L), result.getCustomers().stream().map(CustomerDto::getId).toList());
+        assertEquals(List.of(9L), result.getMissingIds());
+        assertEquals(List.of("nobody@bank.com"), result.getMissingEmails());
+        verify(customerRepository, never()).findById(anyLong());
+        verify(customerRepository, never()).findAllById(anyIterable());
     }
 
     @Test
     void deleteCustomer_Success() {
-        when(customerRepository.existsById(1L)).thenReturn(true);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
         doNothing().when(customerRepository).deleteById(1L);
 
         assertDoesNotThrow(() -> customerService.deleteCustomer(1L));
         verify(customerRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(new CustomerChangedEvent(1L, "jordan.lee@bank.com", null));
+    }
+
+    @Test
+    void updateCustomer_PublishesPreviousAndCurrentEmail() {
+        customerDto.setEmail("jordan.lee@example.com");
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(customerRepository.existsByEmail("jordan.lee@example.com")).thenReturn(false);
+        when(customerRepository.save(any(Customer.class))).thenReturn(customer);
+
+        customerService.updateCustomer(1L, customerDto, null);
+
+        verify(eventPublisher).publishEvent(new CustomerChangedEvent(1L, "jordan.lee@bank.com", "jordan.lee@example.com"));
+    }
+
+    @Test
+    void updateCustomer_StaleVersionFailsPrecondition() {
+        customer.setVersion(3L);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+
+        assertThrows(PreconditionFailedException.class, () -> customerService.updateCustomer(1L, customerDto, 2L));
+        verify(customerRepository, never()).save(any(Customer.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void deleteCustomer_NotFound() {
-        when(customerRepository.existsById(1L)).thenReturn(false);
+        when(customerRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(CustomerNotFoundException.class, () -> customerService.deleteCustomer(1L));
     }
@@ -0,0 +1,85 @@
+package com.banking.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the customers and accounts the workload reads and posts to, through the gateway.
+ * Seeding is sequential and backs off on 429/503, so it also works with admission control on.
+ */
+public class DataSeeder {
+    
+    private static final int MAX_ATTEMPTS = 20;
+    
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String target;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    
+    private final List<Long> customerIds = new ArrayList<>();
+    private final List<Long> accountIds = new ArrayList<>();
+    
+    public DataSeeder(HttpClient httpClient, ObjectMapper objectMapper, String target) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.target = target;
+    }
+    
+    public void seed(int customers) throws IOException, InterruptedException {
+        for (int i = 0; i < customers; i++) {
+            JsonNode customer = post("/api/customers", Map.of(
+                    "firstName", "Load",
+                    "lastName", "Test" + i,
+                    "email", "load-" + runId + "-" + i + "@example.com",
+                    "phone", "+1555" + String.format("%07d", i),
+                    "address", i + " Benchmark Street"));
+            long customerId = customer.path("id").asLong();
+            customerIds.add(customerId);
+            
+            JsonNode account = post("/api/accounts", Map.of(
+                    "accountNumber", ("L" + runId + i).toUpperCase(),
+                    "customerId", customerId,
+                    "type", "Checking",
+                    "balance", "1000000.00"));
+            accountIds.add(account.path("id").asLong());
+        }
+    }
+    
+    public List<Long> getCustomerIds() {
+        return customerIds;
+    }
+    
+    public List<Long> getAccountIds() {
+        return accountIds;
+    }
+    
+    private JsonNode post(String path, Map<String, Object> body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target + path))
+                .header("Content-Type", "application/json")
+                .header("X-API-Key", Workload.SEEDER_API_KEY)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 201) {
+                return objectMapper.readTree(response.body());
+            }
+            boolean retryable = response.statusCode() == 429 || response.statusCode() == 503;
+            if (!retryable || attempt == MAX_ATTEMPTS) {
+                throw new IllegalStateException("Seeding " + path + " failed with " + response.statusCode() + ": " + response.body());
+            }
+            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+            Thread.sleep(Duration.ofSeconds(Math.max(retryAfter, 1)).toMillis());
+        }
+    }
+}
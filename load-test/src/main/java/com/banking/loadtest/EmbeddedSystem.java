@@ -0,0 +1,109 @@
+package com.banking.loadtest;
+
+import com.banking.accounts.AccountsServiceApplication;
+import com.banking.common.threads.VirtualThreadsEnvironmentPostProcessor;
+import com.banking.customers.CustomersServiceApplication;
+import com.banking.eureka.EurekaServerApplication;
+import com.banking.gateway.ApiGatewayApplication;
+import com.banking.transactions.TransactionsServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs eureka-server, the data services and api-gateway in this JVM, each in its own
+ * application context on its usual port. All modules share one classpath, so every
+ * context is pointed at its own module's application.properties explicitly.
+ * The data services run on the given threads, optionally against a slowed-down database.
+ */
+public class EmbeddedSystem implements AutoCloseable {
+    
+    private final Path repoDir;
+    private final int clients;
+    private final ThreadMode threadMode;
+    private final Duration dbLatency;
+    private final Deque<ConfigurableApplicationContext> contexts = new ArrayDeque<>();
+    
+    public EmbeddedSystem(Path repoDir, int clients, ThreadMode threadMode, Duration dbLatency) {
+        this.repoDir = repoDir;
+        this.clients = clients;
+        this.threadMode = threadMode;
+        this.dbLatency = dbLatency;
+    }
+    
+    public void start() {
+        start("eureka-server", EurekaServerApplication.class, WebApplicationType.SERVLET, Map.of());
+        startDataService("accounts-service", AccountsServiceApplication.class);
+        startDataService("customers-service", CustomersServiceApplication.class);
+        startDataService("transactions-service", TransactionsServiceApplication.class);
+        start("api-gateway", ApiGatewayApplication.class, WebApplicationType.REACTIVE, Map.of(
+                "spring.cloud.gateway.enabled", "true",
+                // Register the workload's keys so each client is rate-limited on its own rather than by address
+                "gateway.admission.api-keys", String.join(",", Workload.apiKeyEntries(clients))));
+    }
+    
+    private void startDataService(String module, Class<?> application) {
+        SpringApplicationBuilder builder = builder(module, application, WebApplicationType.SERVLET, Map.of());
+        if (threadMode == ThreadMode.VIRTUAL) {
+            builder.profiles(VirtualThreadsEnvironmentPostProcessor.PROFILE);
+        }
+        if (!dbLatency.isZero()) {
+            builder.initializers(context -> ((GenericApplicationContext) context)
+                    .registerBean(SlowDatabase.class, () -> new SlowDatabase(dbLatency)));
+        }
+        run(module, builder);
+    }
+    
+    private void start(String module, Class<?> application, WebApplicationType webApplicationType,
+                       Map<String, Object> overrides) {
+        run(module, builder(module, application, webApplicationType, overrides));
+    }
+    
+    private SpringApplicationBuilder builder(String module, Class<?> application, WebApplicationType webApplicationType,
+                                             Map<String, Object> overrides) {
+        Path config = repoDir.resolve(module).resolve("src/main/resources/application.properties");
+        if (!Files.isRegularFile(config)) {
+            throw new IllegalStateException("Cannot find " + config + ", set --repo-dir to the repository root");
+        }
+        
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.config.location", "file:" + config.toAbsolutePath());
+        // Gateway auto-configuration is on the shared classpath but only belongs in the gateway context
+        properties.put("spring.cloud.gateway.enabled", "false");
+        // Discover new instances within seconds rather than the 30s default
+        properties.put("eureka.client.registry-fetch-interval-seconds", "5");
+        properties.putAll(overrides);
+        
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(application)
+                .web(webApplicationType)
+                .properties(properties);
+        if (webApplicationType == WebApplicationType.REACTIVE) {
+            // Tomcat is on the classpath for the servlet services, but the gateway needs Netty
+            builder.initializers(context -> ((GenericApplicationContext) context)
+                    .registerBean(NettyReactiveWebServerFactory.class, NettyReactiveWebServerFactory::new));
+        }
+        return builder;
+    }
+    
+    private void run(String module, SpringApplicationBuilder builder) {
+        System.out.println("Starting " + module);
+        contexts.push(builder.run());
+    }
+    
+    @Override
+    public void close() {
+        while (!contexts.isEmpty()) {
+            contexts.pop().close();
+        }
+    }
+}
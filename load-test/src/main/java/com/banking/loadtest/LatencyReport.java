@@ -0,0 +1,153 @@
+package com.banking.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prints per-route latency percentiles and throughput, and writes them to the output
+ * directory as summary.csv plus one HdrHistogram percentile distribution (.hgrm) per route.
+ * Reports of runs on platform and virtual threads can be compared side by side.
+ */
+public class LatencyReport {
+    
+    private static final String HEADER = "route,requests,succeeded,rejected,failed,dropped,throughput_rps,"
+            + "p50_ms,p90_ms,p99_ms,p99_9_ms,max_ms";
+    private static final String COMPARISON_HEADER = "route,threads,requests,rejected,failed,dropped,throughput_rps,"
+            + "p50_ms,p99_ms,p99_9_ms";
+    
+    private final Map<Route, RouteStats> stats;
+    private final Duration duration;
+    
+    public LatencyReport(Map<Route, RouteStats> stats, Duration duration) {
+        this.stats = stats;
+        this.duration = duration;
+    }
+    
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%-18s %9s %9s %9s %9s %10s %9s %9s %9s %9s %9s%n",
+                "route", "requests", "rejected", "failed", "dropped", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (RouteStats routeStats : stats.values()) {
+            if (routeStats.getRequests() == 0 && routeStats.getDropped().sum() == 0) {
+                continue;
+            }
+            Histogram latencies = routeStats.getLatencies();
+            out.printf(Locale.ROOT, "%-18s %9d %9d %9d %9d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    routeStats.getRoute().getName(),
+                    routeStats.getRequests(),
+                    routeStats.getRejected().sum(),
+                    routeStats.getFailed().sum(),
+                    routeStats.getDropped().sum(),
+                    throughput(routeStats),
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(90)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()));
+        }
+    }
+    
+    public void write(Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(outputDir.resolve("summary.csv"), StandardCharsets.UTF_8))) {
+            csv.println(HEADER);
+            for (RouteStats routeStats : stats.values()) {
+                Histogram latencies = routeStats.getLatencies();
+                csv.printf(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        routeStats.getRoute().getName(),
+                        routeStats.getRequests(),
+                        routeStats.getSucceeded().sum(),
+                        routeStats.getRejected().sum(),
+                        routeStats.getFailed().sum(),
+                        routeStats.getDropped().sum(),
+                        throughput(routeStats),
+                        millis(latencies.getValueAtPercentile(50)),
+                        millis(latencies.getValueAtPercentile(90)),
+                        millis(latencies.getValueAtPercentile(99)),
+                        millis(latencies.getValueAtPercentile(99.9)),
+                        millis(latencies.getMaxValue()));
+            }
+        }
+        for (RouteStats routeStats : stats.values()) {
+            Path file = outputDir.resolve(routeStats.getRoute().getName() + ".hgrm");
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                // Recorded in microseconds, reported in milliseconds
+                routeStats.getLatencies().outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+    }
+    
+    /**
+     * Print each route's results once per thread mode, one row under the other
+     */
+    public static void printComparison(Map<ThreadMode, LatencyReport> reports, PrintStream out) {
+        out.printf(Locale.ROOT, "%-18s %-9s %9s %9s %9s %9s %10s %9s %9s %9s%n",
+                "route", "threads", "requests", "rejected", "failed", "dropped", "rps", "p50 ms", "p99 ms", "p99.9 ms");
+        for (Route route : Route.values()) {
+            reports.forEach((threadMode, report) -> {
+                RouteStats routeStats = report.stats.get(route);
+                if (routeStats == null || (routeStats.getRequests() == 0 && routeStats.getDropped().sum() == 0)) {
+                    return;
+                }
+                Histogram latencies = routeStats.getLatencies();
+                out.printf(Locale.ROOT, "%-18s %-9s %9d %9d %9d %9d %10.1f %9.2f %9.2f %9.2f%n",
+                        route.getName(),
+                        threadMode.getName(),
+                        routeStats.getRequests(),
+                        routeStats.getRejected().sum(),
+                        routeStats.getFailed().sum(),
+                        routeStats.getDropped().sum(),
+                        report.throughput(routeStats),
+                        millis(latencies.getValueAtPercentile(50)),
+                        millis(latencies.getValueAtPercentile(99)),
+                        millis(latencies.getValueAtPercentile(99.9)));
+            });
+        }
+    }
+    
+    /**
+     * Write the rows of {@link #printComparison} to comparison.csv in the output directory
+     */
+    public static void writeComparison(Map<ThreadMode, LatencyReport> reports, Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(outputDir.resolve("comparison.csv"), StandardCharsets.UTF_8))) {
+            csv.println(COMPARISON_HEADER);
+            for (Route route : Route.values()) {
+                reports.forEach((threadMode, report) -> {
+                    RouteStats routeStats = report.stats.get(route);
+                    if (routeStats == null) {
+                        return;
+                    }
+                    Histogram latencies = routeStats.getLatencies();
+                    csv.printf(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%.2f,%.3f,%.3f,%.3f%n",
+                            route.getName(),
+                            threadMode.getName(),
+                            routeStats.getRequests(),
+                            routeStats.getRejected().sum(),
+                            routeStats.getFailed().sum(),
+                            routeStats.getDropped().sum(),
+                            report.throughput(routeStats),
+                            millis(latencies.getValueAtPercentile(50)),
+                            millis(latencies.getValueAtPercentile(99)),
+                            millis(latencies.getValueAtPercentile(99.9)));
+                });
+            }
+        }
+    }
+    
+    private double throughput(RouteStats routeStats) {
+        return routeStats.getSucceeded().sum() / (duration.toNanos() / 1e9);
+    }
+    
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
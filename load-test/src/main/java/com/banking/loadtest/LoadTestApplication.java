@@ -0,0 +1,77 @@
+package com.banking.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Drives an open-model workload of account reads, customer reads and transaction posts
+ * through the gateway and reports HdrHistogram latency percentiles per route.
+ * See README for the options.
+ */
+public class LoadTestApplication {
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        try {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(executor)
+                    .build();
+            if (!options.isEmbedded()) {
+                run(httpClient, options, options.getOutputDir());
+                return;
+            }
+            
+            Map<ThreadMode, LatencyReport> reports = new EnumMap<>(ThreadMode.class);
+            for (ThreadMode threadMode : options.getThreadModes()) {
+                // Compared runs each get a directory of their own
+                Path outputDir = options.getThreadModes().size() > 1
+                        ? options.getOutputDir().resolve(threadMode.getName())
+                        : options.getOutputDir();
+                try (EmbeddedSystem embeddedSystem = new EmbeddedSystem(options.getRepoDir(), options.getClients(),
+                        threadMode, options.getDbLatency())) {
+                    embeddedSystem.start();
+                    System.out.printf("Data services on %s threads, database latency %s%n",
+                            threadMode.getName(), options.getDbLatency());
+                    reports.put(threadMode, run(httpClient, options, outputDir));
+                }
+            }
+            if (reports.size() > 1) {
+                LatencyReport.printComparison(reports, System.out);
+                LatencyReport.writeComparison(reports, options.getOutputDir());
+                System.out.println("Comparison written to " + options.getOutputDir().toAbsolutePath());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Seed data, drive the workload against the target and report the results
+     */
+    private static LatencyReport run(HttpClient httpClient, LoadTestOptions options, Path outputDir) throws Exception {
+        DataSeeder seeder = new DataSeeder(httpClient, new ObjectMapper(), options.getTarget());
+        System.out.printf("Seeding %d customers and accounts through %s%n", options.getCustomers(), options.getTarget());
+        seeder.seed(options.getCustomers());
+        
+        Workload workload = new Workload(options, seeder.getCustomerIds(), seeder.getAccountIds());
+        System.out.printf("Offering %.0f req/s for %s after %s warmup, mix %s%n",
+                options.getRate(), options.getDuration(), options.getWarmup(), options.getMix());
+        Map<Route, RouteStats> stats = new OpenModelDriver(httpClient, workload, options).run();
+        
+        LatencyReport report = new LatencyReport(stats, options.getDuration());
+        report.print(System.out);
+        report.write(outputDir);
+        System.out.println("Results written to " + outputDir.toAbsolutePath());
+        return report;
+    }
+}
@@ -0,0 +1,123 @@
+package com.banking.loadtest;
+
+import lombok.Data;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings, parsed from --name=value arguments
+ */
+@Data
+public class LoadTestOptions {
+    
+    /** Gateway base URL */
+    private String target = "http://localhost:8080";
+    /** Start eureka-server, api-gateway and the data services in this JVM instead of using running ones */
+    private boolean embedded;
+    /** Repository root, used to locate each service's application.properties in embedded mode */
+    private Path repoDir = defaultRepoDir();
+    /** Threads of the embedded data services; with both, the system is run once per mode and the results compared */
+    private List<ThreadMode> threadModes = List.of(ThreadMode.PLATFORM);
+    /** Delay added to every statement of the embedded data services, to reproduce a slow database */
+    private Duration dbLatency = Duration.ZERO;
+    /** Requests per second, issued on schedule regardless of how fast responses come back */
+    private double rate = 200;
+    /** Exponential inter-arrival times instead of a fixed interval */
+    private boolean poisson;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(60);
+    /** Distinct X-API-Key values the requests are spread over, each rate-limited separately by the gateway */
+    private int clients = 50;
+    /** Customers, each with one account, created before the run */
+    private int customers = 100;
+    /** Requests outstanding at once; arrivals beyond it are counted as dropped */
+    private int maxInFlight = 10_000;
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private Path outputDir = Path.of("load-test-results");
+    private Map<Route, Integer> mix = new EnumMap<>(Map.of(
+            Route.ACCOUNT_READ, 50,
+            Route.CUSTOMER_READ, 30,
+            Route.TRANSACTION_POST, 20));
+    
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            String value = separator < 0 ? "true" : arg.substring(separator + 1);
+            switch (name) {
+                case "target" -> options.target = value;
+                case "embedded" -> options.embedded = Boolean.parseBoolean(value);
+                case "repo-dir" -> options.repoDir = Path.of(value);
+                case "threads" -> options.threadModes = "both".equals(value)
+                        ? List.of(ThreadMode.PLATFORM, ThreadMode.VIRTUAL)
+                        : List.of(ThreadMode.fromName(value));
+                case "db-latency" -> options.dbLatency = DurationStyle.detectAndParse(value);
+                case "rate" -> options.rate = Double.parseDouble(value);
+                case "poisson" -> options.poisson = Boolean.parseBoolean(value);
+                case "warmup" -> options.warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> options.duration = DurationStyle.detectAndParse(value);
+                case "clients" -> options.clients = Integer.parseInt(value);
+                case "customers" -> options.customers = Integer.parseInt(value);
+                case "max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                case "request-timeout" -> options.requestTimeout = DurationStyle.detectAndParse(value);
+                case "output-dir" -> options.outputDir = Path.of(value);
+                case "mix" -> options.mix = parseMix(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        if (options.rate <= 0 || options.clients < 1 || options.customers < 1 || options.maxInFlight < 1) {
+            throw new IllegalArgumentException("rate, clients, customers and max-in-flight must be positive");
+        }
+        if (!options.embedded && (!options.threadModes.equals(List.of(ThreadMode.PLATFORM)) || !options.dbLatency.isZero())) {
+            throw new IllegalArgumentException("--threads and --db-latency only apply to the --embedded system");
+        }
+        if (options.threadModes.contains(ThreadMode.VIRTUAL) && Runtime.version().feature() < 21) {
+            throw new IllegalArgumentException("Virtual threads need Java 21: build with -Pjava21 and run on a Java 21 JVM");
+        }
+        return options;
+    }
+    
+    /**
+     * Parse a weighted route mix such as account-read=50,customer-read=30,transaction-post=20
+     */
+    private static Map<Route, Integer> parseMix(String value) {
+        Map<Route, Integer> mix = new EnumMap<>(Route.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights cannot be negative: " + entry);
+            }
+            mix.put(Route.fromName(parts[0].trim()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix must give at least one route a positive weight");
+        }
+        return mix;
+    }
+    
+    /**
+     * The repository root when run from the root or from the load-test module directory
+     */
+    private static Path defaultRepoDir() {
+        Path current = Path.of("").toAbsolutePath();
+        if (!Files.isDirectory(current.resolve("accounts-service")) && current.getParent() != null
+                && Files.isDirectory(current.getParent().resolve("accounts-service"))) {
+            return current.getParent();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,86 @@
+package com.banking.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Issues requests at a fixed arrival rate, independent of response times (an open
+ * workload model). A slow system therefore builds up in-flight requests instead of
+ * quietly lowering the offered load, and the recorded latencies show it.
+ */
+public class OpenModelDriver {
+    
+    private final HttpClient httpClient;
+    private final Workload workload;
+    private final LoadTestOptions options;
+    private final Map<Route, RouteStats> stats = new EnumMap<>(Route.class);
+    private final Semaphore inFlight;
+    
+    public OpenModelDriver(HttpClient httpClient, Workload workload, LoadTestOptions options) {
+        this.httpClient = httpClient;
+        this.workload = workload;
+        this.options = options;
+        this.inFlight = new Semaphore(options.getMaxInFlight());
+        for (Route route : Route.values()) {
+            stats.put(route, new RouteStats(route));
+        }
+    }
+    
+    /**
+     * Run the warmup and measurement phases
+     * @return Stats of the measurement phase, per route
+     */
+    public Map<Route, RouteStats> run() throws InterruptedException {
+        double intervalNanos = 1_000_000_000d / options.getRate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.getWarmup().toNanos();
+        long end = measureFrom + options.getDuration().toNanos();
+        
+        double next = start;
+        while (next < end) {
+            long scheduled = (long) next;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Behind schedule, send right away; the latency still counts from the scheduled time
+            send(scheduled, scheduled >= measureFrom);
+            next += options.isPoisson()
+                    ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * intervalNanos
+                    : intervalNanos;
+        }
+        
+        // Let the last requests finish or time out
+        inFlight.acquire(options.getMaxInFlight());
+        return stats;
+    }
+    
+    private void send(long scheduled, boolean measured) {
+        Route route = workload.nextRoute();
+        RouteStats routeStats = stats.get(route);
+        if (!inFlight.tryAcquire()) {
+            if (measured) {
+                routeStats.recordDropped();
+            }
+            return;
+        }
+        httpClient.sendAsync(workload.request(route), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - scheduled;
+                    inFlight.release();
+                    if (!measured) {
+                        return;
+                    }
+                    if (error != null) {
+                        routeStats.recordFailure(latency);
+                    } else {
+                        routeStats.recordResponse(response.statusCode(), latency);
+                    }
+                });
+    }
+}
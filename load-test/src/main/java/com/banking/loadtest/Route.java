@@ -0,0 +1,28 @@
+package com.banking.loadtest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Gateway routes driven by the load test
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Route {
+    
+    ACCOUNT_READ("account-read", "GET /api/accounts/{id}"),
+    CUSTOMER_READ("customer-read", "GET /api/customers/{id}"),
+    TRANSACTION_POST("transaction-post", "POST /api/transactions");
+    
+    private final String name;
+    private final String description;
+    
+    public static Route fromName(String name) {
+        for (Route route : values()) {
+            if (route.name.equals(name)) {
+                return route;
+            }
+        }
+        throw new IllegalArgumentException("Unknown route: " + name);
+    }
+}
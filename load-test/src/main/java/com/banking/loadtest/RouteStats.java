@@ -0,0 +1,54 @@
+package com.banking.loadtest;
+
+import lombok.Getter;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counts of one route. Latencies are measured from the
+ * scheduled start of each request, so time spent queued behind a slow system is included.
+ */
+@Getter
+public class RouteStats {
+    
+    private final Route route;
+    /** Microseconds, resized as needed */
+    private final Histogram latencies = new ConcurrentHistogram(3);
+    private final LongAdder succeeded = new LongAdder();
+    /** 429 and 503 answers from gateway admission control */
+    private final LongAdder rejected = new LongAdder();
+    /** Other non-2xx statuses, timeouts and connection errors */
+    private final LongAdder failed = new LongAdder();
+    /** Arrivals not sent because max-in-flight was reached */
+    private final LongAdder dropped = new LongAdder();
+    
+    public RouteStats(Route route) {
+        this.route = route;
+    }
+    
+    public void recordResponse(int statusCode, long latencyNanos) {
+        latencies.recordValue(Math.max(1, latencyNanos / 1_000));
+        if (statusCode >= 200 && statusCode < 300) {
+            succeeded.increment();
+        } else if (statusCode == 429 || statusCode == 503) {
+            rejected.increment();
+        } else {
+            failed.increment();
+        }
+    }
+    
+    public void recordFailure(long latencyNanos) {
+        latencies.recordValue(Math.max(1, latencyNanos / 1_000));
+        failed.increment();
+    }
+    
+    public void recordDropped() {
+        dropped.increment();
+    }
+    
+    public long getRequests() {
+        return succeeded.sum() + rejected.sum() + failed.sum();
+    }
+}
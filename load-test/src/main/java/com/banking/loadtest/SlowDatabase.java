@@ -0,0 +1,62 @@
+package com.banking.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Delays every statement a data service executes, so the embedded system behaves as if its
+ * database were slow: request threads spend their time waiting on JDBC rather than on CPU.
+ */
+public class SlowDatabase implements BeanPostProcessor {
+    
+    private static final Set<Class<?>> PROXIED_TYPES =
+            Set.of(Connection.class, Statement.class, PreparedStatement.class, CallableStatement.class);
+    
+    private final long latencyMillis;
+    
+    public SlowDatabase(Duration latency) {
+        this.latencyMillis = latency.toMillis();
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        // Keep close() reachable, so the pool is still shut down with the context
+        return bean instanceof Closeable
+                ? proxy(bean, DataSource.class, Closeable.class)
+                : proxy(bean, DataSource.class);
+    }
+    
+    private Object proxy(Object target, Class<?>... types) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), types,
+                (proxy, method, args) -> invoke(target, method, args));
+    }
+    
+    private Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        if (target instanceof Statement && method.getName().startsWith("execute")) {
+            Thread.sleep(latencyMillis);
+        }
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+        return result != null && PROXIED_TYPES.contains(method.getReturnType())
+                ? proxy(result, method.getReturnType())
+                : result;
+    }
+}
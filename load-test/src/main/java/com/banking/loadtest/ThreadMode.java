@@ -0,0 +1,26 @@
+package com.banking.loadtest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Threads the embedded data services handle requests on
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ThreadMode {
+    
+    PLATFORM("platform"),
+    VIRTUAL("virtual");
+    
+    private final String name;
+    
+    public static ThreadMode fromName(String name) {
+        for (ThreadMode mode : values()) {
+            if (mode.name.equals(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown thread mode: " + name);
+    }
+}
@@ -0,0 +1,101 @@
+package com.banking.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the route of each arrival by weight and builds its request against the seeded data
+ */
+public class Workload {
+    
+    /** Key the seeder uses, registered with the gateway alongside the client keys when embedded */
+    public static final String SEEDER_API_KEY = apiKey("seeder");
+    
+    private final String target;
+    private final Duration requestTimeout;
+    private final List<Long> customerIds;
+    private final List<Long> accountIds;
+    private final int clients;
+    private final Route[] routes;
+    private final int[] cumulativeWeights;
+    
+    public Workload(LoadTestOptions options, List<Long> customerIds, List<Long> accountIds) {
+        this.target = options.getTarget();
+        this.requestTimeout = options.getRequestTimeout();
+        this.customerIds = customerIds;
+        this.accountIds = accountIds;
+        this.clients = options.getClients();
+        
+        Map<Route, Integer> mix = options.getMix();
+        routes = mix.keySet().toArray(new Route[0]);
+        cumulativeWeights = new int[routes.length];
+        int total = 0;
+        for (int i = 0; i < routes.length; i++) {
+            total += mix.get(routes[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+    
+    public Route nextRoute() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < routes.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return routes[i];
+            }
+        }
+        throw new IllegalStateException("Route weights are inconsistent");
+    }
+    
+    public HttpRequest request(Route route) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .timeout(requestTimeout)
+                .header("X-API-Key", apiKey(String.valueOf(random.nextInt(clients))));
+        return switch (route) {
+            case ACCOUNT_READ -> builder
+                    .uri(URI.create(target + "/api/accounts/" + pick(accountIds, random)))
+                    .GET()
+                    .build();
+            case CUSTOMER_READ -> builder
+                    .uri(URI.create(target + "/api/customers/" + pick(customerIds, random)))
+                    .GET()
+                    .build();
+            case TRANSACTION_POST -> {
+                boolean deposit = random.nextInt(4) != 0;
+                String body = "{\"accountId\":" + pick(accountIds, random)
+                        + ",\"type\":\"" + (deposit ? "Deposit" : "Withdrawal") + "\""
+                        + ",\"amount\":" + (deposit ? "25.00" : "10.00") + "}";
+                yield builder
+                        .uri(URI.create(target + "/api/transactions"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+        };
+    }
+    
+    private static Long pick(List<Long> ids, ThreadLocalRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+    
+    /**
+     * Gateway API key entries (client=key) for the seeder and each of the given number of clients
+     */
+    public static List<String> apiKeyEntries(int clients) {
+        List<String> entries = new ArrayList<>();
+        entries.add("load-test-seeder=" + SEEDER_API_KEY);
+        for (int i = 0; i < clients; i++) {
+            entries.add("load-test-" + i + "=" + apiKey(String.valueOf(i)));
+        }
+        return entries;
+    }
+    
+    private static String apiKey(String client) {
+        return "load-test-key-" + client;
+    }
+}
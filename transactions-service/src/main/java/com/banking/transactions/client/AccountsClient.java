@@ -0,0 +1,109 @@
+package com.banking.transactions.client;
+
+import com.banking.transactions.dto.AccountBalanceDto;
+import com.banking.transactions.dto.BalancePostingDto;
+import com.banking.transactions.dto.TransferBalancesDto;
+import com.banking.transactions.dto.TransferPostingDto;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.exception.AccountNotFoundException;
+import com.banking.transactions.exception.AccountsServiceUnavailableException;
+import com.banking.transactions.exception.PostingRejectedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Client for the balance lookup and posting APIs of accounts-service, resolved through Eureka
+ */
+@Component
+public class AccountsClient {
+    
+    private final RestClient restClient;
+    
+    public AccountsClient(RestClient.Builder restClientBuilder,
+                          @Value("${accounts-service.url:http://accounts-service}") String accountsServiceUrl) {
+        this.restClient = restClientBuilder.baseUrl(accountsServiceUrl).build();
+    }
+    
+    /**
+     * Apply a transaction to an account balance. Sending the same reference again does not
+     * change the balance a second time, so a posting whose outcome is unknown can be retried.
+     * @param accountId Account ID
+     * @param type Transaction type
+     * @param amount Transaction amount
+     * @param reference Unique ID of the posting
+     * @return Account balance after the posting
+     * @throws PostingRejectedException if accounts-service refuses the posting with a 4xx response,
+     *         e.g. because the account does not exist or has insufficient funds; sending it again
+     *         would be refused again
+     * @throws AccountsServiceUnavailableException if accounts-service answers 5xx or cannot be
+     *         reached, so the outcome is unknown and the posting may be retried
+     */
+    public AccountBalanceDto post(Long accountId, TransactionType type, BigDecimal amount, String reference) {
+        try {
+            return restClient.post()
+                    .uri("/api/accounts/{id}/postings", accountId)
+                    .body(new BalancePostingDto(type, amount, reference))
+                    .retrieve()
+                    .body(AccountBalanceDto.class);
+        } catch (HttpClientErrorException ex) {
+            throw new PostingRejectedException("Posting rejected for account " + accountId + ": " + ex.getStatusText());
+        } catch (RestClientException ex) {
+            throw new AccountsServiceUnavailableException("Accounts service unavailable", ex);
+        }
+    }
+    
+    /**
+     * Move money between two accounts in one posting. Sending the same reference again does
+     * not move it a second time, so a transfer whose outcome is unknown can be retried.
+     * @param sourceAccountId Account debited
+     * @param destinationAccountId Account credited
+     * @param amount Transfer amount
+     * @param reference Unique ID of the transfer
+     * @return Balances of both accounts after the transfer
+     * @throws PostingRejectedException if accounts-service refuses the transfer with a 4xx response,
+     *         e.g. because an account does not exist or the source has insufficient funds
+     * @throws AccountsServiceUnavailableException if accounts-service answers 5xx or cannot be
+     *         reached, so the outcome is unknown and the transfer may be retried
+     */
+    public TransferBalancesDto transfer(Long sourceAccountId, Long destinationAccountId, BigDecimal amount, String reference) {
+        try {
+            return restClient.post()
+                    .uri("/api/accounts/transfers")
+                    .body(new TransferPostingDto(sourceAccountId, destinationAccountId, amount, reference))
+                    .retrieve()
+                    .body(TransferBalancesDto.class);
+        } catch (HttpClientErrorException ex) {
+            throw new PostingRejectedException("Transfer rejected from account " + sourceAccountId
+                    + " to account " + destinationAccountId + ": " + ex.getStatusText());
+        } catch (RestClientException ex) {
+            throw new AccountsServiceUnavailableException("Accounts service unavailable", ex);
+        }
+    }
+    
+    /**
+     * Get the balance of an account before the postings applied at or after a point in time,
+     * as recorded by accounts-service
+     * @param accountId Account ID
+     * @param before Point in time
+     * @return Account balance
+     * @throws AccountNotFoundException if the account does not exist
+     */
+    public AccountBalanceDto getBalanceBefore(Long accountId, LocalDateTime before) {
+        try {
+            return restClient.get()
+                    .uri("/api/accounts/{id}/balance?before={before}", accountId, before)
+                    .retrieve()
+                    .body(AccountBalanceDto.class);
+        } catch (HttpClientErrorException.NotFound ex) {
+            throw new AccountNotFoundException("Account not found with id: " + accountId);
+        } catch (RestClientException ex) {
+            throw new AccountsServiceUnavailableException("Accounts service unavailable", ex);
+        }
+    }
+}
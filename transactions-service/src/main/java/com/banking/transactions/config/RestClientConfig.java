@@ -0,0 +1,18 @@
+package com.banking.transactions.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+@Configuration
+public class RestClientConfig {
+    
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder loadBalancedRestClientBuilder(ObservationRegistry observationRegistry) {
+        // Records http.client.requests for calls to other services
+        return RestClient.builder().observationRegistry(observationRegistry);
+    }
+}
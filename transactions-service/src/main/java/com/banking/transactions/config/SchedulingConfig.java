@@ -0,0 +1,12 @@
+package com.banking.transactions.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs background jobs such as the outbox relay on Spring's scheduler thread
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
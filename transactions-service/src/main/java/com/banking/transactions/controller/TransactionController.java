@@ -1,16 +1,43 @@
 package com.banking.transactions.controller;
 
+import com.banking.transactions.dto.BatchTransactionResponse;
+import com.banking.transactions.dto.ExportFormat;
+import com.banking.transactions.dto.StatementDto;
 import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.dto.TransactionEventPageDto;
+import com.banking.transactions.dto.TransactionFilter;
+import com.banking.transactions.dto.TransactionPageDto;
+import com.banking.transactions.dto.TransferDto;
+import com.banking.transactions.dto.TransferRequestDto;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.service.IdempotencyService;
+import com.banking.transactions.service.OutboxService;
+import com.banking.transactions.service.TransactionBatchService;
+import com.banking.transactions.service.TransactionExportService;
 import com.banking.transactions.service.TransactionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -19,21 +46,73 @@ import java.util.List;
 public class TransactionController {
     
     private final TransactionService transactionService;
+    private final TransactionBatchService transactionBatchService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionExportService transactionExportService;
+    private final OutboxService outboxService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
-    @Operation(summary = "Initiate a new transaction", description = "Creates a new banking transaction")
-    public ResponseEntity<TransactionDto> createTransaction(@Valid @RequestBody TransactionDto transactionDto) {
-        TransactionDto createdTransaction = transactionService.createTransaction(transactionDto);
+    @Operation(summary = "Initiate a new transaction", description = "Creates a new banking transaction; retries carrying the same Idempotency-Key return the original transaction, and a key reused with a different payload fails with 422")
+    public ResponseEntity<TransactionDto> createTransaction(@Valid @RequestBody TransactionDto transactionDto,
+                                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        TransactionDto createdTransaction = idempotencyService.execute(idempotencyKey, transactionDto,
+                () -> transactionService.createTransaction(transactionDto));
         return new ResponseEntity<>(createdTransaction, HttpStatus.CREATED);
     }
     
+    @PostMapping("/transfers")
+    @Operation(summary = "Transfer between accounts", description = "Records the transfer as a WITHDRAWAL on the source and a DEPOSIT on the destination sharing a transfer ID, and moves both balances in one posting; a transfer rejected for insufficient funds leaves a FAILED withdrawal and no deposit")
+    public ResponseEntity<TransferDto> createTransfer(@Valid @RequestBody TransferRequestDto transferRequest) {
+        TransferDto transfer = transactionService.createTransfer(transferRequest);
+        return new ResponseEntity<>(transfer, HttpStatus.CREATED);
+    }
+    
+    @GetMapping("/transfers/{transferId}")
+    @Operation(summary = "Get transfer by ID", description = "Retrieves both legs of a transfer")
+    public ResponseEntity<TransferDto> getTransfer(@PathVariable String transferId) {
+        TransferDto transfer = transactionService.getTransfer(transferId);
+        return ResponseEntity.ok(transfer);
+    }
+    
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Ingest a batch of transactions", description = "Validates and inserts a JSON array of transactions in chunks, returning per-row results; a row with an unknown type label or a mistyped field is rejected on its own")
+    public ResponseEntity<BatchTransactionResponse> createTransactions(@RequestBody List<JsonNode> rows) {
+        BatchTransactionResponse response = transactionBatchService.ingest(rows);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream a batch of transactions", description = "Validates and inserts newline-delimited JSON transactions in chunks, returning per-row results")
+    public ResponseEntity<BatchTransactionResponse> createTransactionsFromStream(HttpServletRequest request) throws IOException {
+        BatchTransactionResponse response = transactionBatchService.ingestNdjson(request.getInputStream());
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping
-    @Operation(summary = "Get all transactions", description = "Retrieves a list of all transactions")
-    public ResponseEntity<List<TransactionDto>> getAllTransactions() {
-        List<TransactionDto> transactions = transactionService.getAllTransactions();
+    @Operation(summary = "List transactions", description = "Retrieves transactions one page at a time, filtered by account, type, status and date range and sorted by id or transactionDate; page by number or with the returned keyset cursor, at most 500 transactions per page")
+    public ResponseEntity<TransactionPageDto> getTransactions(@RequestParam(required = false) Long accountId,
+                                                              @RequestParam(required = false) String type,
+                                                              @RequestParam(required = false) TransactionStatus status,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                              @RequestParam(defaultValue = "id") String sort,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "50") int size) {
+        TransactionFilter filter = new TransactionFilter(from, to, accountId, status, type != null ? TransactionType.fromLabel(type) : null);
+        TransactionPageDto transactions = transactionService.getTransactionPage(filter, sort, page, cursor, size);
         return ResponseEntity.ok(transactions);
     }
     
+    @GetMapping("/events")
+    @Operation(summary = "Read the transaction event feed", description = "Returns created and updated transaction events in feed order after a position; pass the returned nextAfter to read on. Events are kept for the outbox retention period, at most 1000 events per page")
+    public ResponseEntity<TransactionEventPageDto> getTransactionEvents(@RequestParam(defaultValue = "0") long after,
+                                                                        @RequestParam(defaultValue = "100") int limit) {
+        TransactionEventPageDto page = outboxService.getPublishedEvents(after, limit);
+        return ResponseEntity.ok(page);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get transaction by ID", description = "Retrieves transaction details by transaction ID")
     public ResponseEntity<TransactionDto> getTransactionById(@PathVariable Long id) {
@@ -48,15 +127,81 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
     
+    @GetMapping("/account/{accountId}/page")
+    @Operation(summary = "Get a page of transaction history by account", description = "Retrieves transaction history for an account one page at a time using an opaque keyset cursor")
+    public ResponseEntity<TransactionPageDto> getTransactionPageByAccountId(@PathVariable Long accountId,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(defaultValue = "50") int limit) {
+        TransactionPageDto page = transactionService.getTransactionPageByAccountId(accountId, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/account/{accountId}/statement")
+    @Operation(summary = "Get account statement", description = "Returns the opening balance, posted transactions and closing balance of an account for a period, starting from the nearest balance snapshot")
+    public ResponseEntity<StatementDto> getStatement(@PathVariable Long accountId,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StatementDto statement = transactionService.getStatement(accountId, from, to);
+        return ResponseEntity.ok(statement);
+    }
+    
+    @GetMapping(value = "/account/{accountId}/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream transaction history by account", description = "Writes the full transaction history for an account as a JSON array while reading it from the database")
+    public void streamTransactionsByAccountId(@PathVariable Long accountId, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            transactionService.streamTransactionsByAccountId(accountId, transaction -> {
+                try {
+                    generator.writeObject(transaction);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            generator.writeEndArray();
+        }
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export transactions", description = "Streams transactions filtered by date range, account, status and type as CSV or NDJSON in id order, gzip-compressed when the client accepts it")
+    public void exportTransactions(@RequestParam(defaultValue = "csv") String format,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                   @RequestParam(required = false) Long accountId,
+                                   @RequestParam(required = false) TransactionStatus status,
+                                   @RequestParam(required = false) String type,
+                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                   HttpServletResponse response) throws IOException {
+        // Reject bad parameters before the export content type is set on the response
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("Export range start must be before its end");
+        }
+        TransactionFilter filter = new TransactionFilter(from, to, accountId, status, type != null ? TransactionType.fromLabel(type) : null);
+        boolean gzip = TransactionExportService.acceptsGzip(acceptEncoding);
+        
+        response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        
+        OutputStream body = gzip ? new GZIPOutputStream(response.getOutputStream(), 8192) : response.getOutputStream();
+        try (body) {
+            transactionExportService.export(filter, exportFormat, body);
+        }
+    }
+    
     @GetMapping("/status/{status}")
     @Operation(summary = "Get transactions by status", description = "Retrieves transactions with a specific status")
-    public ResponseEntity<List<TransactionDto>> getTransactionsByStatus(@PathVariable String status) {
+    public ResponseEntity<List<TransactionDto>> getTransactionsByStatus(@PathVariable TransactionStatus status) {
         List<TransactionDto> transactions = transactionService.getTransactionsByStatus(status);
         return ResponseEntity.ok(transactions);
     }
     
     @PutMapping("/{id}")
-    @Operation(summary = "Amend transaction details", description = "Updates transaction details if allowed before completion")
+    @Operation(summary = "Amend transaction details", description = "Updates the type and amount of a transaction that is still pending; the status is set by settlement and a request for any status other than PENDING fails with 400")
     public ResponseEntity<TransactionDto> updateTransaction(@PathVariable Long id, @Valid @RequestBody TransactionDto transactionDto) {
         TransactionDto updatedTransaction = transactionService.updateTransaction(id, transactionDto);
         return ResponseEntity.ok(updatedTransaction);
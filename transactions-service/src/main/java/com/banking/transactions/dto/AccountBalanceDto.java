@@ -0,0 +1,30 @@
+package com.banking.transactions.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AccountBalanceDto {
+    
+    private Long id;
+    
+    private BigDecimal balance;
+    
+    /**
+     * When accounts-service applied the posting that left this balance, on posting and
+     * transfer responses. Strictly increasing per account in the order postings were applied.
+     */
+    private LocalDateTime postedAt;
+    
+    public AccountBalanceDto(Long id, BigDecimal balance) {
+        this(id, balance, null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.banking.transactions.dto;
+
+import com.banking.transactions.entity.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalancePostingDto {
+    
+    private TransactionType type;
+    
+    private BigDecimal amount;
+    
+    /**
+     * Unique ID of the posting; accounts-service applies a reference at most once
+     */
+    private String reference;
+}
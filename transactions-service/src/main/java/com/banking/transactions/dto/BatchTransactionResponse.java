@@ -0,0 +1,21 @@
+package com.banking.transactions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionResponse {
+    
+    private int received;
+    
+    private int created;
+    
+    private int rejected;
+    
+    private List<BatchTransactionResult> results;
+}
@@ -0,0 +1,21 @@
+package com.banking.transactions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionResult {
+    
+    private int index;
+    
+    private Long id;
+    
+    private String outcome;
+    
+    private Map<String, String> errors;
+}
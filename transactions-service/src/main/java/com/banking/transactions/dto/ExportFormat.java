@@ -0,0 +1,27 @@
+package com.banking.transactions.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Output format of the transaction export
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    
+    CSV("csv", "text/csv"),
+    NDJSON("ndjson", "application/x-ndjson");
+    
+    private final String extension;
+    private final String contentType;
+    
+    public static ExportFormat fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Export format must be csv or ndjson");
+    }
+}
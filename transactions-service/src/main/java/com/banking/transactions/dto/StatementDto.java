@@ -0,0 +1,26 @@
+package com.banking.transactions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementDto {
+    
+    private Long accountId;
+    
+    private String from;
+    
+    private String to;
+    
+    private BigDecimal openingBalance;
+    
+    private BigDecimal closingBalance;
+    
+    private List<TransactionDto> transactions;
+}
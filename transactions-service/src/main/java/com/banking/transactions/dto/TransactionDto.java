@@ -1,11 +1,14 @@
 package com.banking.transactions.dto;
 
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
@@ -18,9 +21,8 @@ public class TransactionDto {
     @Positive(message = "Account ID must be positive")
     private Long accountId;
     
-    @NotBlank(message = "Transaction type is required")
-    @Pattern(regexp = "^(Deposit|Withdrawal|Transfer)$", message = "Transaction type must be Deposit, Withdrawal, or Transfer")
-    private String type;
+    @NotNull(message = "Transaction type is required")
+    private TransactionType type;
     
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be positive")
@@ -28,6 +30,14 @@ public class TransactionDto {
     
     private String transactionDate;
     
-    @Pattern(regexp = "^(SUCCESS|FAILED|PENDING)$", message = "Status must be SUCCESS, FAILED, or PENDING")
-    private String status;
+    private TransactionStatus status;
+    
+    /**
+     * Constructor used by JPQL constructor expressions, so read queries build DTOs
+     * straight from the result set without loading managed entities
+     */
+    public TransactionDto(Long id, Long accountId, TransactionType type, BigDecimal amount,
+                          LocalDateTime transactionDate, TransactionStatus status) {
+        this(id, accountId, type, amount, transactionDate.toString(), status);
+    }
 }
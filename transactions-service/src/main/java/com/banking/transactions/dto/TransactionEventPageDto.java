@@ -0,0 +1,19 @@
+package com.banking.transactions.dto;
+
+import com.banking.transactions.event.TransactionEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionEventPageDto {
+    
+    private List<TransactionEvent> events;
+    
+    /** Position to pass as {@code after} for the following page; unchanged when no events were returned */
+    private long nextAfter;
+}
@@ -0,0 +1,27 @@
+package com.banking.transactions.dto;
+
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionFilter {
+    
+    /** Inclusive lower bound of the transaction date */
+    private LocalDateTime from;
+    
+    /** Exclusive upper bound of the transaction date */
+    private LocalDateTime to;
+    
+    private Long accountId;
+    
+    private TransactionStatus status;
+    
+    private TransactionType type;
+}
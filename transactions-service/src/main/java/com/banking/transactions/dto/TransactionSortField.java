@@ -0,0 +1,32 @@
+package com.banking.transactions.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Properties the transaction list can be sorted by. Each is backed by an index ending in the
+ * transaction ID, which breaks ties so keyset cursors stay stable.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TransactionSortField {
+    
+    ID("id", TransactionDto::getId, Long::valueOf),
+    TRANSACTION_DATE("transactionDate", TransactionDto::getTransactionDate, LocalDateTime::parse);
+    
+    private final String property;
+    private final Function<TransactionDto, Object> accessor;
+    private final Function<String, Object> parser;
+    
+    public static TransactionSortField fromProperty(String property) {
+        for (TransactionSortField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Transactions can be sorted by id or transactionDate");
+    }
+}
@@ -0,0 +1,17 @@
+package com.banking.transactions.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TransferBalancesDto {
+    
+    private AccountBalanceDto source;
+    
+    private AccountBalanceDto destination;
+}
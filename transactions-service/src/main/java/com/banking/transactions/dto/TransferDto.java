@@ -0,0 +1,21 @@
+package com.banking.transactions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Both legs of a transfer. The credit leg is written when the transfer settles successfully,
+ * so it is null while the debit leg is PENDING or after it FAILED.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferDto {
+    
+    private String transferId;
+    
+    private TransactionDto debit;
+    
+    private TransactionDto credit;
+}
@@ -0,0 +1,24 @@
+package com.banking.transactions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferPostingDto {
+    
+    private Long sourceAccountId;
+    
+    private Long destinationAccountId;
+    
+    private BigDecimal amount;
+    
+    /**
+     * Unique ID of the transfer; accounts-service applies a reference at most once
+     */
+    private String reference;
+}
@@ -0,0 +1,33 @@
+package com.banking.transactions.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferRequestDto {
+    
+    @NotNull(message = "Source account ID is required")
+    @Positive(message = "Source account ID must be positive")
+    private Long sourceAccountId;
+    
+    @NotNull(message = "Destination account ID is required")
+    @Positive(message = "Destination account ID must be positive")
+    private Long destinationAccountId;
+    
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be positive")
+    private BigDecimal amount;
+    
+    @JsonIgnore
+    @AssertTrue(message = "Source and destination accounts must differ")
+    public boolean isDistinctAccounts() {
+        return sourceAccountId == null || !sourceAccountId.equals(destinationAccountId);
+    }
+}
@@ -0,0 +1,46 @@
+package com.banking.transactions.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Account balance immediately after a posted transaction, keyed like the transaction
+ * history by (asOf, transactionId) so statements can replay from it in either direction
+ */
+@Entity
+@Table(name = "balance_snapshots", indexes = {
+        @Index(name = "idx_balance_snapshots_account_as_of", columnList = "account_id, as_of, transaction_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_snapshots_seq")
+    @SequenceGenerator(name = "balance_snapshots_seq", sequenceName = "balance_snapshots_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    /**
+     * Transaction date of the last transaction included in the balance
+     */
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+    
+    @Column(name = "balance", nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+    
+    /**
+     * ID of the last transaction included in the balance
+     */
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+}
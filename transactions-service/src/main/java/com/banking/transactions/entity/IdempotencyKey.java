@@ -0,0 +1,60 @@
+package com.banking.transactions.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_seq")
+    @SequenceGenerator(name = "idempotency_keys_seq", sequenceName = "idempotency_keys_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "idempotency_key", unique = true, nullable = false, length = 255)
+    private String idempotencyKey;
+    
+    /**
+     * Transaction created for the key, or null while the first request is still in flight
+     */
+    @Column(name = "transaction_id")
+    private Long transactionId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    /**
+     * Request currently holding the key, cleared once the transaction is recorded
+     */
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy;
+    
+    /**
+     * When the holder claimed the key; a claim older than the claim timeout can be taken over
+     */
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+    
+    /**
+     * Hash of the payload of the first request, so a key reused for a different request is
+     * refused instead of answered with the first request's transaction; null on keys stored
+     * before fingerprints were recorded
+     */
+    @Column(name = "request_fingerprint", length = 64)
+    private String requestFingerprint;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
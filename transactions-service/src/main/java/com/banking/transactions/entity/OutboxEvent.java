@@ -0,0 +1,66 @@
+package com.banking.transactions.entity;
+
+import com.banking.transactions.event.TransactionEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transaction event written in the same database transaction as the change it describes.
+ * OutboxRelay publishes it and gives it a position in the event feed; published events are
+ * kept for the retention period so feed consumers can catch up.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_status_id", columnList = "status, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 20)
+    private TransactionEventType eventType;
+    
+    /**
+     * Transaction as JSON at the time of the change
+     */
+    @Column(name = "payload", nullable = false, length = 4000)
+    private String payload;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OutboxStatus status;
+    
+    /**
+     * Position in the event feed, assigned when the event is published
+     */
+    @Column(name = "feed_position", unique = true)
+    private Long feedPosition;
+    
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = OutboxStatus.PENDING;
+        }
+    }
+}
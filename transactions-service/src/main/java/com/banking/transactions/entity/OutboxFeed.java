@@ -0,0 +1,27 @@
+package com.banking.transactions.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single-row table holding the last feed position handed out. Relays lock the row while they
+ * publish a batch, so positions are committed in the order they are assigned and a consumer
+ * reading the feed past a position never misses an event committed later.
+ */
+@Entity
+@Table(name = "outbox_feed")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxFeed {
+    
+    public static final int ID = 1;
+    
+    @Id
+    private Integer id;
+    
+    @Column(name = "last_position", nullable = false)
+    private Long lastPosition;
+}
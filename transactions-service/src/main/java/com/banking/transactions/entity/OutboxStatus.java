@@ -0,0 +1,16 @@
+package com.banking.transactions.entity;
+
+/**
+ * Delivery state of an outbox event
+ */
+public enum OutboxStatus {
+    
+    /** Written with its change, not yet published */
+    PENDING,
+    
+    /** Published and readable from the event feed until the retention period ends */
+    PUBLISHED,
+    
+    /** Payload could not be read; parked so the events behind it are still published */
+    DEAD_LETTER
+}
@@ -10,14 +10,20 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_account_date_id", columnList = "account_id, transaction_date DESC, id"),
+        @Index(name = "idx_transactions_status_id", columnList = "status, id"),
+        @Index(name = "idx_transactions_date_id", columnList = "transaction_date, id"),
+        @Index(name = "idx_transactions_transfer_id", columnList = "transfer_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "account_id", nullable = false)
@@ -25,29 +31,57 @@ public class Transaction {
     @Positive(message = "Account ID must be positive")
     private Long accountId;
     
-    @Column(name = "type", nullable = false, length = 50)
-    @NotBlank(message = "Transaction type is required")
-    @Pattern(regexp = "^(Deposit|Withdrawal|Transfer)$", message = "Transaction type must be Deposit, Withdrawal, or Transfer")
-    private String type;
+    @Column(name = "type", nullable = false, length = 1)
+    @NotNull(message = "Transaction type is required")
+    private TransactionType type;
     
     @Column(name = "amount", nullable = false, precision = 15, scale = 2)
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be positive")
     private BigDecimal amount;
     
+    /**
+     * Creation time, and once posted the time accounts-service applied the posting, which
+     * orders the postings of an account the way they were applied
+     */
     @Column(name = "transaction_date", nullable = false)
     private LocalDateTime transactionDate;
     
-    @Column(name = "status", nullable = false, length = 50)
-    @NotBlank(message = "Status is required")
-    @Pattern(regexp = "^(SUCCESS|FAILED|PENDING)$", message = "Status must be SUCCESS, FAILED, or PENDING")
-    private String status;
+    @Column(name = "status", nullable = false, length = 1)
+    @NotNull(message = "Status is required")
+    private TransactionStatus status;
+    
+    /**
+     * Settlement worker holding a PENDING transaction, or null when unclaimed
+     */
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy;
+    
+    /**
+     * Time until which the claim is held; after it another worker may claim the transaction
+     */
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+    
+    /**
+     * Shared by the debit (WITHDRAWAL) and credit (DEPOSIT) legs of a transfer, null otherwise
+     */
+    @Column(name = "transfer_id", length = 36)
+    private String transferId;
+    
+    /**
+     * Account on the other side of a transfer leg
+     */
+    @Column(name = "counterparty_account_id")
+    private Long counterpartyAccountId;
     
     @PrePersist
     protected void onCreate() {
-        transactionDate = LocalDateTime.now();
+        if (transactionDate == null) {
+            transactionDate = LocalDateTime.now();
+        }
         if (status == null) {
-            status = "PENDING";
+            status = TransactionStatus.PENDING;
         }
     }
 }
@@ -0,0 +1,27 @@
+package com.banking.transactions.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Transaction status, exposed in JSON by its name and stored as a one-character code
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TransactionStatus {
+    
+    SUCCESS('S'),
+    FAILED('F'),
+    PENDING('P');
+    
+    private final char code;
+    
+    public static TransactionStatus fromCode(char code) {
+        for (TransactionStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction status code: " + code);
+    }
+}
@@ -0,0 +1,18 @@
+package com.banking.transactions.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class TransactionStatusConverter implements AttributeConverter<TransactionStatus, Character> {
+    
+    @Override
+    public Character convertToDatabaseColumn(TransactionStatus status) {
+        return status == null ? null : status.getCode();
+    }
+    
+    @Override
+    public TransactionStatus convertToEntityAttribute(Character code) {
+        return code == null ? null : TransactionStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,40 @@
+package com.banking.transactions.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Transaction type, exposed in JSON by its label and stored as a one-character code
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TransactionType {
+    
+    DEPOSIT("Deposit", 'D'),
+    WITHDRAWAL("Withdrawal", 'W');
+    
+    @JsonValue
+    private final String label;
+    private final char code;
+    
+    @JsonCreator
+    public static TransactionType fromLabel(String label) {
+        for (TransactionType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Transaction type must be Deposit or Withdrawal");
+    }
+    
+    public static TransactionType fromCode(char code) {
+        for (TransactionType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction type code: " + code);
+    }
+}
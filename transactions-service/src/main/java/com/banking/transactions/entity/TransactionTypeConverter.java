@@ -0,0 +1,18 @@
+package com.banking.transactions.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class TransactionTypeConverter implements AttributeConverter<TransactionType, Character> {
+    
+    @Override
+    public Character convertToDatabaseColumn(TransactionType type) {
+        return type == null ? null : type.getCode();
+    }
+    
+    @Override
+    public TransactionType convertToEntityAttribute(Character code) {
+        return code == null ? null : TransactionType.fromCode(code);
+    }
+}
@@ -0,0 +1,23 @@
+package com.banking.transactions.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Delivers outbox events to @EventListener methods in this service. Listeners run on
+ * the relay thread, so an exception from one of them fails the batch and it is retried.
+ */
+@Component
+@RequiredArgsConstructor
+public class InProcessOutboxPublisher implements OutboxPublisher {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Override
+    public void publish(List<TransactionEvent> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
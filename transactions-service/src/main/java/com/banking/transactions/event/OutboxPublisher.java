@@ -0,0 +1,16 @@
+package com.banking.transactions.event;
+
+import java.util.List;
+
+/**
+ * Destination of the events relayed from the outbox table
+ */
+public interface OutboxPublisher {
+    
+    /**
+     * Publish a batch of events in order. Throwing leaves the whole batch in the outbox
+     * to be published again on the next relay run.
+     * @param events Events, oldest first
+     */
+    void publish(List<TransactionEvent> events);
+}
@@ -0,0 +1,24 @@
+package com.banking.transactions.event;
+
+import com.banking.transactions.dto.TransactionDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by OutboxRelay for every transaction created or updated. Delivery is at least
+ * once, so consumers should skip event IDs they have already handled.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionEvent {
+    private Long eventId;
+    /** Position in the event feed; positions increase in publishing order */
+    private Long position;
+    private TransactionEventType eventType;
+    private LocalDateTime occurredAt;
+    private TransactionDto transaction;
+}
@@ -0,0 +1,6 @@
+package com.banking.transactions.event;
+
+public enum TransactionEventType {
+    CREATED,
+    UPDATED
+}
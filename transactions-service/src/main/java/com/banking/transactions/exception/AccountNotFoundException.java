@@ -0,0 +1,7 @@
+package com.banking.transactions.exception;
+
+public class AccountNotFoundException extends RuntimeException {
+    public AccountNotFoundException(String message) {
+        super(message);
+    }
+}
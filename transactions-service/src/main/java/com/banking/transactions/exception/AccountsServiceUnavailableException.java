@@ -0,0 +1,7 @@
+package com.banking.transactions.exception;
+
+public class AccountsServiceUnavailableException extends RuntimeException {
+    public AccountsServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
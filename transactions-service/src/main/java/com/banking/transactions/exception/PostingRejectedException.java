@@ -0,0 +1,7 @@
+package com.banking.transactions.exception;
+
+public class PostingRejectedException extends RuntimeException {
+    public PostingRejectedException(String message) {
+        super(message);
+    }
+}
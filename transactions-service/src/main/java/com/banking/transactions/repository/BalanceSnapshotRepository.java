@@ -0,0 +1,24 @@
+package com.banking.transactions.repository;
+
+import com.banking.transactions.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+    
+    Optional<BalanceSnapshot> findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(Long accountId);
+    
+    /**
+     * Latest snapshot taken strictly before a point in time
+     */
+    Optional<BalanceSnapshot> findFirstByAccountIdAndAsOfLessThanOrderByAsOfDescTransactionIdDesc(Long accountId, LocalDateTime asOf);
+    
+    /**
+     * Earliest snapshot taken at or after a point in time
+     */
+    Optional<BalanceSnapshot> findFirstByAccountIdAndAsOfGreaterThanEqualOrderByAsOfAscTransactionIdAsc(Long accountId, LocalDateTime asOf);
+}
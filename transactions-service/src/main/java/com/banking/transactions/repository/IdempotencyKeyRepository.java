@@ -0,0 +1,58 @@
+package com.banking.transactions.repository;
+
+import com.banking.transactions.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    
+    Optional<IdempotencyKey> findByIdempotencyKey(String idempotencyKey);
+    
+    /**
+     * Claim an in-progress key whose holder claimed it before the given time.
+     * Of several requests taking over the same key, only the first matches.
+     * @return 1 if the key was taken over, 0 if it completed or was claimed again in the meantime
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.claimedBy = :owner, k.claimedAt = :now " +
+           "WHERE k.id = :id AND k.transactionId IS NULL AND k.claimedAt < :staleBefore")
+    int takeOver(@Param("id") Long id,
+                 @Param("owner") String owner,
+                 @Param("now") LocalDateTime now,
+                 @Param("staleBefore") LocalDateTime staleBefore);
+    
+    /**
+     * Record the transaction created for a key. A holder whose claim was taken over updates
+     * nothing, so it cannot overwrite the new holder's result.
+     * @return 1 if the transaction was recorded, 0 if the owner no longer holds the key
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.transactionId = :transactionId, k.claimedBy = NULL " +
+           "WHERE k.id = :id AND k.claimedBy = :owner AND k.transactionId IS NULL")
+    int complete(@Param("id") Long id,
+                 @Param("owner") String owner,
+                 @Param("transactionId") Long transactionId);
+    
+    /**
+     * Delete a key still held by the owner, so its request can be retried
+     * @return 1 if the key was released, 0 if the owner no longer holds it
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.claimedBy = :owner AND k.transactionId IS NULL")
+    int release(@Param("id") Long id, @Param("owner") String owner);
+    
+    /**
+     * Delete keys created before a point in time
+     * @return Number of keys deleted
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,35 @@
+package com.banking.transactions.repository;
+
+import com.banking.transactions.entity.OutboxEvent;
+import com.banking.transactions.entity.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    /**
+     * Events in a state, oldest first in the order they were written, served by the (status, id) index
+     */
+    List<OutboxEvent> findByStatusOrderByIdAsc(OutboxStatus status, Pageable pageable);
+    
+    /**
+     * Published events after a feed position, in feed order
+     */
+    List<OutboxEvent> findByFeedPositionGreaterThanOrderByFeedPositionAsc(Long position, Pageable pageable);
+    
+    /**
+     * Delete events published before a point in time
+     * @return Number of events deleted
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = :status AND e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("status") OutboxStatus status, @Param("cutoff") LocalDateTime cutoff);
+}
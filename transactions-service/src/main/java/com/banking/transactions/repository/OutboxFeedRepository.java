@@ -0,0 +1,19 @@
+package com.banking.transactions.repository;
+
+import com.banking.transactions.entity.OutboxFeed;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxFeedRepository extends JpaRepository<OutboxFeed, Integer> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM OutboxFeed f WHERE f.id = :id")
+    Optional<OutboxFeed> findByIdForUpdate(@Param("id") Integer id);
+}
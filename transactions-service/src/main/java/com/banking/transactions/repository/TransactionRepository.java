@@ -1,19 +1,141 @@
 package com.banking.transactions.repository;
 
+import com.banking.transactions.dto.TransactionDto;
 import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionSearchRepository {
+    
+    /**
+     * Select clause of the read queries below. Constructor expressions return unmanaged DTOs,
+     * so list reads neither allocate entities nor register them in the persistence context.
+     */
+    String SELECT_DTO = "SELECT new com.banking.transactions.dto.TransactionDto(" +
+                        "t.id, t.accountId, t.type, t.amount, t.transactionDate, t.status) ";
     
     List<Transaction> findByAccountId(Long accountId);
     
-    List<Transaction> findByAccountIdOrderByTransactionDateDesc(Long accountId);
+    /**
+     * Legs of a transfer, debit first
+     */
+    List<Transaction> findByTransferIdOrderByIdAsc(String transferId);
+    
+    @Query(SELECT_DTO + "FROM Transaction t WHERE t.accountId = :accountId " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionDto> findDtosByAccountId(@Param("accountId") Long accountId);
+    
+    @Query(SELECT_DTO + "FROM Transaction t WHERE t.accountId = :accountId " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionDto> findFirstPageByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+    
+    @Query(SELECT_DTO + "FROM Transaction t WHERE t.accountId = :accountId " +
+           "AND (t.transactionDate < :transactionDate OR (t.transactionDate = :transactionDate AND t.id < :id)) " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionDto> findPageByAccountIdBefore(@Param("accountId") Long accountId,
+                                                   @Param("transactionDate") LocalDateTime transactionDate,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_DTO + "FROM Transaction t WHERE t.accountId = :accountId " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    Stream<TransactionDto> streamByAccountId(@Param("accountId") Long accountId);
+    
+    /**
+     * Rows with a given status in insertion order, served by the (status, id) index
+     * without a sort step so settlement can drain a status as a queue
+     */
+    @Query(SELECT_DTO + "FROM Transaction t WHERE t.status = :status ORDER BY t.id ASC")
+    List<TransactionDto> findDtosByStatus(@Param("status") TransactionStatus status);
+    
+    /**
+     * IDs of the oldest transactions with a status that no worker holds a live lease on
+     */
+    @Query("SELECT t.id FROM Transaction t WHERE t.status = :status " +
+           "AND (t.leaseUntil IS NULL OR t.leaseUntil < :now) ORDER BY t.id ASC")
+    List<Long> findClaimableIds(@Param("status") TransactionStatus status,
+                                @Param("now") LocalDateTime now,
+                                Pageable pageable);
+    
+    /**
+     * Lease the given transactions to a worker. Rows claimed by another worker since they
+     * were read are skipped, so concurrent claimers never share a row.
+     * @return Number of rows claimed
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.claimedBy = :owner, t.leaseUntil = :leaseUntil " +
+           "WHERE t.id IN :ids AND t.status = :status AND (t.leaseUntil IS NULL OR t.leaseUntil < :now)")
+    int claim(@Param("ids") List<Long> ids,
+              @Param("status") TransactionStatus status,
+              @Param("owner") String owner,
+              @Param("leaseUntil") LocalDateTime leaseUntil,
+              @Param("now") LocalDateTime now);
+    
+    /**
+     * Record the outcome of a claimed PENDING transaction and release its claim, but only while
+     * the given owner still holds it. A worker whose lease expired and was taken over updates
+     * nothing, so it cannot overwrite the new owner's result.
+     * @return 1 if the outcome was recorded, 0 if the owner no longer holds the transaction
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = :outcome, t.transactionDate = :settledAt, " +
+           "t.claimedBy = NULL, t.leaseUntil = NULL " +
+           "WHERE t.id = :id AND t.claimedBy = :owner AND t.status = :pending")
+    int completeSettlement(@Param("id") Long id,
+                           @Param("owner") String owner,
+                           @Param("outcome") TransactionStatus outcome,
+                           @Param("settledAt") LocalDateTime settledAt,
+                           @Param("pending") TransactionStatus pending);
+    
+    List<Transaction> findByType(TransactionType type);
+    
+    /**
+     * Posted transactions of an account in a period, oldest first
+     */
+    @Query(SELECT_DTO + "FROM Transaction t WHERE t.accountId = :accountId AND t.status = :status " +
+           "AND t.transactionDate >= :from AND t.transactionDate < :to " +
+           "ORDER BY t.transactionDate ASC, t.id ASC")
+    List<TransactionDto> findInPeriod(@Param("accountId") Long accountId,
+                                      @Param("status") TransactionStatus status,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
     
-    List<Transaction> findByStatus(String status);
+    /**
+     * Net effect on the account balance of the posted transactions whose (transactionDate, id)
+     * lies after the first position and up to and including the second
+     */
+    default BigDecimal sumPostedAmounts(Long accountId,
+                                        LocalDateTime afterDate, Long afterId,
+                                        LocalDateTime upToDate, Long upToId) {
+        return sumSignedAmounts(accountId, afterDate, afterId, upToDate, upToId,
+                TransactionType.DEPOSIT, TransactionStatus.SUCCESS);
+    }
     
-    List<Transaction> findByType(String type);
+    @Query("SELECT COALESCE(SUM(CASE WHEN t.type = :credit THEN t.amount ELSE -t.amount END), 0) " +
+           "FROM Transaction t WHERE t.accountId = :accountId AND t.status = :status " +
+           "AND (t.transactionDate > :afterDate OR (t.transactionDate = :afterDate AND t.id > :afterId)) " +
+           "AND (t.transactionDate < :upToDate OR (t.transactionDate = :upToDate AND t.id <= :upToId))")
+    BigDecimal sumSignedAmounts(@Param("accountId") Long accountId,
+                                @Param("afterDate") LocalDateTime afterDate,
+                                @Param("afterId") Long afterId,
+                                @Param("upToDate") LocalDateTime upToDate,
+                                @Param("upToId") Long upToId,
+                                @Param("credit") TransactionType credit,
+                                @Param("status") TransactionStatus status);
 }
@@ -0,0 +1,74 @@
+package com.banking.transactions.repository;
+
+import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.dto.TransactionFilter;
+import com.banking.transactions.dto.TransactionSortField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the list query from only the filters that are set, so each combination can use
+ * a matching index instead of one query full of optional predicates
+ */
+public class TransactionSearchRepositoryImpl implements TransactionSearchRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<TransactionDto> search(TransactionFilter filter, TransactionSortField sortField, Sort.Direction direction,
+                                       Object afterValue, Long afterId, int offset, int limit) {
+        StringBuilder jpql = new StringBuilder(TransactionRepository.SELECT_DTO).append("FROM Transaction t WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.getAccountId() != null) {
+            jpql.append(" AND t.accountId = :accountId");
+            parameters.put("accountId", filter.getAccountId());
+        }
+        if (filter.getStatus() != null) {
+            jpql.append(" AND t.status = :status");
+            parameters.put("status", filter.getStatus());
+        }
+        if (filter.getType() != null) {
+            jpql.append(" AND t.type = :type");
+            parameters.put("type", filter.getType());
+        }
+        if (filter.getFrom() != null) {
+            jpql.append(" AND t.transactionDate >= :from");
+            parameters.put("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" AND t.transactionDate < :to");
+            parameters.put("to", filter.getTo());
+        }
+        
+        // Property names come from the whitelist enum, never from the request
+        String column = "t." + sortField.getProperty();
+        String after = direction.isAscending() ? " > " : " < ";
+        if (afterId != null) {
+            if (sortField == TransactionSortField.ID) {
+                jpql.append(" AND t.id").append(after).append(":afterId");
+            } else {
+                jpql.append(" AND (").append(column).append(after).append(":afterValue OR (")
+                        .append(column).append(" = :afterValue AND t.id").append(after).append(":afterId))");
+                parameters.put("afterValue", afterValue);
+            }
+            parameters.put("afterId", afterId);
+        }
+        jpql.append(" ORDER BY ").append(column).append(' ').append(direction.name());
+        if (sortField != TransactionSortField.ID) {
+            jpql.append(", t.id ").append(direction.name());
+        }
+        
+        TypedQuery<TransactionDto> query = entityManager.createQuery(jpql.toString(), TransactionDto.class);
+        parameters.forEach(query::setParameter);
+        return query.setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
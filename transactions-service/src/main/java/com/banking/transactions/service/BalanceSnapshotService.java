@@ -0,0 +1,192 @@
+package com.banking.transactions.service;
+
+import com.banking.common.observation.ObservationAutoConfiguration;
+import com.banking.transactions.client.AccountsClient;
+import com.banking.transactions.entity.BalanceSnapshot;
+import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.repository.BalanceSnapshotRepository;
+import com.banking.transactions.repository.TransactionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@Observed(name = ObservationAutoConfiguration.SERVICE_OBSERVATION)
+public class BalanceSnapshotService {
+    
+    /**
+     * Transaction ID paired with a boundary date so the position sorts before every
+     * transaction at that date (IDs start at 1)
+     */
+    static final long BOUNDARY_ID = 0L;
+    
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountsClient accountsClient;
+    private final Duration snapshotInterval;
+    private final int snapshotEvery;
+    private final Cache<Long, SnapshotProgress> progressByAccount;
+    
+    public BalanceSnapshotService(BalanceSnapshotRepository balanceSnapshotRepository,
+                                  TransactionRepository transactionRepository,
+                                  AccountsClient accountsClient,
+                                  @Value("${transactions.snapshots.interval:1h}") Duration snapshotInterval,
+                                  @Value("${transactions.snapshots.every:100}") int snapshotEvery,
+                                  @Value("${transactions.snapshots.tracked-accounts:100000}") long trackedAccounts) {
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountsClient = accountsClient;
+        this.snapshotInterval = snapshotInterval;
+        this.snapshotEvery = snapshotEvery;
+        this.progressByAccount = Caffeine.newBuilder()
+                .maximumSize(trackedAccounts)
+                .build();
+    }
+    
+    /**
+     * Record a successfully posted transaction, writing a new snapshot for its account once
+     * {@code every} postings or {@code interval} have passed since the previous one.
+     * The snapshot takes the balance accounts-service reported for the posting, which is the
+     * authoritative balance and includes changes made without a transaction here, such as account
+     * opening balances and postings sent to accounts-service directly.
+     * Must run in the database transaction that records the posting, so the snapshot commits or
+     * rolls back with it.
+     * @param posted Saved transaction with status SUCCESS
+     * @param balanceAfter Account balance reported by accounts-service right after the posting,
+     *                     or null if none was reported, in which case a later posting snapshots
+     */
+    public void recordPosting(Transaction posted, BigDecimal balanceAfter) {
+        Long accountId = posted.getAccountId();
+        SnapshotProgress progress = progressByAccount.getIfPresent(accountId);
+        if (progress == null) {
+            // Loaded outside the cache, whose computing get holds a map lock during the query
+            SnapshotProgress loaded = loadProgress(accountId);
+            SnapshotProgress raced = progressByAccount.asMap().putIfAbsent(accountId, loaded);
+            progress = raced != null ? raced : loaded;
+        }
+        if (!progress.claimSnapshot(posted.getTransactionDate(), balanceAfter != null)) {
+            return;
+        }
+        // Saved outside the progress lock, so postings of the account never wait on the database
+        // while holding it, which would also pin the carrier thread of a virtual thread
+        try {
+            balanceSnapshotRepository.save(new BalanceSnapshot(
+                    null, accountId, posted.getTransactionDate(), balanceAfter, posted.getId()));
+        } catch (RuntimeException ex) {
+            // The progress already counts the snapshot as taken
+            progressByAccount.invalidate(accountId);
+            throw ex;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        // The cached progress points at a snapshot that was never committed
+                        progressByAccount.invalidate(accountId);
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * Balance of an account before any transaction dated at or after a point in time.
+     * Starts from the nearest snapshot on either side and replays only the transactions
+     * between it and the point; with no snapshot at all it asks accounts-service, which answers
+     * from its own posting records. Snapshots and replay both order postings by transaction
+     * date, which is the time accounts-service applied them, so a snapshot covers exactly the
+     * postings ordered before it.
+     * @param accountId Account ID
+     * @param asOf Point in time
+     * @return Account balance
+     */
+    public BigDecimal getBalanceBefore(Long accountId, LocalDateTime asOf) {
+        Optional<BalanceSnapshot> before = balanceSnapshotRepository
+                .findFirstByAccountIdAndAsOfLessThanOrderByAsOfDescTransactionIdDesc(accountId, asOf);
+        if (before.isPresent()) {
+            BalanceSnapshot snapshot = before.get();
+            return snapshot.getBalance().add(transactionRepository.sumPostedAmounts(accountId,
+                    snapshot.getAsOf(), snapshot.getTransactionId(), asOf, BOUNDARY_ID));
+        }
+        
+        Optional<BalanceSnapshot> after = balanceSnapshotRepository
+                .findFirstByAccountIdAndAsOfGreaterThanEqualOrderByAsOfAscTransactionIdAsc(accountId, asOf);
+        if (after.isPresent()) {
+            BalanceSnapshot snapshot = after.get();
+            return snapshot.getBalance().subtract(transactionRepository.sumPostedAmounts(accountId,
+                    asOf, BOUNDARY_ID, snapshot.getAsOf(), snapshot.getTransactionId()));
+        }
+        
+        // Not the live balance minus later postings: it also holds postings applied but not yet recorded here
+        return accountsClient.getBalanceBefore(accountId, asOf).getBalance();
+    }
+    
+    /**
+     * Effect of a posted transaction on the account balance
+     */
+    static BigDecimal signedAmount(TransactionType type, BigDecimal amount) {
+        return type == TransactionType.DEPOSIT ? amount : amount.negate();
+    }
+    
+    private SnapshotProgress loadProgress(Long accountId) {
+        SnapshotProgress progress = new SnapshotProgress();
+        progress.latestAsOf = balanceSnapshotRepository.findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(accountId)
+                .map(BalanceSnapshot::getAsOf)
+                .orElse(null);
+        return progress;
+    }
+    
+    /**
+     * Date of the latest known snapshot of an account and the postings seen since, guarded by
+     * a lock held only while deciding whether a posting is due a snapshot
+     */
+    private class SnapshotProgress {
+        
+        private final ReentrantLock lock = new ReentrantLock();
+        private LocalDateTime latestAsOf;
+        private int postingsSince;
+        
+        /**
+         * Count a posting and decide whether it is due a snapshot. A due posting is counted as
+         * snapshotted right away, so concurrent postings of the account do not snapshot too
+         * while its snapshot is being saved.
+         * @param postedAt Transaction date of the posting
+         * @param snapshottable Whether a balance was reported for the posting
+         * @return true if the caller must save a snapshot for the posting
+         */
+        boolean claimSnapshot(LocalDateTime postedAt, boolean snapshottable) {
+            lock.lock();
+            try {
+                postingsSince++;
+                if (!snapshottable || !isDue(postedAt)) {
+                    return false;
+                }
+                if (latestAsOf == null || postedAt.isAfter(latestAsOf)) {
+                    latestAsOf = postedAt;
+                }
+                postingsSince = 0;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        private boolean isDue(LocalDateTime postedAt) {
+            return latestAsOf == null
+                    || postingsSince >= snapshotEvery
+                    || !postedAt.isBefore(latestAsOf.plus(snapshotInterval));
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.banking.transactions.service;
+
+import com.banking.common.observation.ObservationAutoConfiguration;
+import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.entity.IdempotencyKey;
+import com.banking.transactions.exception.IdempotencyConflictException;
+import com.banking.transactions.exception.IdempotencyKeyReusedException;
+import com.banking.transactions.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.observation.annotation.Observed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Runs transaction-creating requests at most once per Idempotency-Key. The first request claims
+ * the key in idempotency_keys, with a fingerprint of its payload, and records the created
+ * transaction on it; a claim whose request died without recording anything is taken over once it
+ * is older than the claim timeout. Keys are purged after the retention period, after which a
+ * replay creates a new transaction.
+ */
+@Service
+@Observed(name = ObservationAutoConfiguration.SERVICE_OBSERVATION)
+public class IdempotencyService {
+    
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    
+    static final int MAX_KEY_LENGTH = 255;
+    
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionService transactionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration claimTimeout;
+    private final Duration retention;
+    private final Cache<String, CompletedRequest> completedRequests;
+    
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              TransactionService transactionService,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${transactions.idempotency.cache-size:100000}") long cacheSize,
+                              @Value("${transactions.idempotency.cache-ttl:24h}") Duration cacheTtl,
+                              @Value("${transactions.idempotency.claim-timeout:2m}") Duration claimTimeout,
+                              @Value("${transactions.idempotency.retention:24h}") Duration retention) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionService = transactionService;
+        this.transactionTemplate = transactionTemplate;
+        this.claimTimeout = claimTimeout;
+        this.retention = retention;
+        // Caffeine evicts with W-TinyLFU, keeping hot retry keys resident under a fixed bound
+        this.completedRequests = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+    
+    /**
+     * Run a transaction-creating request at most once per idempotency key.
+     * Replays return the transaction created by the first request without running it again.
+     * A new key costs one insert: the claim is inserted first and the unique index on the key
+     * decides whether the request is new, so the table is only read for a key already in use.
+     * @param idempotencyKey Client-supplied key, or null to run the request unconditionally
+     * @param payload Request payload, fingerprinted so a key cannot be reused for another request
+     * @param request Creates the transaction
+     * @return Transaction created for the key
+     * @throws IdempotencyKeyReusedException if the key was first used with a different payload
+     */
+    public TransactionDto execute(String idempotencyKey, TransactionDto payload, Supplier<TransactionDto> request) {
+        if (idempotencyKey == null) {
+            return request.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(payload);
+        
+        CompletedRequest cached = completedRequests.getIfPresent(idempotencyKey);
+        if (cached != null) {
+            requireSamePayload(idempotencyKey, cached.fingerprint, fingerprint);
+            return cached.transaction;
+        }
+        
+        IdempotencyKey claim = reserve(idempotencyKey, fingerprint);
+        if (claim.getTransactionId() != null) {
+            return replay(claim);
+        }
+        
+        TransactionDto created;
+        try {
+            created = request.get();
+        } catch (RuntimeException ex) {
+            // Release the key so the client can retry a request that never produced a transaction;
+            // creation only fails before its row commits, so the retry cannot post a second time
+            transactionTemplate.execute(status -> idempotencyKeyRepository.release(claim.getId(), claim.getClaimedBy()));
+            throw ex;
+        }
+        
+        Integer recorded = transactionTemplate.execute(status ->
+                idempotencyKeyRepository.complete(claim.getId(), claim.getClaimedBy(), created.getId()));
+        if (recorded == null || recorded == 0) {
+            // The claim outlived the claim timeout and another request took the key over
+            log.warn("Idempotency-Key {} was taken over while transaction {} was being created", idempotencyKey, created.getId());
+            return created;
+        }
+        completedRequests.put(idempotencyKey, new CompletedRequest(fingerprint, created));
+        return created;
+    }
+    
+    /**
+     * Fingerprint of the fields that make up a create request, with amounts compared by value
+     * so "750.0" and "750.00" are the same request
+     * @return SHA-256 of the fields, hex encoded
+     */
+    static String fingerprint(TransactionDto payload) {
+        String amount = payload.getAmount() != null ? payload.getAmount().stripTrailingZeros().toPlainString() : null;
+        String fields = payload.getAccountId() + "|" + payload.getType() + "|" + amount;
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(fields.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    /**
+     * Delete keys older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${transactions.idempotency.purge-interval-ms:3600000}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> idempotencyKeyRepository.deleteCreatedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} idempotency keys created before {}", deleted, cutoff);
+        }
+    }
+    
+    /**
+     * Claim a key by inserting it, falling back to the stored key if it is already in use
+     * @return The new claim, the key as completed by an earlier request, or the key taken over
+     *         from a request that died without completing it
+     */
+    private IdempotencyKey reserve(String idempotencyKey, String fingerprint) {
+        IdempotencyKey reservation = new IdempotencyKey();
+        reservation.setIdempotencyKey(idempotencyKey);
+        reservation.setClaimedBy(UUID.randomUUID().toString());
+        reservation.setClaimedAt(LocalDateTime.now());
+        reservation.setRequestFingerprint(fingerprint);
+        try {
+            // The unique index decides whether the key is new and which of several concurrent first requests runs
+            return idempotencyKeyRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException ex) {
+            IdempotencyKey stored = idempotencyKeyRepository.findByIdempotencyKey(idempotencyKey)
+                    .orElseThrow(() -> new IdempotencyConflictException("A request with this Idempotency-Key failed concurrently, retry it"));
+            requireSamePayload(idempotencyKey, stored.getRequestFingerprint(), fingerprint);
+            return stored.getTransactionId() != null ? stored : takeOver(stored);
+        }
+    }
+    
+    /**
+     * Take over a key whose holder has not recorded a transaction within the claim timeout
+     */
+    private IdempotencyKey takeOver(IdempotencyKey stale) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minus(claimTimeout);
+        if (stale.getClaimedAt() != null && !stale.getClaimedAt().isBefore(staleBefore)) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+        }
+        
+        String owner = UUID.randomUUID().toString();
+        Integer taken = transactionTemplate.execute(status ->
+                idempotencyKeyRepository.takeOver(stale.getId(), owner, now, staleBefore));
+        if (taken == null || taken == 0) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+        }
+        log.warn("Took over Idempotency-Key {} claimed at {} by a request that never completed",
+                stale.getIdempotencyKey(), stale.getClaimedAt());
+        stale.setClaimedBy(owner);
+        stale.setClaimedAt(now);
+        return stale;
+    }
+    
+    /**
+     * Return the transaction recorded on a key by an earlier request, possibly on another instance
+     */
+    private TransactionDto replay(IdempotencyKey completed) {
+        TransactionDto transaction = transactionService.getTransactionById(completed.getTransactionId());
+        completedRequests.put(completed.getIdempotencyKey(), new CompletedRequest(completed.getRequestFingerprint(), transaction));
+        return transaction;
+    }
+    
+    /**
+     * Refuse a request whose payload differs from the one the key was first used with.
+     * Keys stored without a fingerprint accept any payload.
+     */
+    private static void requireSamePayload(String idempotencyKey, String storedFingerprint, String fingerprint) {
+        if (storedFingerprint != null && !storedFingerprint.equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key " + idempotencyKey
+                    + " was already used for a request with a different payload");
+        }
+    }
+    
+    /**
+     * Transaction created for a key, with the fingerprint of the request that created it
+     */
+    private static final class CompletedRequest {
+        
+        private final String fingerprint;
+        private final TransactionDto transaction;
+        
+        CompletedRequest(String fingerprint, TransactionDto transaction) {
+            this.fingerprint = fingerprint;
+            this.transaction = transaction;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.banking.transactions.service;
+
+import com.banking.transactions.entity.OutboxEvent;
+import com.banking.transactions.entity.OutboxFeed;
+import com.banking.transactions.entity.OutboxStatus;
+import com.banking.transactions.event.OutboxPublisher;
+import com.banking.transactions.event.TransactionEvent;
+import com.banking.transactions.repository.OutboxEventRepository;
+import com.banking.transactions.repository.OutboxFeedRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outbox events in id order and marks them published with the next positions in the
+ * event feed, in the same database transaction. The feed row stays locked until that
+ * transaction commits, so relays on several instances hand out positions one batch at a time
+ * and in commit order. A crash after publishing rolls the batch back and publishes it again,
+ * so delivery is at least once. An event whose payload cannot be read is parked as a dead
+ * letter instead of holding up the events behind it. Published events are purged once the
+ * retention period ends.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.outbox.relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    static final String OUTBOX_METRIC_PREFIX = "banking.outbox";
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxFeedRepository outboxFeedRepository;
+    private final OutboxService outboxService;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter failureCounter;
+    private final Counter deadLetterCounter;
+    private final Timer deliveryLag;
+    
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxFeedRepository outboxFeedRepository,
+                       OutboxService outboxService,
+                       OutboxPublisher outboxPublisher,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${transactions.outbox.batch-size:200}") int batchSize,
+                       @Value("${transactions.outbox.retention:7d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxFeedRepository = outboxFeedRepository;
+        this.outboxService = outboxService;
+        this.outboxPublisher = outboxPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.publishedCounter = Counter.builder(OUTBOX_METRIC_PREFIX + ".published")
+                .description("Outbox events published")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder(OUTBOX_METRIC_PREFIX + ".publish.failures")
+                .description("Outbox batches the publisher rejected and that will be retried")
+                .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder(OUTBOX_METRIC_PREFIX + ".dead.letters")
+                .description("Outbox events parked as dead letters because their payload could not be read")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder(OUTBOX_METRIC_PREFIX + ".delivery.lag")
+                .description("Time from writing an outbox event to publishing it")
+                .register(meterRegistry);
+        TimeGauge.builder(OUTBOX_METRIC_PREFIX + ".oldest.age", oldestPendingMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest unpublished event at the last relay run")
+                .register(meterRegistry);
+        // Kept by the relay from the batches it reads, so a scrape does not count the outbox table
+        Gauge.builder(OUTBOX_METRIC_PREFIX + ".pending", pendingEvents, AtomicLong::get)
+                .description("Unpublished outbox events found by the last relay run, up to the batch size; "
+                        + "a full batch means more may be waiting")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Create the feed row when the schema was generated rather than migrated. Instances starting
+     * together may race to insert it; the loser finds it already there.
+     */
+    @PostConstruct
+    public void initializeFeed() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!outboxFeedRepository.existsById(OutboxFeed.ID)) {
+                    outboxFeedRepository.save(new OutboxFeed(OutboxFeed.ID, 0L));
+                }
+            });
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Outbox feed row was created by another instance");
+        }
+    }
+    
+    /**
+     * Drain the outbox batch by batch until a short batch shows it is empty or a batch fails
+     */
+    @Scheduled(fixedDelayString = "${transactions.outbox.poll-interval-ms:500}")
+    public void relay() {
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == batchSize);
+    }
+    
+    /**
+     * Delete events published longer ago than the retention period. Feed consumers that fall
+     * further behind than that miss the deleted events.
+     */
+    @Scheduled(fixedDelayString = "${transactions.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(OutboxStatus.PUBLISHED, cutoff));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} outbox events published before {}", deleted, cutoff);
+        }
+    }
+    
+    /**
+     * Publish the oldest batch of pending events and mark it published, parking unreadable events
+     * @return Number of events published or parked, 0 when the outbox is empty or the batch failed
+     */
+    int relayBatch() {
+        List<OutboxEvent> batch;
+        try {
+            batch = transactionTemplate.execute(status -> publishBatch());
+        } catch (RuntimeException ex) {
+            failureCounter.increment();
+            return 0;
+        }
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        if (batch.size() < batchSize) {
+            pendingEvents.set(0);
+        }
+        
+        // Counted after commit, so a batch that rolls back is not counted twice
+        int published = 0;
+        for (OutboxEvent outboxEvent : batch) {
+            if (outboxEvent.getStatus() == OutboxStatus.PUBLISHED) {
+                deliveryLag.record(Duration.between(outboxEvent.getCreatedAt(), outboxEvent.getPublishedAt()));
+                published++;
+            } else {
+                deadLetterCounter.increment();
+            }
+        }
+        publishedCounter.increment(published);
+        return batch.size();
+    }
+    
+    /**
+     * Runs inside the relay transaction; anything thrown rolls back the positions handed out
+     */
+    private List<OutboxEvent> publishBatch() {
+        OutboxFeed feed = outboxFeedRepository.findByIdForUpdate(OutboxFeed.ID)
+                .orElseThrow(() -> new IllegalStateException("Outbox feed row is missing"));
+        List<OutboxEvent> batch = outboxEventRepository.findByStatusOrderByIdAsc(OutboxStatus.PENDING, PageRequest.of(0, batchSize));
+        LocalDateTime now = LocalDateTime.now();
+        oldestPendingMillis.set(batch.isEmpty() ? 0 : Duration.between(batch.get(0).getCreatedAt(), now).toMillis());
+        pendingEvents.set(batch.size());
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        
+        long position = feed.getLastPosition();
+        List<TransactionEvent> events = new ArrayList<>(batch.size());
+        List<OutboxEvent> readable = new ArrayList<>(batch.size());
+        for (OutboxEvent outboxEvent : batch) {
+            try {
+                outboxEvent.setFeedPosition(position + 1);
+                events.add(outboxService.toEvent(outboxEvent));
+                readable.add(outboxEvent);
+                position++;
+            } catch (IllegalStateException ex) {
+                log.error("Parking outbox event {} of transaction {} as a dead letter",
+                        outboxEvent.getId(), outboxEvent.getTransactionId(), ex);
+                outboxEvent.setFeedPosition(null);
+                outboxEvent.setStatus(OutboxStatus.DEAD_LETTER);
+            }
+        }
+        if (!events.isEmpty()) {
+            outboxPublisher.publish(events);
+        }
+        
+        LocalDateTime publishedAt = LocalDateTime.now();
+        for (OutboxEvent outboxEvent : readable) {
+            outboxEvent.setStatus(OutboxStatus.PUBLISHED);
+            outboxEvent.setPublishedAt(publishedAt);
+        }
+        outboxEventRepository.saveAll(batch);
+        feed.setLastPosition(position);
+        outboxFeedRepository.save(feed);
+        return batch;
+    }
+}
@@ -0,0 +1,87 @@
+package com.banking.transactions.service;
+
+import com.banking.common.observation.ObservationAutoConfiguration;
+import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.dto.TransactionEventPageDto;
+import com.banking.transactions.entity.OutboxEvent;
+import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.event.TransactionEvent;
+import com.banking.transactions.event.TransactionEventType;
+import com.banking.transactions.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Observed(name = ObservationAutoConfiguration.SERVICE_OBSERVATION)
+@RequiredArgsConstructor
+public class OutboxService {
+    
+    static final int MAX_FEED_PAGE_SIZE = 1000;
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * Write an event for a saved transaction. Must run inside the database transaction
+     * that saved it, so the event is committed if and only if the change is.
+     * @param eventType Kind of change
+     * @param transaction Saved transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(TransactionEventType eventType, Transaction transaction) {
+        TransactionDto snapshot = new TransactionDto(transaction.getId(), transaction.getAccountId(), transaction.getType(),
+                transaction.getAmount(), transaction.getTransactionDate().toString(), transaction.getStatus());
+        OutboxEvent event = new OutboxEvent();
+        event.setTransactionId(transaction.getId());
+        event.setEventType(eventType);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(snapshot));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize transaction " + transaction.getId(), ex);
+        }
+        outboxEventRepository.save(event);
+    }
+    
+    /**
+     * Read published events in feed order. A consumer keeps the returned {@code nextAfter} and
+     * passes it back to resume where it stopped; events are kept for the outbox retention period.
+     * @param after Feed position of the last event already read, 0 to start from the oldest kept event
+     * @param limit Maximum number of events to return, capped at {@value #MAX_FEED_PAGE_SIZE}
+     * @return Events after the position and the position to resume from
+     */
+    @Transactional(readOnly = true)
+    public TransactionEventPageDto getPublishedEvents(long after, int limit) {
+        if (after < 0) {
+            throw new IllegalArgumentException("Feed position must not be negative");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+        List<TransactionEvent> events = outboxEventRepository
+                .findByFeedPositionGreaterThanOrderByFeedPositionAsc(after, PageRequest.of(0, pageSize)).stream()
+                .map(this::toEvent)
+                .toList();
+        long nextAfter = events.isEmpty() ? after : events.get(events.size() - 1).getPosition();
+        return new TransactionEventPageDto(events, nextAfter);
+    }
+    
+    /**
+     * Event carried by an outbox row
+     * @throws IllegalStateException when the payload cannot be read
+     */
+    public TransactionEvent toEvent(OutboxEvent outboxEvent) {
+        try {
+            TransactionDto transaction = objectMapper.readValue(outboxEvent.getPayload(), TransactionDto.class);
+            return new TransactionEvent(outboxEvent.getId(), outboxEvent.getFeedPosition(), outboxEvent.getEventType(),
+                    outboxEvent.getCreatedAt(), transaction);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable outbox event " + outboxEvent.getId(), ex);
+        }
+    }
+}
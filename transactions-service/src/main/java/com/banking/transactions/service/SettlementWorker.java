@@ -0,0 +1,152 @@
+package com.banking.transactions.service;
+
+import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settles PENDING transactions: claims the oldest ones in batches under a time-limited lease
+ * and hands them to {@link TransactionSettler}, which posts them to accounts-service and records
+ * SUCCESS or FAILED. Leases keep concurrent instances on disjoint rows; rows left behind by a
+ * crashed worker or request are reclaimed once their lease expires.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.settlement.enabled", havingValue = "true", matchIfMissing = true)
+public class SettlementWorker {
+    
+    static final String SETTLEMENT_METRIC_PREFIX = "banking.settlement";
+    
+    private final TransactionRepository transactionRepository;
+    private final TransactionSettler transactionSettler;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration leaseDuration;
+    private final ExecutorService executor;
+    private final String workerId = UUID.randomUUID().toString();
+    private final Counter succeededCounter;
+    private final Counter failedCounter;
+    private final Counter deferredCounter;
+    private final AtomicLong pendingTransactions = new AtomicLong();
+    
+    public SettlementWorker(TransactionRepository transactionRepository,
+                            TransactionSettler transactionSettler,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${transactions.settlement.batch-size:100}") int batchSize,
+                            @Value("${transactions.settlement.concurrency:4}") int concurrency,
+                            @Value("${transactions.settlement.lease:30s}") Duration leaseDuration) {
+        this.transactionRepository = transactionRepository;
+        this.transactionSettler = transactionSettler;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.leaseDuration = leaseDuration;
+        this.executor = Executors.newFixedThreadPool(concurrency);
+        this.succeededCounter = settledCounter(meterRegistry, "success");
+        this.failedCounter = settledCounter(meterRegistry, "failed");
+        this.deferredCounter = settledCounter(meterRegistry, "deferred");
+        // Kept by the worker from the batches it claims, so a scrape does not count the transactions table
+        Gauge.builder(SETTLEMENT_METRIC_PREFIX + ".pending", pendingTransactions, AtomicLong::get)
+                .description("Claimable PENDING transactions found by the last claim, up to the batch size; "
+                        + "a full batch means more may be waiting")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Settle batch after batch until the queue is drained or a batch could not be settled in full
+     */
+    @Scheduled(fixedDelayString = "${transactions.settlement.poll-interval-ms:1000}")
+    public void run() {
+        int settled;
+        do {
+            settled = settleBatch();
+        } while (settled == batchSize);
+    }
+    
+    /**
+     * Claim up to one batch of PENDING transactions and settle them in parallel
+     * @return Number of transactions settled
+     */
+    int settleBatch() {
+        List<Transaction> claimed = claimBatch();
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        List<CompletableFuture<Boolean>> settlements = claimed.stream()
+                .map(transaction -> CompletableFuture.supplyAsync(() -> settle(transaction), executor))
+                .toList();
+        int settled = 0;
+        for (CompletableFuture<Boolean> settlement : settlements) {
+            if (settlement.join()) {
+                settled++;
+            }
+        }
+        return settled;
+    }
+    
+    /**
+     * Lease the oldest unclaimed PENDING transactions to this worker
+     */
+    List<Transaction> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(leaseDuration);
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = transactionRepository.findClaimableIds(TransactionStatus.PENDING, now, PageRequest.of(0, batchSize));
+            pendingTransactions.set(ids.size());
+            if (ids.isEmpty() || transactionRepository.claim(ids, TransactionStatus.PENDING, workerId, leaseUntil, now) == 0) {
+                return List.<Transaction>of();
+            }
+            // Keep only the rows this worker won; the rest went to a concurrent claimer
+            return transactionRepository.findAllById(ids).stream()
+                    .filter(transaction -> workerId.equals(transaction.getClaimedBy()))
+                    .toList();
+        });
+    }
+    
+    /**
+     * Settle one claimed transaction and count the outcome
+     * @return false if the transaction was left PENDING to be retried after its lease expires
+     */
+    boolean settle(Transaction transaction) {
+        TransactionStatus outcome = transactionSettler.settle(transaction);
+        switch (outcome) {
+            case SUCCESS -> succeededCounter.increment();
+            case FAILED -> failedCounter.increment();
+            default -> {
+                deferredCounter.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private static Counter settledCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(SETTLEMENT_METRIC_PREFIX + ".settled")
+                .description("PENDING transactions processed by settlement, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
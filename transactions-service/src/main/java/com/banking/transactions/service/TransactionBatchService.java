@@ -0,0 +1,213 @@
+package com.banking.transactions.service;
+
+import com.banking.common.observation.ObservationAutoConfiguration;
+import com.banking.transactions.dto.BatchTransactionResponse;
+import com.banking.transactions.dto.BatchTransactionResult;
+import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.event.TransactionEventType;
+import com.banking.transactions.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Observed(name = ObservationAutoConfiguration.SERVICE_OBSERVATION)
+public class TransactionBatchService {
+    
+    static final String OUTCOME_CREATED = "CREATED";
+    static final String OUTCOME_REJECTED = "REJECTED";
+    
+    private final TransactionRepository transactionRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxService outboxService;
+    private final int chunkSize;
+    
+    public TransactionBatchService(TransactionRepository transactionRepository,
+                                   Validator validator,
+                                   TransactionTemplate transactionTemplate,
+                                   ObjectMapper objectMapper,
+                                   OutboxService outboxService,
+                                   @Value("${transactions.batch.chunk-size:500}") int chunkSize) {
+        this.transactionRepository = transactionRepository;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.outboxService = outboxService;
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Ingest a list of transactions in chunks. Rows are bound one at a time, so a row with an
+     * unknown type label or a mistyped field is rejected on its own instead of failing the batch.
+     * @param rows Transactions to create, as parsed JSON objects
+     * @return Per-row ingestion results
+     */
+    public BatchTransactionResponse ingest(List<JsonNode> rows) {
+        BatchIngestion ingestion = new BatchIngestion();
+        rows.forEach(ingestion::accept);
+        return ingestion.finish();
+    }
+    
+    /**
+     * Ingest newline-delimited JSON transactions, one object per line, without
+     * buffering the whole request body
+     * @param inputStream NDJSON request body
+     * @return Per-row ingestion results
+     */
+    public BatchTransactionResponse ingestNdjson(InputStream inputStream) throws IOException {
+        BatchIngestion ingestion = new BatchIngestion();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode row;
+                try {
+                    row = objectMapper.readTree(line);
+                } catch (JsonProcessingException ex) {
+                    ingestion.reject(Map.of("line", "Malformed JSON: " + ex.getOriginalMessage()));
+                    continue;
+                }
+                ingestion.accept(row);
+            }
+        }
+        return ingestion.finish();
+    }
+    
+    /**
+     * Accumulates validated rows and writes them one chunk per database transaction,
+     * together with their CREATED outbox events, so Hibernate can group the inserts into JDBC batches
+     */
+    private class BatchIngestion {
+        
+        private final List<BatchTransactionResult> results = new ArrayList<>();
+        private final List<Transaction> chunk = new ArrayList<>(chunkSize);
+        private final List<BatchTransactionResult> chunkResults = new ArrayList<>(chunkSize);
+        private int created;
+        private int rejected;
+        
+        void accept(JsonNode row) {
+            TransactionDto dto;
+            try {
+                dto = objectMapper.treeToValue(row, TransactionDto.class);
+            } catch (JsonProcessingException ex) {
+                reject(bindingErrors(ex));
+                return;
+            }
+            if (dto == null) {
+                reject(Map.of("row", "Transaction must be a JSON object"));
+                return;
+            }
+            accept(dto);
+        }
+        
+        void accept(TransactionDto dto) {
+            Set<ConstraintViolation<TransactionDto>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                Map<String, String> errors = new HashMap<>();
+                violations.forEach(violation ->
+                        errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+                reject(errors);
+                return;
+            }
+            
+            BatchTransactionResult result = new BatchTransactionResult(results.size(), null, null, null);
+            results.add(result);
+            chunk.add(convertToEntity(dto));
+            chunkResults.add(result);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+        
+        void reject(Map<String, String> errors) {
+            results.add(new BatchTransactionResult(results.size(), null, OUTCOME_REJECTED, errors));
+            rejected++;
+        }
+        
+        BatchTransactionResponse finish() {
+            flush();
+            return new BatchTransactionResponse(results.size(), created, rejected, results);
+        }
+        
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                List<Transaction> saved = transactionTemplate.execute(status -> {
+                    List<Transaction> rows = transactionRepository.saveAll(chunk);
+                    rows.forEach(row -> outboxService.append(TransactionEventType.CREATED, row));
+                    return rows;
+                });
+                for (int i = 0; i < chunkResults.size(); i++) {
+                    BatchTransactionResult result = chunkResults.get(i);
+                    result.setId(saved.get(i).getId());
+                    result.setOutcome(OUTCOME_CREATED);
+                }
+                created += chunkResults.size();
+            } catch (DataAccessException ex) {
+                chunkResults.forEach(result -> {
+                    result.setOutcome(OUTCOME_REJECTED);
+                    result.setErrors(Map.of("chunk", "Failed to persist chunk: " + ex.getMostSpecificCause().getMessage()));
+                });
+                rejected += chunkResults.size();
+            }
+            chunk.clear();
+            chunkResults.clear();
+        }
+    }
+    
+    /**
+     * Errors of a row that could not be bound, keyed by the offending field where Jackson reports it
+     */
+    private static Map<String, String> bindingErrors(JsonProcessingException ex) {
+        String field = "row";
+        if (ex instanceof JsonMappingException mappingException && !mappingException.getPath().isEmpty()) {
+            String name = mappingException.getPath().get(mappingException.getPath().size() - 1).getFieldName();
+            if (name != null) {
+                field = name;
+            }
+        }
+        // Label checks in @JsonCreator methods throw IllegalArgumentException with a readable message
+        String message = ex.getCause() instanceof IllegalArgumentException ? ex.getCause().getMessage() : ex.getOriginalMessage();
+        return Map.of(field, message);
+    }
+    
+    /**
+     * Convert TransactionDto to Transaction entity
+     */
+    private Transaction convertToEntity(TransactionDto dto) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(dto.getAccountId());
+        transaction.setType(dto.getType());
+        transaction.setAmount(dto.getAmount());
+        // Ingested rows are queued for settlement instead of posting one balance update per row
+        transaction.setStatus(TransactionStatus.PENDING);
+        return transaction;
+    }
+}
@@ -0,0 +1,244 @@
+package com.banking.transactions.service;
+
+import com.banking.common.observation.ObservationAutoConfiguration;
+import com.banking.transactions.dto.ExportFormat;
+import com.banking.transactions.dto.TransactionFilter;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+@Observed(name = ObservationAutoConfiguration.SERVICE_OBSERVATION)
+public class TransactionExportService {
+    
+    static final String CSV_HEADER = "id,account_id,type,amount,transaction_date,status";
+    
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    
+    public TransactionExportService(DataSource dataSource,
+                                    ObjectMapper objectMapper,
+                                    @Value("${transactions.export.fetch-size:1000}") int fetchSize) {
+        // A dedicated template, so the fetch size only applies to exports
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Write the transactions matching a filter to a stream in id order. Rows are read through a
+     * forward-only cursor and written as they arrive, so memory use does not grow with the result.
+     * @param filter Date range, account, status and type filters; null fields are not applied
+     * @param format Output format
+     * @param outputStream Destination, left open
+     * @return Number of exported transactions
+     */
+    @Transactional(readOnly = true)
+    public long export(TransactionFilter filter, ExportFormat format, OutputStream outputStream) throws IOException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, account_id, type, amount, transaction_date, status FROM transactions WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (filter.getFrom() != null) {
+            sql.append(" AND transaction_date >= ?");
+            args.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND transaction_date < ?");
+            args.add(Timestamp.valueOf(filter.getTo()));
+        }
+        if (filter.getAccountId() != null) {
+            sql.append(" AND account_id = ?");
+            args.add(filter.getAccountId());
+        }
+        if (filter.getStatus() != null) {
+            sql.append(" AND status = ?");
+            args.add(String.valueOf(filter.getStatus().getCode()));
+        }
+        if (filter.getType() != null) {
+            sql.append(" AND type = ?");
+            args.add(String.valueOf(filter.getType().getCode()));
+        }
+        sql.append(" ORDER BY id");
+        
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        long[] rows = {0};
+        try {
+            rowWriter.start();
+            jdbcTemplate.query(sql.toString(), resultSet -> {
+                rowWriter.write(resultSet);
+                rows[0]++;
+            }, args.toArray());
+            rowWriter.finish();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        return rows[0];
+    }
+    
+    /**
+     * Whether an Accept-Encoding header allows a gzip-compressed response. An explicit gzip
+     * (or x-gzip) entry decides, otherwise a * entry does; an entry with q=0 refuses the coding.
+     * @param acceptEncoding Header value, or null when absent
+     * @return True if gzip is acceptable
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        Double decisive = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return decisive != null && decisive > 0;
+    }
+    
+    /**
+     * Quality of an Accept-Encoding entry: 1 without a q parameter, 0 when it cannot be read
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.startsWith("q=") || parameter.startsWith("Q="))) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+    
+    /**
+     * Writes one result row at a time in an export format
+     */
+    private abstract static class RowWriter {
+        
+        protected final Writer writer;
+        
+        RowWriter(Writer writer) {
+            this.writer = writer;
+        }
+        
+        void start() throws IOException {
+        }
+        
+        abstract void writeRow(long id, long accountId, String type, String amount, String date, String status) throws IOException;
+        
+        void finish() throws IOException {
+            writer.flush();
+        }
+        
+        void write(ResultSet resultSet) throws SQLException {
+            try {
+                writeRow(resultSet.getLong("id"),
+                        resultSet.getLong("account_id"),
+                        TransactionType.fromCode(resultSet.getString("type").charAt(0)).getLabel(),
+                        resultSet.getBigDecimal("amount").toPlainString(),
+                        resultSet.getTimestamp("transaction_date").toLocalDateTime().toString(),
+                        TransactionStatus.fromCode(resultSet.getString("status").charAt(0)).name());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+    
+    private static class CsvRowWriter extends RowWriter {
+        
+        CsvRowWriter(Writer writer) {
+            super(writer);
+        }
+        
+        @Override
+        void start() throws IOException {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        
+        @Override
+        void writeRow(long id, long accountId, String type, String amount, String date, String status) throws IOException {
+            // No field can contain a comma, quote or line break, so nothing needs quoting
+            writer.write(Long.toString(id));
+            writer.write(',');
+            writer.write(Long.toString(accountId));
+            writer.write(',');
+            writer.write(type);
+            writer.write(',');
+            writer.write(amount);
+            writer.write(',');
+            writer.write(date);
+            writer.write(',');
+            writer.write(status);
+            writer.write('\n');
+        }
+    }
+    
+    private class NdjsonRowWriter extends RowWriter {
+        
+        private JsonGenerator generator;
+        
+        NdjsonRowWriter(Writer writer) {
+            super(writer);
+        }
+        
+        @Override
+        void start() throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            // Rows are separated by the newline written after each one instead of a space
+            generator.setRootValueSeparator(null);
+        }
+        
+        @Override
+        void writeRow(long id, long accountId, String type, String amount, String date, String status) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            generator.writeNumberField("accountId", accountId);
+            generator.writeStringField("type", type);
+            generator.writeFieldName("amount");
+            generator.writeNumber(amount);
+            generator.writeStringField("transactionDate", date);
+            generator.writeStringField("status", status);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+            super.finish();
+        }
+    }
+}
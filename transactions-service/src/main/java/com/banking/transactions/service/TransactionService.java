@@ -1,42 +1,178 @@
 package com.banking.transactions.service;
 
+import com.banking.common.observation.ObservationAutoConfiguration;
+import com.banking.transactions.dto.StatementDto;
 import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.dto.TransactionFilter;
+import com.banking.transactions.dto.TransactionPageDto;
+import com.banking.transactions.dto.TransactionSortField;
+import com.banking.transactions.dto.TransferDto;
+import com.banking.transactions.dto.TransferRequestDto;
 import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.event.TransactionEventType;
 import com.banking.transactions.exception.TransactionNotFoundException;
 import com.banking.transactions.repository.TransactionRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Observed(name = ObservationAutoConfiguration.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 public class TransactionService {
     
+    static final int MAX_PAGE_SIZE = 500;
+    
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+    
     private final TransactionRepository transactionRepository;
+    private final TransactionSettler transactionSettler;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
     
     /**
-     * Initiate a new transaction
+     * Initiate a new transaction and post it to the account balance.
+     * The transaction is committed as PENDING with its CREATED outbox event before anything is
+     * posted, then settled: a posting rejected by accounts-service is recorded as FAILED.
+     * If the posting or the final write cannot complete, the transaction stays PENDING and the
+     * settlement worker finishes it once the request's lease expires; the posting is keyed by
+     * the transaction ID, so it is never applied twice.
      * @param transactionDto Transaction details
-     * @return Created transaction
+     * @return Created transaction, SUCCESS or FAILED, or PENDING if settlement was deferred
      */
     public TransactionDto createTransaction(TransactionDto transactionDto) {
-        Transaction transaction = convertToEntity(transactionDto);
-        // Set default status to SUCCESS for simplicity
-        transaction.setStatus("SUCCESS");
-        Transaction savedTransaction = transactionRepository.save(transaction);
+        return createAndSettle(convertToEntity(transactionDto));
+    }
+    
+    /**
+     * Move money between two accounts, recorded as a WITHDRAWAL on the source and a DEPOSIT on
+     * the destination that share a transfer ID. The debit leg is committed as PENDING and settled
+     * like any other transaction, as one transfer posting that moves both balances atomically;
+     * the credit leg is written with the SUCCESS outcome. A rejected transfer leaves only the
+     * FAILED debit leg, and a deferred one is finished by the settlement worker.
+     * @param transferRequest Source account, destination account and amount
+     * @return Both legs; the credit leg is null unless the transfer succeeded
+     */
+    public TransferDto createTransfer(TransferRequestDto transferRequest) {
+        Transaction debit = new Transaction();
+        debit.setAccountId(transferRequest.getSourceAccountId());
+        debit.setType(TransactionType.WITHDRAWAL);
+        debit.setAmount(transferRequest.getAmount());
+        debit.setTransferId(UUID.randomUUID().toString());
+        debit.setCounterpartyAccountId(transferRequest.getDestinationAccountId());
+        createAndSettle(debit);
+        return getTransfer(debit.getTransferId());
+    }
+    
+    /**
+     * Get both legs of a transfer
+     * @param transferId Transfer ID
+     * @return Debit leg, and the credit leg once the transfer succeeded
+     */
+    public TransferDto getTransfer(String transferId) {
+        List<Transaction> legs = transactionRepository.findByTransferIdOrderByIdAsc(transferId);
+        if (legs.isEmpty()) {
+            throw new TransactionNotFoundException("Transfer not found with id: " + transferId);
+        }
+        TransactionDto debit = null;
+        TransactionDto credit = null;
+        for (Transaction leg : legs) {
+            if (leg.getType() == TransactionType.WITHDRAWAL) {
+                debit = convertToDto(leg);
+            } else {
+                credit = convertToDto(leg);
+            }
+        }
+        return new TransferDto(transferId, debit, credit);
+    }
+    
+    /**
+     * Commit a new transaction as PENDING with its CREATED outbox event, then try to settle it
+     * @return The transaction, SUCCESS or FAILED, or PENDING if settlement was deferred
+     */
+    private TransactionDto createAndSettle(Transaction transaction) {
+        transactionSettler.claimForRequest(transaction);
+        Transaction savedTransaction = transactionTemplate.execute(status -> {
+            Transaction saved = transactionRepository.save(transaction);
+            outboxService.append(TransactionEventType.CREATED, saved);
+            return saved;
+        });
+        TransactionDto pending = convertToDto(savedTransaction);
+        try {
+            transactionSettler.settle(savedTransaction);
+        } catch (RuntimeException ex) {
+            // The row exists, so the request must not fail: a retry would create and post a second transaction
+            log.warn("Settlement of transaction {} deferred to the settlement worker", savedTransaction.getId(), ex);
+            return pending;
+        }
         return convertToDto(savedTransaction);
     }
     
     /**
-     * Get all transactions
-     * @return List of all transactions
+     * List transactions one page at a time. Pages are addressed by number, or by the opaque cursor
+     * returned with the previous page, which stays cheap however deep the client pages.
+     * @param filter Filters; null fields are not applied
+     * @param sort Whitelisted sort property, optionally followed by ",asc" or ",desc"
+     * @param page Page number, ignored when a cursor is given
+     * @param cursor Cursor returned with the previous page, or null
+     * @param size Maximum number of transactions to return, capped at {@value #MAX_PAGE_SIZE}
+     * @return Page of transactions with the cursor of the next page
      */
-    public List<TransactionDto> getAllTransactions() {
-        return transactionRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public TransactionPageDto getTransactionPage(TransactionFilter filter, String sort, int page, String cursor, int size) {
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().isBefore(filter.getTo())) {
+            throw new IllegalArgumentException("Range start must be before its end");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String[] sortParts = sort.split(",", 2);
+        TransactionSortField sortField = TransactionSortField.fromProperty(sortParts[0].trim());
+        Sort.Direction direction = sortParts.length > 1 ? Sort.Direction.fromString(sortParts[1].trim()) : Sort.Direction.ASC;
+        
+        // Fetch one extra row to find out whether another page follows
+        List<TransactionDto> transactions;
+        Integer pageNumber = null;
+        if (cursor == null || cursor.isBlank()) {
+            long offset = (long) page * pageSize;
+            if (page < 0 || offset > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Page must be between 0 and " + Integer.MAX_VALUE / pageSize);
+            }
+            pageNumber = page;
+            transactions = transactionRepository.search(filter, sortField, direction, null, null, (int) offset, pageSize + 1);
+        } else {
+            String[] position = decodeCursor(cursor, sortField, direction);
+            Object afterValue;
+            try {
+                afterValue = sortField.getParser().apply(position[1]);
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            transactions = transactionRepository.search(filter, sortField, direction, afterValue, Long.valueOf(position[0]), 0, pageSize + 1);
+        }
+        
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions = transactions.subList(0, pageSize);
+            nextCursor = encodeCursor(transactions.get(pageSize - 1), sortField, direction);
+        }
+        return new TransactionPageDto(transactions, pageNumber, pageSize, nextCursor);
     }
     
     /**
@@ -56,9 +192,73 @@ public class TransactionService {
      * @return List of account transactions
      */
     public List<TransactionDto> getTransactionsByAccountId(Long accountId) {
-        return transactionRepository.findByAccountIdOrderByTransactionDateDesc(accountId).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return transactionRepository.findDtosByAccountId(accountId);
+    }
+    
+    /**
+     * Get one page of an account's transaction history, newest first, using keyset
+     * pagination on (transactionDate, id)
+     * @param accountId Account ID
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page
+     * @param limit Maximum number of transactions to return, capped at {@value #MAX_PAGE_SIZE}
+     * @return Page of account transactions with the cursor for the next page
+     */
+    public TransactionPageDto getTransactionPageByAccountId(Long accountId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to find out whether another page follows
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        
+        List<TransactionDto> transactions;
+        if (cursor == null || cursor.isBlank()) {
+            transactions = transactionRepository.findFirstPageByAccountId(accountId, pageRequest);
+        } else {
+            String[] position = decodeCursor(cursor);
+            transactions = transactionRepository.findPageByAccountIdBefore(
+                    accountId, LocalDateTime.parse(position[0]), Long.valueOf(position[1]), pageRequest);
+        }
+        
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions = transactions.subList(0, pageSize);
+            nextCursor = encodeCursor(transactions.get(pageSize - 1));
+        }
+        return new TransactionPageDto(transactions, null, pageSize, nextCursor);
+    }
+    
+    /**
+     * Stream an account's full transaction history, newest first, without holding it in memory
+     * @param accountId Account ID
+     * @param consumer Receives each transaction as it is read
+     */
+    @Transactional(readOnly = true)
+    public void streamTransactionsByAccountId(Long accountId, Consumer<TransactionDto> consumer) {
+        // Rows are unmanaged DTOs, so nothing accumulates in the persistence context and heap use stays flat
+        try (Stream<TransactionDto> transactions = transactionRepository.streamByAccountId(accountId)) {
+            transactions.forEach(consumer);
+        }
+    }
+    
+    /**
+     * Build an account statement for a period from the nearest balance snapshot, so the
+     * work done grows with the period rather than with the age of the account
+     * @param accountId Account ID
+     * @param from Start of the period, inclusive
+     * @param to End of the period, exclusive
+     * @return Opening balance, posted transactions oldest first, and closing balance
+     */
+    @Transactional(readOnly = true)
+    public StatementDto getStatement(Long accountId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Statement period must end after it starts");
+        }
+        BigDecimal openingBalance = balanceSnapshotService.getBalanceBefore(accountId, from);
+        List<TransactionDto> transactions = transactionRepository.findInPeriod(accountId, TransactionStatus.SUCCESS, from, to);
+        
+        BigDecimal closingBalance = openingBalance;
+        for (TransactionDto transaction : transactions) {
+            closingBalance = closingBalance.add(BalanceSnapshotService.signedAmount(transaction.getType(), transaction.getAmount()));
+        }
+        return new StatementDto(accountId, from.toString(), to.toString(), openingBalance, closingBalance, transactions);
     }
     
     /**
@@ -66,32 +266,41 @@ public class TransactionService {
      * @param status Transaction status
      * @return List of transactions with the specified status
      */
-    public List<TransactionDto> getTransactionsByStatus(String status) {
-        return transactionRepository.findByStatus(status).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public List<TransactionDto> getTransactionsByStatus(TransactionStatus status) {
+        return transactionRepository.findDtosByStatus(status);
     }
     
     /**
-     * Update transaction status (for amending transaction details before completion)
+     * Amend the type and amount of a transaction before completion, writing an UPDATED outbox
+     * event in the same database transaction. The status is not updatable: only settlement
+     * moves a transaction out of PENDING, after posting it to the account balance.
      * @param id Transaction ID
-     * @param transactionDto Updated transaction details
+     * @param transactionDto Updated transaction details; status must be absent or PENDING
      * @return Updated transaction
+     * @throws IllegalArgumentException if the request asks for another status
      */
+    @Transactional
     public TransactionDto updateTransaction(Long id, TransactionDto transactionDto) {
+        if (transactionDto.getStatus() != null && transactionDto.getStatus() != TransactionStatus.PENDING) {
+            throw new IllegalArgumentException("Transaction status is set by settlement and cannot be updated");
+        }
         Transaction existingTransaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new TransactionNotFoundException("Transaction not found with id: " + id));
         
         // Only allow updates if transaction is still PENDING
-        if (!"PENDING".equals(existingTransaction.getStatus())) {
+        if (existingTransaction.getStatus() != TransactionStatus.PENDING) {
             throw new IllegalStateException("Cannot update completed transaction");
         }
+        if (existingTransaction.getTransferId() != null) {
+            throw new IllegalArgumentException("Transfer legs cannot be amended");
+        }
+        requireUnclaimed(existingTransaction);
         
         existingTransaction.setAmount(transactionDto.getAmount());
         existingTransaction.setType(transactionDto.getType());
-        existingTransaction.setStatus(transactionDto.getStatus());
         
         Transaction updatedTransaction = transactionRepository.save(existingTransaction);
+        outboxService.append(TransactionEventType.UPDATED, updatedTransaction);
         return convertToDto(updatedTransaction);
     }
     
@@ -104,17 +313,81 @@ public class TransactionService {
                 .orElseThrow(() -> new TransactionNotFoundException("Transaction not found with id: " + id));
         
         // Only allow deletion if transaction is PENDING
-        if (!"PENDING".equals(transaction.getStatus())) {
+        if (transaction.getStatus() != TransactionStatus.PENDING) {
             throw new IllegalStateException("Cannot cancel completed transaction");
         }
+        requireUnclaimed(transaction);
         
         transactionRepository.deleteById(id);
     }
     
+    /**
+     * Reject changes to a PENDING transaction while a settlement worker holds it
+     */
+    private void requireUnclaimed(Transaction transaction) {
+        if (transaction.getLeaseUntil() != null && LocalDateTime.now().isBefore(transaction.getLeaseUntil())) {
+            throw new IllegalStateException("Transaction is being settled");
+        }
+    }
+    
+    /**
+     * Encode the keyset position of a transaction as an opaque cursor
+     */
+    private String encodeCursor(TransactionDto transaction) {
+        String position = transaction.getTransactionDate() + "|" + transaction.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor into its transaction date and ID parts
+     */
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+    
+    /**
+     * Encode the keyset position of a transaction under a list sort as an opaque cursor
+     */
+    private String encodeCursor(TransactionDto transaction, TransactionSortField sortField, Sort.Direction direction) {
+        String position = sortField + "|" + direction + "|" + transaction.getId() + "|" + sortField.getAccessor().apply(transaction);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a list cursor into its transaction ID and sort value parts, rejecting cursors issued for another sort
+     */
+    private String[] decodeCursor(String cursor, TransactionSortField sortField, Sort.Direction direction) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            Long.parseLong(parts[2]);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (!parts[0].equals(sortField.name()) || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort");
+        }
+        return new String[]{parts[2], parts[3]};
+    }
+    
     /**
      * Convert Transaction entity to TransactionDto
      */
-    private TransactionDto convertToDto(Transaction transaction) {
+    TransactionDto convertToDto(Transaction transaction) {
         TransactionDto dto = new TransactionDto();
         dto.setId(transaction.getId());
         dto.setAccountId(transaction.getAccountId());
@@ -128,7 +401,7 @@ public class TransactionService {
     /**
      * Convert TransactionDto to Transaction entity
      */
-    private Transaction convertToEntity(TransactionDto dto) {
+    Transaction convertToEntity(TransactionDto dto) {
         Transaction transaction = new Transaction();
         transaction.setAccountId(dto.getAccountId());
         transaction.setType(dto.getType());
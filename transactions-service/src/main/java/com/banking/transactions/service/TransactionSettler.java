@@ -0,0 +1,170 @@
+package com.banking.transactions.service;
+
+import com.banking.transactions.client.AccountsClient;
+import com.banking.transactions.dto.AccountBalanceDto;
+import com.banking.transactions.dto.TransferBalancesDto;
+import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.event.TransactionEventType;
+import com.banking.transactions.exception.AccountsServiceUnavailableException;
+import com.banking.transactions.exception.PostingRejectedException;
+import com.banking.transactions.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Posts claimed PENDING transactions to accounts-service and records SUCCESS or FAILED.
+ * Shared by request-time settlement in {@link TransactionService} and by {@link SettlementWorker}.
+ * Every posting carries the transaction ID as its reference, so a transaction posted again after
+ * a crash, a timeout or an expired lease moves the balance only once. The debit leg of a transfer
+ * is posted as one transfer between both accounts, and its credit leg is written when it succeeds.
+ */
+@Component
+public class TransactionSettler {
+    
+    private final TransactionRepository transactionRepository;
+    private final AccountsClient accountsClient;
+    private final OutboxService outboxService;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration leaseDuration;
+    private final String ownerId = "request-" + UUID.randomUUID();
+    
+    public TransactionSettler(TransactionRepository transactionRepository,
+                              AccountsClient accountsClient,
+                              OutboxService outboxService,
+                              BalanceSnapshotService balanceSnapshotService,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${transactions.settlement.lease:30s}") Duration leaseDuration) {
+        this.transactionRepository = transactionRepository;
+        this.accountsClient = accountsClient;
+        this.outboxService = outboxService;
+        this.balanceSnapshotService = balanceSnapshotService;
+        this.transactionTemplate = transactionTemplate;
+        this.leaseDuration = leaseDuration;
+    }
+    
+    /**
+     * Lease a new transaction to the request creating it, so settlement workers leave it alone
+     * while the request settles it, and take it over if the request dies before finishing
+     * @param transaction Unsaved transaction
+     */
+    public void claimForRequest(Transaction transaction) {
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setClaimedBy(ownerId);
+        transaction.setLeaseUntil(LocalDateTime.now().plus(leaseDuration));
+    }
+    
+    /**
+     * Post one claimed transaction and record the outcome together with its outbox event.
+     * The transaction date moves to the time accounts-service applied the posting, or to the
+     * settlement time if it reported none. Settlements run concurrently, on several workers and
+     * instances, and may record their outcomes in another order than accounts-service applied
+     * them in; its posting time keeps the transactions and balance snapshots of an account in
+     * the order that produced the reported balances.
+     * The outcome is only recorded while the caller still holds the claim; if its lease expired
+     * and another worker took the transaction over, that worker posts it again under the same
+     * reference, which accounts-service does not apply twice, and records the outcome itself.
+     * A successful transfer debit also writes the credit leg on the counterparty account, with its
+     * CREATED outbox event, in the same database transaction as the outcome, and so are the balance
+     * snapshots of successful postings.
+     * @param transaction Saved PENDING transaction, claimed by the caller
+     * @return SUCCESS or FAILED once recorded, or PENDING if the transaction was left to be
+     *         settled again after its lease expires or was taken over
+     */
+    public TransactionStatus settle(Transaction transaction) {
+        if (!LocalDateTime.now().isBefore(transaction.getLeaseUntil())) {
+            // Another worker may already have reclaimed it
+            return TransactionStatus.PENDING;
+        }
+        
+        AccountBalanceDto balance = null;
+        AccountBalanceDto counterpartyBalance = null;
+        TransactionStatus outcome;
+        try {
+            if (transaction.getTransferId() == null) {
+                balance = accountsClient.post(transaction.getAccountId(), transaction.getType(), transaction.getAmount(),
+                        postingReference(transaction));
+            } else {
+                TransferBalancesDto balances = accountsClient.transfer(transaction.getAccountId(),
+                        transaction.getCounterpartyAccountId(), transaction.getAmount(), postingReference(transaction));
+                if (balances != null) {
+                    balance = balances.getSource();
+                    counterpartyBalance = balances.getDestination();
+                }
+            }
+            outcome = TransactionStatus.SUCCESS;
+        } catch (PostingRejectedException ex) {
+            outcome = TransactionStatus.FAILED;
+        } catch (AccountsServiceUnavailableException ex) {
+            return TransactionStatus.PENDING;
+        }
+        
+        TransactionStatus recorded = outcome;
+        BigDecimal balanceAfter = balance != null ? balance.getBalance() : null;
+        BigDecimal counterpartyBalanceAfter = counterpartyBalance != null ? counterpartyBalance.getBalance() : null;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settledAt = postedAt(balance, now);
+        Transaction credit = outcome == TransactionStatus.SUCCESS && transaction.getTransferId() != null
+                ? creditLeg(transaction) : null;
+        if (credit != null) {
+            credit.setTransactionDate(postedAt(counterpartyBalance, now));
+        }
+        Boolean owned = transactionTemplate.execute(status -> {
+            if (transactionRepository.completeSettlement(transaction.getId(), transaction.getClaimedBy(),
+                    recorded, settledAt, TransactionStatus.PENDING) == 0) {
+                return false;
+            }
+            transaction.setStatus(recorded);
+            transaction.setTransactionDate(settledAt);
+            transaction.setClaimedBy(null);
+            transaction.setLeaseUntil(null);
+            outboxService.append(TransactionEventType.UPDATED, transaction);
+            if (recorded == TransactionStatus.SUCCESS) {
+                balanceSnapshotService.recordPosting(transaction, balanceAfter);
+            }
+            if (credit != null) {
+                Transaction savedCredit = transactionRepository.save(credit);
+                outboxService.append(TransactionEventType.CREATED, savedCredit);
+                balanceSnapshotService.recordPosting(savedCredit, counterpartyBalanceAfter);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(owned) ? outcome : TransactionStatus.PENDING;
+    }
+    
+    /**
+     * Time accounts-service applied a posting, or the given settlement time if it reported none
+     */
+    private static LocalDateTime postedAt(AccountBalanceDto balance, LocalDateTime settledAt) {
+        return balance != null && balance.getPostedAt() != null ? balance.getPostedAt() : settledAt;
+    }
+    
+    /**
+     * Credit leg of a settled transfer debit: a DEPOSIT of the same amount on the counterparty account
+     */
+    static Transaction creditLeg(Transaction debit) {
+        Transaction credit = new Transaction();
+        credit.setAccountId(debit.getCounterpartyAccountId());
+        credit.setType(TransactionType.DEPOSIT);
+        credit.setAmount(debit.getAmount());
+        credit.setStatus(TransactionStatus.SUCCESS);
+        credit.setTransferId(debit.getTransferId());
+        credit.setCounterpartyAccountId(debit.getAccountId());
+        return credit;
+    }
+    
+    /**
+     * Reference under which accounts-service records the posting of a transaction
+     */
+    static String postingReference(Transaction transaction) {
+        return "transaction-" + transaction.getId();
+    }
+}
@@ -0,0 +1,2 @@
+-- Hash of the first request's payload; a retry with the same key and another payload is refused
+ALTER TABLE idempotency_keys ADD COLUMN request_fingerprint VARCHAR(64);
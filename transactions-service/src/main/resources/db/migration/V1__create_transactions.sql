@@ -0,0 +1,26 @@
+CREATE SEQUENCE transactions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE transactions (
+    id               BIGINT         NOT NULL PRIMARY KEY,
+    account_id       BIGINT         NOT NULL,
+    type             VARCHAR(50)    NOT NULL,
+    amount           NUMERIC(15, 2) NOT NULL,
+    transaction_date TIMESTAMP(6)   NOT NULL,
+    status           VARCHAR(50)    NOT NULL
+);
+
+-- Leading account_id column also serves plain lookups by account
+CREATE INDEX idx_transactions_account_date_id ON transactions (account_id, transaction_date DESC, id);
+CREATE INDEX idx_transactions_status ON transactions (status);
+CREATE INDEX idx_transactions_transaction_date ON transactions (transaction_date);
+
+CREATE SEQUENCE idempotency_keys_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE idempotency_keys (
+    id              BIGINT       NOT NULL PRIMARY KEY,
+    idempotency_key VARCHAR(255) NOT NULL,
+    transaction_id  BIGINT,
+    created_at      TIMESTAMP(6) NOT NULL
+);
+
+CREATE UNIQUE INDEX uk_idempotency_keys_key ON idempotency_keys (idempotency_key);
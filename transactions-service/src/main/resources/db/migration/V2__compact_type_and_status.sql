@@ -0,0 +1,10 @@
+-- Store type and status as one-character codes (see TransactionType and TransactionStatus)
+DROP INDEX idx_transactions_status;
+
+UPDATE transactions SET type = SUBSTRING(type, 1, 1), status = SUBSTRING(status, 1, 1);
+
+ALTER TABLE transactions ALTER COLUMN type SET DATA TYPE CHAR(1);
+ALTER TABLE transactions ALTER COLUMN status SET DATA TYPE CHAR(1);
+
+-- Lets status lookups read rows in id order straight from the index, e.g. the PENDING queue
+CREATE INDEX idx_transactions_status_id ON transactions (status, id);
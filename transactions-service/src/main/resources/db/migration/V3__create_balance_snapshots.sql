@@ -0,0 +1,12 @@
+CREATE SEQUENCE balance_snapshots_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE balance_snapshots (
+    id             BIGINT         NOT NULL PRIMARY KEY,
+    account_id     BIGINT         NOT NULL,
+    as_of          TIMESTAMP(6)   NOT NULL,
+    balance        NUMERIC(15, 2) NOT NULL,
+    transaction_id BIGINT         NOT NULL
+);
+
+-- Finds the nearest snapshot on either side of a statement boundary with one index probe
+CREATE INDEX idx_balance_snapshots_account_as_of ON balance_snapshots (account_id, as_of, transaction_id);
@@ -0,0 +1,10 @@
+CREATE SEQUENCE outbox_events_seq START WITH 1 INCREMENT BY 50;
+
+-- Published rows are deleted, so the primary key alone serves the relay's id-ordered reads
+CREATE TABLE outbox_events (
+    id             BIGINT        NOT NULL PRIMARY KEY,
+    transaction_id BIGINT        NOT NULL,
+    event_type     VARCHAR(20)   NOT NULL,
+    payload        VARCHAR(4000) NOT NULL,
+    created_at     TIMESTAMP(6)  NOT NULL
+);
@@ -0,0 +1,3 @@
+-- Lease columns let several settlement workers claim disjoint batches of PENDING rows
+ALTER TABLE transactions ADD COLUMN claimed_by VARCHAR(64);
+ALTER TABLE transactions ADD COLUMN lease_until TIMESTAMP(6);
@@ -0,0 +1,3 @@
+-- Date-sorted list pages order by (transaction_date, id); the ID makes the index usable for keyset cursors
+DROP INDEX idx_transactions_transaction_date;
+CREATE INDEX idx_transactions_date_id ON transactions (transaction_date, id);
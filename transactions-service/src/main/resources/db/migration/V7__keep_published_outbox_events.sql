@@ -0,0 +1,15 @@
+-- Published events stay in the outbox, with a feed position, until the retention purge removes them
+ALTER TABLE outbox_events ADD COLUMN status VARCHAR(20) DEFAULT 'PENDING' NOT NULL;
+ALTER TABLE outbox_events ADD COLUMN feed_position BIGINT;
+ALTER TABLE outbox_events ADD COLUMN published_at TIMESTAMP(6);
+
+CREATE INDEX idx_outbox_events_status_id ON outbox_events (status, id);
+CREATE UNIQUE INDEX uk_outbox_events_feed_position ON outbox_events (feed_position);
+
+-- Locked by the relay while it publishes, so feed positions commit in order
+CREATE TABLE outbox_feed (
+    id            INTEGER NOT NULL PRIMARY KEY,
+    last_position BIGINT  NOT NULL
+);
+
+INSERT INTO outbox_feed (id, last_position) VALUES (1, 0);
@@ -0,0 +1,9 @@
+-- A transfer is a WITHDRAWAL on the source and a DEPOSIT on the destination sharing a transfer_id
+ALTER TABLE transactions ADD COLUMN transfer_id VARCHAR(36);
+ALTER TABLE transactions ADD COLUMN counterparty_account_id BIGINT;
+
+CREATE INDEX idx_transactions_transfer_id ON transactions (transfer_id);
+
+-- The one-legged Transfer type only ever debited its account, so it becomes a Withdrawal
+UPDATE transactions SET type = 'W' WHERE type = 'T';
+UPDATE outbox_events SET payload = REPLACE(payload, '"type":"Transfer"', '"type":"Withdrawal"');
@@ -0,0 +1,6 @@
+-- Claim columns let a request take over a key whose first request died before recording its transaction;
+-- the created_at index serves the retention purge
+ALTER TABLE idempotency_keys ADD COLUMN claimed_by VARCHAR(64);
+ALTER TABLE idempotency_keys ADD COLUMN claimed_at TIMESTAMP(6);
+UPDATE idempotency_keys SET claimed_at = created_at WHERE transaction_id IS NULL;
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
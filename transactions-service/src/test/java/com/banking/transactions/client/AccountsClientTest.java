@@ -0,0 +1,95 @@
+package com.banking.transactions.client;
+
+import com.banking.transactions.dto.AccountBalanceDto;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.exception.AccountsServiceUnavailableException;
+import com.banking.transactions.exception.PostingRejectedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class AccountsClientTest {
+
+    private MockRestServiceServer server;
+
+    private AccountsClient accountsClient;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder();
+        server = MockRestServiceServer.bindTo(builder).build();
+        accountsClient = new AccountsClient(builder, "http://accounts-service");
+    }
+
+    @Test
+    void post_ReturnsReportedBalance() {
+        server.expect(requestTo("http://accounts-service/api/accounts/1001/postings"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{\"id\":1001,\"balance\":1100.00}", MediaType.APPLICATION_JSON));
+
+        AccountBalanceDto balance = accountsClient.post(1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "transaction-7");
+
+        assertEquals(new BigDecimal("1100.00"), balance.getBalance());
+        server.verify();
+    }
+
+    @Test
+    void post_BadRequestIsRejected() {
+        // Sent again it would be refused again, so the transaction fails instead of staying PENDING
+        server.expect(requestTo("http://accounts-service/api/accounts/1001/postings"))
+                .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+
+        assertThrows(PostingRejectedException.class,
+                () -> accountsClient.post(1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "transaction-7"));
+    }
+
+    @Test
+    void post_InsufficientFundsIsRejected() {
+        server.expect(requestTo("http://accounts-service/api/accounts/1001/postings"))
+                .andRespond(withStatus(HttpStatus.UNPROCESSABLE_ENTITY));
+
+        assertThrows(PostingRejectedException.class,
+                () -> accountsClient.post(1001L, TransactionType.WITHDRAWAL, new BigDecimal("100.00"), "transaction-7"));
+    }
+
+    @Test
+    void post_ServerErrorIsTransient() {
+        server.expect(requestTo("http://accounts-service/api/accounts/1001/postings"))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThrows(AccountsServiceUnavailableException.class,
+                () -> accountsClient.post(1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "transaction-7"));
+    }
+
+    @Test
+    void post_IoErrorIsTransient() {
+        server.expect(requestTo("http://accounts-service/api/accounts/1001/postings"))
+                .andRespond(withException(new IOException("Connection reset")));
+
+        assertThrows(AccountsServiceUnavailableException.class,
+                () -> accountsClient.post(1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "transaction-7"));
+    }
+
+    @Test
+    void transfer_BadRequestIsRejected() {
+        server.expect(requestTo("http://accounts-service/api/accounts/transfers"))
+                .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+
+        assertThrows(PostingRejectedException.class,
+                () -> accountsClient.transfer(1001L, 2002L, new BigDecimal("100.00"), "transaction-7"));
+    }
+}
@@ -0,0 +1,211 @@
+package com.banking.transactions.service;
+
+import com.banking.transactions.client.AccountsClient;
+import com.banking.transactions.dto.AccountBalanceDto;
+import com.banking.transactions.entity.BalanceSnapshot;
+import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.repository.BalanceSnapshotRepository;
+import com.banking.transactions.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceSnapshotServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Mock
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountsClient accountsClient;
+
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        balanceSnapshotService = new BalanceSnapshotService(balanceSnapshotRepository, transactionRepository,
+                accountsClient, Duration.ofHours(1), 3, 1000);
+    }
+
+    @Test
+    void recordPosting_FirstSnapshotUsesPostedBalance() {
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(1001L)).thenReturn(Optional.empty());
+        when(balanceSnapshotRepository.save(any(BalanceSnapshot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        balanceSnapshotService.recordPosting(posted(1L, START), new BigDecimal("1100.00"));
+
+        verify(balanceSnapshotRepository).save(argThat(snapshot -> snapshot.getTransactionId() == 1L
+                && new BigDecimal("1100.00").equals(snapshot.getBalance())
+                && START.equals(snapshot.getAsOf())));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void recordPosting_SnapshotsReportedBalanceEveryNPostings() {
+        BalanceSnapshot previous = new BalanceSnapshot(1L, 1001L, START, new BigDecimal("1000.00"), 1L);
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(1001L)).thenReturn(Optional.of(previous));
+        when(balanceSnapshotRepository.save(any(BalanceSnapshot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        balanceSnapshotService.recordPosting(posted(2L, START.plusMinutes(1)), new BigDecimal("1100.00"));
+        balanceSnapshotService.recordPosting(posted(3L, START.plusMinutes(2)), new BigDecimal("1200.00"));
+        verify(balanceSnapshotRepository, never()).save(any(BalanceSnapshot.class));
+
+        balanceSnapshotService.recordPosting(posted(4L, START.plusMinutes(3)), new BigDecimal("1750.00"));
+
+        // The reported balance includes changes made outside this service, which a roll-forward
+        // over the transaction table (1300.00) would miss
+        verify(balanceSnapshotRepository).save(argThat(snapshot -> snapshot.getTransactionId() == 4L
+                && new BigDecimal("1750.00").equals(snapshot.getBalance())));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void recordPosting_SnapshotsAfterInterval() {
+        BalanceSnapshot previous = new BalanceSnapshot(1L, 1001L, START, new BigDecimal("1000.00"), 1L);
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(1001L)).thenReturn(Optional.of(previous));
+
+        balanceSnapshotService.recordPosting(posted(2L, START.plusHours(1)), new BigDecimal("1100.00"));
+
+        verify(balanceSnapshotRepository).save(any(BalanceSnapshot.class));
+    }
+
+    @Test
+    void recordPosting_WithoutReportedBalanceWaitsForALaterPosting() {
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(1001L)).thenReturn(Optional.empty());
+        when(balanceSnapshotRepository.save(any(BalanceSnapshot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        balanceSnapshotService.recordPosting(posted(1L, START), null);
+        verify(balanceSnapshotRepository, never()).save(any(BalanceSnapshot.class));
+
+        balanceSnapshotService.recordPosting(posted(2L, START.plusMinutes(1)), new BigDecimal("1200.00"));
+        verify(balanceSnapshotRepository).save(argThat(snapshot -> snapshot.getTransactionId() == 2L));
+    }
+
+    @Test
+    void recordPosting_PropagatesDatabaseFailures() {
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(1001L)).thenReturn(Optional.empty());
+        when(balanceSnapshotRepository.save(any(BalanceSnapshot.class)))
+                .thenThrow(new DataAccessResourceFailureException("Database unavailable"));
+
+        // Fails the surrounding transaction, so the posting is recorded again with its snapshot
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> balanceSnapshotService.recordPosting(posted(1L, START), new BigDecimal("1100.00")));
+    }
+
+    @Test
+    void recordPosting_RolledBackSnapshotIsForgotten() {
+        BalanceSnapshot previous = new BalanceSnapshot(1L, 1001L, START, new BigDecimal("1000.00"), 1L);
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(1001L)).thenReturn(Optional.of(previous));
+        when(balanceSnapshotRepository.save(any(BalanceSnapshot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            balanceSnapshotService.recordPosting(posted(2L, START.plusHours(1)), new BigDecimal("1100.00"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        balanceSnapshotService.recordPosting(posted(3L, START.plusMinutes(90)), new BigDecimal("1200.00"));
+
+        // Progress was reloaded from the table instead of trusting the uncommitted snapshot
+        verify(balanceSnapshotRepository, times(2)).findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(1001L);
+        verify(balanceSnapshotRepository).save(argThat(snapshot -> snapshot.getTransactionId() == 3L));
+    }
+
+    @Test
+    void recordPosting_PostingsDoNotWaitForAnotherPostingsSnapshotSave() throws Exception {
+        when(balanceSnapshotRepository.findFirstByAccountIdOrderByAsOfDescTransactionIdDesc(1001L)).thenReturn(Optional.empty());
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch releaseSave = new CountDownLatch(1);
+        when(balanceSnapshotRepository.save(any(BalanceSnapshot.class))).thenAnswer(invocation -> {
+            saving.countDown();
+            assertTrue(releaseSave.await(5, TimeUnit.SECONDS));
+            return invocation.getArgument(0);
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> first = executor.submit(() -> balanceSnapshotService.recordPosting(posted(1L, START), new BigDecimal("1100.00")));
+            assertTrue(saving.await(5, TimeUnit.SECONDS));
+
+            // Not due, since the first posting already claimed the snapshot, and not blocked by its save
+            balanceSnapshotService.recordPosting(posted(2L, START.plusMinutes(1)), new BigDecimal("1200.00"));
+
+            releaseSave.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(balanceSnapshotRepository, times(1)).save(any(BalanceSnapshot.class));
+    }
+
+    @Test
+    void getBalanceBefore_ReplaysForwardFromEarlierSnapshot() {
+        LocalDateTime asOf = START.plusDays(1);
+        BalanceSnapshot snapshot = new BalanceSnapshot(1L, 1001L, START, new BigDecimal("1000.00"), 7L);
+        when(balanceSnapshotRepository.findFirstByAccountIdAndAsOfLessThanOrderByAsOfDescTransactionIdDesc(1001L, asOf))
+                .thenReturn(Optional.of(snapshot));
+        when(transactionRepository.sumPostedAmounts(1001L, START, 7L, asOf, BalanceSnapshotService.BOUNDARY_ID))
+                .thenReturn(new BigDecimal("-250.00"));
+
+        assertEquals(new BigDecimal("750.00"), balanceSnapshotService.getBalanceBefore(1001L, asOf));
+    }
+
+    @Test
+    void getBalanceBefore_ReplaysBackwardFromLaterSnapshot() {
+        LocalDateTime asOf = START.minusDays(1);
+        BalanceSnapshot snapshot = new BalanceSnapshot(1L, 1001L, START, new BigDecimal("1000.00"), 7L);
+        when(balanceSnapshotRepository.findFirstByAccountIdAndAsOfLessThanOrderByAsOfDescTransactionIdDesc(1001L, asOf))
+                .thenReturn(Optional.empty());
+        when(balanceSnapshotRepository.findFirstByAccountIdAndAsOfGreaterThanEqualOrderByAsOfAscTransactionIdAsc(1001L, asOf))
+                .thenReturn(Optional.of(snapshot));
+        when(transactionRepository.sumPostedAmounts(1001L, asOf, BalanceSnapshotService.BOUNDARY_ID, START, 7L))
+                .thenReturn(new BigDecimal("400.00"));
+
+        assertEquals(new BigDecimal("600.00"), balanceSnapshotService.getBalanceBefore(1001L, asOf));
+    }
+
+    @Test
+    void getBalanceBefore_WithoutSnapshotAsksAccountsService() {
+        when(balanceSnapshotRepository.findFirstByAccountIdAndAsOfLessThanOrderByAsOfDescTransactionIdDesc(1001L, START))
+                .thenReturn(Optional.empty());
+        when(balanceSnapshotRepository.findFirstByAccountIdAndAsOfGreaterThanEqualOrderByAsOfAscTransactionIdAsc(1001L, START))
+                .thenReturn(Optional.empty());
+        when(accountsClient.getBalanceBefore(1001L, START)).thenReturn(new AccountBalanceDto(1001L, new BigDecimal("600.00")));
+
+        // Postings applied since but not yet recorded here are left out by accounts-service, not replayed back
+        assertEquals(new BigDecimal("600.00"), balanceSnapshotService.getBalanceBefore(1001L, START));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private Transaction posted(Long id, LocalDateTime transactionDate) {
+        return new Transaction(id, 1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), transactionDate, TransactionStatus.SUCCESS, null, null, null, null);
+    }
+}
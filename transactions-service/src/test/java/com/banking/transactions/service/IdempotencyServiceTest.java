@@ -0,0 +1,230 @@
+package com.banking.transactions.service;
+
+import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.entity.IdempotencyKey;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.exception.IdempotencyConflictException;
+import com.banking.transactions.exception.IdempotencyKeyReusedException;
+import com.banking.transactions.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+
+    private TransactionDto transactionDto;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyKeyRepository, transactionService,
+                new TransactionTemplate(transactionManager), 1000, Duration.ofMinutes(5), Duration.ofMinutes(2), Duration.ofHours(24));
+        transactionDto = new TransactionDto(7L, 2002L, TransactionType.DEPOSIT, new BigDecimal("750.00"), LocalDateTime.now().toString(), TransactionStatus.SUCCESS);
+    }
+
+    @Test
+    void execute_WithoutKeyAlwaysRuns() {
+        AtomicInteger runs = new AtomicInteger();
+
+        idempotencyService.execute(null, transactionDto, () -> countRun(runs));
+        idempotencyService.execute(null, transactionDto, () -> countRun(runs));
+
+        assertEquals(2, runs.get());
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    void execute_NewKeyIsClaimedWithOneInsert() {
+        AtomicInteger runs = new AtomicInteger();
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        when(idempotencyKeyRepository.complete(eq(1L), anyString(), eq(7L))).thenReturn(1);
+
+        idempotencyService.execute("key-1", transactionDto, () -> countRun(runs));
+
+        assertEquals(1, runs.get());
+        verify(idempotencyKeyRepository).saveAndFlush(argThat(key -> key.getClaimedBy() != null && key.getClaimedAt() != null
+                && IdempotencyService.fingerprint(transactionDto).equals(key.getRequestFingerprint())));
+        // The unique index tells a new key apart, so nothing is read before the insert
+        verify(idempotencyKeyRepository, never()).findByIdempotencyKey(anyString());
+    }
+
+    @Test
+    void execute_ReplayIsServedFromCache() {
+        AtomicInteger runs = new AtomicInteger();
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        when(idempotencyKeyRepository.complete(eq(1L), anyString(), eq(7L))).thenReturn(1);
+
+        TransactionDto first = idempotencyService.execute("key-1", transactionDto, () -> countRun(runs));
+        TransactionDto replay = idempotencyService.execute("key-1", transactionDto, () -> countRun(runs));
+
+        assertEquals(1, runs.get());
+        assertSame(first, replay);
+        verify(idempotencyKeyRepository, times(1)).saveAndFlush(any(IdempotencyKey.class));
+    }
+
+    @Test
+    void execute_ReplayIsServedFromTable() {
+        // Completed by another instance, or by a concurrent first request that won the insert
+        AtomicInteger runs = new AtomicInteger();
+        IdempotencyKey stored = new IdempotencyKey(1L, "key-2", 7L, LocalDateTime.now(), null, null,
+                IdempotencyService.fingerprint(transactionDto));
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenThrow(new DataIntegrityViolationException("uk_idempotency_keys_key"));
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-2")).thenReturn(Optional.of(stored));
+        when(transactionService.getTransactionById(7L)).thenReturn(transactionDto);
+
+        TransactionDto replay = idempotencyService.execute("key-2", transactionDto, () -> countRun(runs));
+
+        assertEquals(0, runs.get());
+        assertSame(transactionDto, replay);
+    }
+
+    @Test
+    void execute_KeyStoredWithoutFingerprintReplaysAnyPayload() {
+        IdempotencyKey stored = new IdempotencyKey(1L, "key-2", 7L, LocalDateTime.now(), null, null, null);
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenThrow(new DataIntegrityViolationException("uk_idempotency_keys_key"));
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-2")).thenReturn(Optional.of(stored));
+        when(transactionService.getTransactionById(7L)).thenReturn(transactionDto);
+
+        assertSame(transactionDto, idempotencyService.execute("key-2", payload("10.00"), () -> transactionDto));
+    }
+
+    @Test
+    void execute_KeyReusedWithDifferentPayloadIsRefused() {
+        IdempotencyKey stored = new IdempotencyKey(1L, "key-9", 7L, LocalDateTime.now(), null, null,
+                IdempotencyService.fingerprint(transactionDto));
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenThrow(new DataIntegrityViolationException("uk_idempotency_keys_key"));
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-9")).thenReturn(Optional.of(stored));
+
+        assertThrows(IdempotencyKeyReusedException.class,
+            () -> idempotencyService.execute("key-9", payload("10.00"), () -> transactionDto));
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void execute_KeyReusedWithDifferentPayloadIsRefusedFromCache() {
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        when(idempotencyKeyRepository.complete(eq(1L), anyString(), eq(7L))).thenReturn(1);
+        idempotencyService.execute("key-10", transactionDto, () -> transactionDto);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+            () -> idempotencyService.execute("key-10", payload("10.00"), () -> transactionDto));
+        // The same payload with another scale of amount is the same request
+        assertSame(transactionDto, idempotencyService.execute("key-10", payload("750.0"), () -> transactionDto));
+    }
+
+    @Test
+    void execute_InProgressKeyConflicts() {
+        LocalDateTime claimedAt = LocalDateTime.now().minusSeconds(30);
+        IdempotencyKey stored = new IdempotencyKey(1L, "key-3", null, claimedAt, "first", claimedAt, null);
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenThrow(new DataIntegrityViolationException("uk_idempotency_keys_key"));
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-3")).thenReturn(Optional.of(stored));
+
+        assertThrows(IdempotencyConflictException.class,
+            () -> idempotencyService.execute("key-3", transactionDto, () -> transactionDto));
+        verify(idempotencyKeyRepository, never()).takeOver(any(), any(), any(), any());
+    }
+
+    @Test
+    void execute_StaleClaimIsTakenOver() {
+        AtomicInteger runs = new AtomicInteger();
+        LocalDateTime claimedAt = LocalDateTime.now().minusMinutes(10);
+        IdempotencyKey stored = new IdempotencyKey(1L, "key-5", null, claimedAt, "first", claimedAt, null);
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenThrow(new DataIntegrityViolationException("uk_idempotency_keys_key"));
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-5")).thenReturn(Optional.of(stored));
+        when(idempotencyKeyRepository.takeOver(eq(1L), anyString(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+        when(idempotencyKeyRepository.complete(eq(1L), anyString(), eq(7L))).thenReturn(1);
+
+        TransactionDto created = idempotencyService.execute("key-5", transactionDto, () -> countRun(runs));
+
+        assertEquals(1, runs.get());
+        assertEquals(7L, created.getId());
+        verify(idempotencyKeyRepository).complete(eq(1L), argThat(owner -> !"first".equals(owner)), eq(7L));
+    }
+
+    @Test
+    void execute_StaleClaimTakenOverConcurrentlyConflicts() {
+        LocalDateTime claimedAt = LocalDateTime.now().minusMinutes(10);
+        IdempotencyKey stored = new IdempotencyKey(1L, "key-6", null, claimedAt, "first", claimedAt, null);
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenThrow(new DataIntegrityViolationException("uk_idempotency_keys_key"));
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-6")).thenReturn(Optional.of(stored));
+        when(idempotencyKeyRepository.takeOver(eq(1L), anyString(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThrows(IdempotencyConflictException.class,
+            () -> idempotencyService.execute("key-6", transactionDto, () -> transactionDto));
+    }
+
+    @Test
+    void execute_TakenOverClaimDoesNotCacheItsResult() {
+        AtomicInteger runs = new AtomicInteger();
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        when(idempotencyKeyRepository.complete(eq(1L), anyString(), eq(7L))).thenReturn(0);
+
+        idempotencyService.execute("key-7", transactionDto, () -> countRun(runs));
+        idempotencyService.execute("key-7", transactionDto, () -> countRun(runs));
+
+        // Not served from the cache: the table decides which transaction the key belongs to
+        verify(idempotencyKeyRepository, times(2)).saveAndFlush(any(IdempotencyKey.class));
+    }
+
+    @Test
+    void execute_FailedRequestReleasesKey() {
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("key-4", transactionDto, () -> {
+            throw new IllegalStateException("Accounts service unavailable");
+        }));
+        verify(idempotencyKeyRepository).release(eq(1L), anyString());
+        verify(idempotencyKeyRepository, never()).complete(any(), any(), any());
+    }
+
+    @Test
+    void purge_DeletesKeysOlderThanRetention() {
+        when(idempotencyKeyRepository.deleteCreatedBefore(any(LocalDateTime.class))).thenReturn(3);
+
+        idempotencyService.purge();
+
+        verify(idempotencyKeyRepository).deleteCreatedBefore(argThat(cutoff ->
+                cutoff.isBefore(LocalDateTime.now().minusHours(23)) && cutoff.isAfter(LocalDateTime.now().minusHours(25))));
+    }
+
+    private static IdempotencyKey saved(IdempotencyKey reservation) {
+        reservation.setId(1L);
+        return reservation;
+    }
+
+    private static TransactionDto payload(String amount) {
+        return new TransactionDto(null, 2002L, TransactionType.DEPOSIT, new BigDecimal(amount), (String) null, null);
+    }
+
+    private TransactionDto countRun(AtomicInteger runs) {
+        runs.incrementAndGet();
+        return transactionDto;
+    }
+}
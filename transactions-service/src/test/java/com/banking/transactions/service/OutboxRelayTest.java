@@ -0,0 +1,172 @@
+package com.banking.transactions.service;
+
+import com.banking.transactions.entity.OutboxEvent;
+import com.banking.transactions.entity.OutboxFeed;
+import com.banking.transactions.entity.OutboxStatus;
+import com.banking.transactions.event.OutboxPublisher;
+import com.banking.transactions.event.TransactionEvent;
+import com.banking.transactions.event.TransactionEventType;
+import com.banking.transactions.repository.OutboxEventRepository;
+import com.banking.transactions.repository.OutboxFeedRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final String PAYLOAD = "{\"id\":7,\"accountId\":1001,\"type\":\"Deposit\",\"amount\":250.00,"
+            + "\"transactionDate\":\"2024-01-10T09:00\",\"status\":\"SUCCESS\"}";
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxFeedRepository outboxFeedRepository;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OutboxFeed feed;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        feed = new OutboxFeed(OutboxFeed.ID, 10L);
+        OutboxService outboxService = new OutboxService(outboxEventRepository, new ObjectMapper());
+        outboxRelay = new OutboxRelay(outboxEventRepository, outboxFeedRepository, outboxService, outboxPublisher,
+                new TransactionTemplate(transactionManager), meterRegistry, 2, Duration.ofDays(7));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_PublishesInIdOrderAndAssignsFeedPositions() {
+        OutboxEvent first = event(1L);
+        OutboxEvent second = event(2L);
+        OutboxEvent third = event(3L);
+        when(outboxFeedRepository.findByIdForUpdate(OutboxFeed.ID)).thenReturn(Optional.of(feed));
+        when(outboxEventRepository.findByStatusOrderByIdAsc(eq(OutboxStatus.PENDING), any(Pageable.class)))
+                .thenReturn(Arrays.asList(first, second))
+                .thenReturn(List.of(third));
+
+        outboxRelay.relay();
+
+        ArgumentCaptor<List<TransactionEvent>> batches = ArgumentCaptor.forClass(List.class);
+        verify(outboxPublisher, times(2)).publish(batches.capture());
+        assertEquals(Arrays.asList(1L, 2L), batches.getAllValues().get(0).stream().map(TransactionEvent::getEventId).toList());
+        assertEquals(Arrays.asList(11L, 12L), batches.getAllValues().get(0).stream().map(TransactionEvent::getPosition).toList());
+        assertEquals(7L, batches.getAllValues().get(1).get(0).getTransaction().getId());
+        assertEquals(OutboxStatus.PUBLISHED, third.getStatus());
+        assertEquals(13L, third.getFeedPosition());
+        assertNotNull(third.getPublishedAt());
+        assertEquals(13L, feed.getLastPosition());
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+        assertEquals(3.0, meterRegistry.get("banking.outbox.published").counter().count());
+        assertEquals(0.0, meterRegistry.get("banking.outbox.pending").gauge().value());
+    }
+
+    @Test
+    void relay_KeepsBatchPendingWhenPublishingFails() {
+        when(outboxFeedRepository.findByIdForUpdate(OutboxFeed.ID)).thenReturn(Optional.of(feed));
+        when(outboxEventRepository.findByStatusOrderByIdAsc(eq(OutboxStatus.PENDING), any(Pageable.class)))
+                .thenReturn(Arrays.asList(event(1L), event(2L)));
+        doThrow(new IllegalStateException("Listener failed")).when(outboxPublisher).publish(anyList());
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository, never()).saveAll(any());
+        verify(outboxFeedRepository, never()).save(any());
+        verify(transactionManager).rollback(any());
+        assertEquals(10L, feed.getLastPosition());
+        assertEquals(1.0, meterRegistry.get("banking.outbox.publish.failures").counter().count());
+        assertTrue(meterRegistry.get("banking.outbox.oldest.age").timeGauge().value() > 0);
+        assertEquals(2.0, meterRegistry.get("banking.outbox.pending").gauge().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_ParksUnreadableEventAndPublishesTheRest() {
+        OutboxEvent unreadable = new OutboxEvent(1L, 7L, TransactionEventType.CREATED, "{not json",
+                LocalDateTime.now().minusSeconds(5), OutboxStatus.PENDING, null, null);
+        OutboxEvent readable = event(2L);
+        when(outboxFeedRepository.findByIdForUpdate(OutboxFeed.ID)).thenReturn(Optional.of(feed));
+        when(outboxEventRepository.findByStatusOrderByIdAsc(eq(OutboxStatus.PENDING), any(Pageable.class)))
+                .thenReturn(Arrays.asList(unreadable, readable))
+                .thenReturn(List.of());
+
+        outboxRelay.relay();
+
+        ArgumentCaptor<List<TransactionEvent>> batch = ArgumentCaptor.forClass(List.class);
+        verify(outboxPublisher).publish(batch.capture());
+        assertEquals(List.of(2L), batch.getValue().stream().map(TransactionEvent::getEventId).toList());
+        assertEquals(11L, batch.getValue().get(0).getPosition());
+        assertEquals(OutboxStatus.DEAD_LETTER, unreadable.getStatus());
+        assertNull(unreadable.getFeedPosition());
+        assertEquals(OutboxStatus.PUBLISHED, readable.getStatus());
+        assertEquals(11L, feed.getLastPosition());
+        assertEquals(1.0, meterRegistry.get("banking.outbox.dead.letters").counter().count());
+        assertEquals(1.0, meterRegistry.get("banking.outbox.published").counter().count());
+        assertEquals(0.0, meterRegistry.get("banking.outbox.publish.failures").counter().count());
+    }
+
+    @Test
+    void relay_EmptyOutboxResetsLag() {
+        when(outboxFeedRepository.findByIdForUpdate(OutboxFeed.ID)).thenReturn(Optional.of(feed));
+        when(outboxEventRepository.findByStatusOrderByIdAsc(eq(OutboxStatus.PENDING), any(Pageable.class))).thenReturn(List.of());
+
+        outboxRelay.relay();
+
+        verifyNoInteractions(outboxPublisher);
+        assertEquals(0.0, meterRegistry.get("banking.outbox.oldest.age").timeGauge().value());
+    }
+
+    @Test
+    void purge_DeletesEventsPublishedBeforeTheRetentionPeriod() {
+        when(outboxEventRepository.deletePublishedBefore(eq(OutboxStatus.PUBLISHED), any(LocalDateTime.class))).thenReturn(3);
+
+        outboxRelay.purge();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEventRepository).deletePublishedBefore(eq(OutboxStatus.PUBLISHED), cutoff.capture());
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusDays(6)));
+    }
+
+    @Test
+    void initializeFeed_CreatesMissingFeedRow() {
+        when(outboxFeedRepository.existsById(OutboxFeed.ID)).thenReturn(false);
+
+        outboxRelay.initializeFeed();
+
+        verify(outboxFeedRepository).save(new OutboxFeed(OutboxFeed.ID, 0L));
+    }
+
+    private OutboxEvent event(Long id) {
+        return new OutboxEvent(id, 7L, TransactionEventType.CREATED, PAYLOAD, LocalDateTime.now().minusSeconds(5),
+                OutboxStatus.PENDING, null, null);
+    }
+}
@@ -0,0 +1,89 @@
+package com.banking.transactions.service;
+
+import com.banking.transactions.dto.TransactionEventPageDto;
+import com.banking.transactions.entity.OutboxEvent;
+import com.banking.transactions.entity.OutboxStatus;
+import com.banking.transactions.event.TransactionEvent;
+import com.banking.transactions.event.TransactionEventType;
+import com.banking.transactions.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    private static final String PAYLOAD = "{\"id\":7,\"accountId\":1001,\"type\":\"Deposit\",\"amount\":250.00,"
+            + "\"transactionDate\":\"2024-01-10T09:00\",\"status\":\"SUCCESS\"}";
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new OutboxService(outboxEventRepository, new ObjectMapper());
+    }
+
+    @Test
+    void getPublishedEvents_ReturnsEventsAfterPositionAndNextPosition() {
+        when(outboxEventRepository.findByFeedPositionGreaterThanOrderByFeedPositionAsc(eq(40L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(published(3L, 41L), published(2L, 42L)));
+
+        TransactionEventPageDto page = outboxService.getPublishedEvents(40L, 100);
+
+        assertEquals(Arrays.asList(41L, 42L), page.getEvents().stream().map(TransactionEvent::getPosition).toList());
+        assertEquals(Arrays.asList(3L, 2L), page.getEvents().stream().map(TransactionEvent::getEventId).toList());
+        assertEquals(7L, page.getEvents().get(0).getTransaction().getId());
+        assertEquals(42L, page.getNextAfter());
+    }
+
+    @Test
+    void getPublishedEvents_EmptyPageKeepsPosition() {
+        when(outboxEventRepository.findByFeedPositionGreaterThanOrderByFeedPositionAsc(eq(42L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        TransactionEventPageDto page = outboxService.getPublishedEvents(42L, 100);
+
+        assertTrue(page.getEvents().isEmpty());
+        assertEquals(42L, page.getNextAfter());
+    }
+
+    @Test
+    void getPublishedEvents_CapsPageSize() {
+        when(outboxEventRepository.findByFeedPositionGreaterThanOrderByFeedPositionAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        outboxService.getPublishedEvents(0L, 1_000_000);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(outboxEventRepository).findByFeedPositionGreaterThanOrderByFeedPositionAsc(eq(0L), pageable.capture());
+        assertEquals(OutboxService.MAX_FEED_PAGE_SIZE, pageable.getValue().getPageSize());
+    }
+
+    @Test
+    void getPublishedEvents_RejectsNegativePosition() {
+        assertThrows(IllegalArgumentException.class, () -> outboxService.getPublishedEvents(-1L, 100));
+        verifyNoInteractions(outboxEventRepository);
+    }
+
+    private OutboxEvent published(Long id, Long position) {
+        LocalDateTime createdAt = LocalDateTime.now().minusSeconds(5);
+        return new OutboxEvent(id, 7L, TransactionEventType.CREATED, PAYLOAD, createdAt,
+                OutboxStatus.PUBLISHED, position, createdAt.plusSeconds(1));
+    }
+}
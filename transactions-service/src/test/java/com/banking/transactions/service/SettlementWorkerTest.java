@@ -0,0 +1,122 @@
+package com.banking.transactions.service;
+
+import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SettlementWorkerTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionSettler transactionSettler;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SettlementWorker settlementWorker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        settlementWorker = new SettlementWorker(transactionRepository, transactionSettler,
+                new TransactionTemplate(transactionManager), meterRegistry, 2, 1, Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        settlementWorker.shutdown();
+    }
+
+    @Test
+    void settleBatch_KeepsOnlyRowsThisWorkerClaimed() {
+        when(transactionRepository.findClaimableIds(eq(TransactionStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Arrays.asList(1L, 2L));
+        AtomicReference<String> workerId = new AtomicReference<>();
+        when(transactionRepository.claim(eq(Arrays.asList(1L, 2L)), eq(TransactionStatus.PENDING), anyString(), any(), any()))
+                .thenAnswer(invocation -> {
+                    workerId.set(invocation.getArgument(2));
+                    return 1;
+                });
+        Transaction other = pending(2L);
+        other.setClaimedBy("another-worker");
+        when(transactionRepository.findAllById(Arrays.asList(1L, 2L))).thenAnswer(invocation -> {
+            Transaction mine = pending(1L);
+            mine.setClaimedBy(workerId.get());
+            return Arrays.asList(mine, other);
+        });
+
+        List<Transaction> claimed = settlementWorker.claimBatch();
+
+        assertEquals(1, claimed.size());
+        assertEquals(1L, claimed.get(0).getId());
+    }
+
+    @Test
+    void claimBatch_PendingGaugeKeepsDepthFoundByLastClaim() {
+        when(transactionRepository.findClaimableIds(eq(TransactionStatus.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Arrays.asList(1L, 2L), List.of());
+        when(transactionRepository.claim(anyList(), eq(TransactionStatus.PENDING), anyString(), any(), any())).thenReturn(0);
+
+        settlementWorker.claimBatch();
+        assertEquals(2.0, meterRegistry.get("banking.settlement.pending").gauge().value());
+
+        settlementWorker.claimBatch();
+        assertEquals(0.0, meterRegistry.get("banking.settlement.pending").gauge().value());
+    }
+
+    @Test
+    void settle_CountsSettledOutcomes() {
+        when(transactionSettler.settle(any(Transaction.class)))
+                .thenReturn(TransactionStatus.SUCCESS, TransactionStatus.FAILED);
+
+        assertTrue(settlementWorker.settle(pending(1L)));
+        assertTrue(settlementWorker.settle(pending(2L)));
+
+        assertEquals(1.0, meterRegistry.get("banking.settlement.settled").tag("outcome", "success").counter().count());
+        assertEquals(1.0, meterRegistry.get("banking.settlement.settled").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void settle_DeferredTransactionIsNotCountedAsSettled() {
+        when(transactionSettler.settle(any(Transaction.class))).thenReturn(TransactionStatus.PENDING);
+
+        assertFalse(settlementWorker.settle(pending(1L)));
+
+        assertEquals(1.0, meterRegistry.get("banking.settlement.settled").tag("outcome", "deferred").counter().count());
+    }
+
+    private Transaction pending(Long id) {
+        Transaction transaction = new Transaction(id, 1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"),
+                LocalDateTime.now().minusMinutes(5), TransactionStatus.PENDING, null, null, null, null);
+        transaction.setClaimedBy("worker");
+        transaction.setLeaseUntil(LocalDateTime.now().plusSeconds(30));
+        return transaction;
+    }
+}
@@ -0,0 +1,153 @@
+package com.banking.transactions.service;
+
+import com.banking.transactions.dto.BatchTransactionResponse;
+import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.event.TransactionEventType;
+import com.banking.transactions.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OutboxService outboxService;
+
+    private TransactionBatchService transactionBatchService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        transactionBatchService = new TransactionBatchService(
+                transactionRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new TransactionTemplate(transactionManager),
+                objectMapper,
+                outboxService,
+                2);
+    }
+
+    @Test
+    void ingest_SavesValidRowsInChunks() {
+        stubSaveAll();
+
+        BatchTransactionResponse response = transactionBatchService.ingest(Arrays.asList(
+                transactionDto(1L, "Deposit", "10.00"),
+                transactionDto(2L, "Withdrawal", "20.00"),
+                transactionDto(3L, "Deposit", "30.00")));
+
+        assertEquals(3, response.getReceived());
+        assertEquals(3, response.getCreated());
+        assertEquals(0, response.getRejected());
+        assertTrue(response.getResults().stream().allMatch(result -> result.getId() != null));
+        verify(transactionRepository, times(2)).saveAll(anyList());
+        verify(outboxService, times(3)).append(eq(TransactionEventType.CREATED), any(Transaction.class));
+    }
+
+    @Test
+    void ingest_RejectsInvalidRowsWithoutSavingThem() {
+        stubSaveAll();
+
+        BatchTransactionResponse response = transactionBatchService.ingest(Arrays.asList(
+                transactionDto(1L, "Deposit", "10.00"),
+                transactionDto(2L, "Refund", "20.00")));
+
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getRejected());
+        assertEquals(TransactionBatchService.OUTCOME_CREATED, response.getResults().get(0).getOutcome());
+        assertEquals(TransactionBatchService.OUTCOME_REJECTED, response.getResults().get(1).getOutcome());
+        assertTrue(response.getResults().get(1).getErrors().containsKey("type"));
+    }
+
+    @Test
+    void ingest_RejectsRowsMissingRequiredFields() {
+        stubSaveAll();
+
+        BatchTransactionResponse response = transactionBatchService.ingest(Arrays.asList(
+                transactionDto(1L, null, "10.00"),
+                transactionDto(2L, "Deposit", "20.00")));
+
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getRejected());
+        assertTrue(response.getResults().get(0).getErrors().containsKey("type"));
+    }
+
+    @Test
+    void ingestNdjson_RejectsUnknownTypeLabel() throws Exception {
+        stubSaveAll();
+        String body = "{\"accountId\":1,\"type\":\"Deposit\",\"amount\":10.00}\n"
+                + "{\"accountId\":2,\"type\":\"Refund\",\"amount\":5.00}\n";
+
+        BatchTransactionResponse response = transactionBatchService.ingestNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getRejected());
+        assertTrue(response.getResults().get(1).getErrors().containsKey("type"));
+    }
+
+    @Test
+    void ingestNdjson_ReportsMalformedLines() throws Exception {
+        stubSaveAll();
+        String body = "{\"accountId\":1,\"type\":\"Deposit\",\"amount\":10.00}\n"
+                + "not-json\n"
+                + "\n"
+                + "{\"accountId\":2,\"type\":\"Withdrawal\",\"amount\":5.00}\n";
+
+        BatchTransactionResponse response = transactionBatchService.ingestNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, response.getReceived());
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getRejected());
+        assertTrue(response.getResults().get(1).getErrors().containsKey("line"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubSaveAll() {
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> saved = new ArrayList<>();
+            for (Transaction transaction : (List<Transaction>) invocation.getArgument(0)) {
+                transaction.setId(sequence.incrementAndGet());
+                saved.add(transaction);
+            }
+            return saved;
+        });
+    }
+
+    private JsonNode transactionDto(Long accountId, String type, String amount) {
+        return objectMapper.createObjectNode()
+                .put("accountId", accountId)
+                .put("type", type)
+                .put("amount", new BigDecimal(amount));
+    }
+}
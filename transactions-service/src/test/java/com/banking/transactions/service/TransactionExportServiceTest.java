@@ -0,0 +1,95 @@
+package com.banking.transactions.service;
+
+import com.banking.transactions.dto.ExportFormat;
+import com.banking.transactions.dto.TransactionFilter;
+import com.banking.transactions.entity.TransactionStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionExportServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionExportService transactionExportService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:export-test;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE transactions (id BIGINT PRIMARY KEY, account_id BIGINT NOT NULL, type CHAR(1) NOT NULL, "
+                + "amount NUMERIC(15, 2) NOT NULL, transaction_date TIMESTAMP(6) NOT NULL, status CHAR(1) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO transactions VALUES (1, 1001, 'D', 750.00, TIMESTAMP '2024-01-10 09:00:00', 'S')");
+        jdbcTemplate.update("INSERT INTO transactions VALUES (2, 1001, 'W', 20.50, TIMESTAMP '2024-01-11 09:00:00', 'F')");
+        jdbcTemplate.update("INSERT INTO transactions VALUES (3, 1002, 'W', 100.00, TIMESTAMP '2024-01-12 09:00:00', 'S')");
+        transactionExportService = new TransactionExportService(dataSource, new ObjectMapper(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE transactions");
+    }
+
+    @Test
+    void export_WritesCsvInIdOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = transactionExportService.export(new TransactionFilter(), ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, rows);
+        assertEquals(4, lines.length);
+        assertEquals(TransactionExportService.CSV_HEADER, lines[0]);
+        assertEquals("1,1001,Deposit,750.00,2024-01-10T09:00,SUCCESS", lines[1]);
+        assertEquals("3,1002,Withdrawal,100.00,2024-01-12T09:00,SUCCESS", lines[3]);
+    }
+
+    @Test
+    void export_AppliesFilters() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransactionFilter filter = new TransactionFilter(
+                LocalDateTime.of(2024, 1, 10, 0, 0), LocalDateTime.of(2024, 1, 12, 0, 0), 1001L, TransactionStatus.FAILED, null);
+
+        long rows = transactionExportService.export(filter, ExportFormat.CSV, out);
+
+        assertEquals(1, rows);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("2,1001,Withdrawal,20.50,2024-01-11T09:00,FAILED"));
+    }
+
+    @Test
+    void export_WritesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        transactionExportService.export(new TransactionFilter(), ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("Deposit", first.get("type").asText());
+        assertTrue(lines[0].contains("\"amount\":750.00"));
+    }
+
+    @Test
+    void acceptsGzip_HonoursQualityValues() {
+        assertTrue(TransactionExportService.acceptsGzip("gzip, deflate, br"));
+        assertTrue(TransactionExportService.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(TransactionExportService.acceptsGzip("*"));
+        assertFalse(TransactionExportService.acceptsGzip("gzip;q=0"));
+        assertFalse(TransactionExportService.acceptsGzip("gzip; q=0.000, identity"));
+        assertFalse(TransactionExportService.acceptsGzip("*, gzip;q=0"));
+        assertFalse(TransactionExportService.acceptsGzip("*;q=0"));
+        assertFalse(TransactionExportService.acceptsGzip("identity"));
+        assertFalse(TransactionExportService.acceptsGzip(null));
+    }
+}
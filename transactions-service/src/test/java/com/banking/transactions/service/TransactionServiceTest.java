@@ -1,15 +1,31 @@
 package com.banking.transactions.service;
 
+import com.banking.transactions.dto.StatementDto;
 import com.banking.transactions.dto.TransactionDto;
+import com.banking.transactions.dto.TransactionFilter;
+import com.banking.transactions.dto.TransactionPageDto;
+import com.banking.transactions.dto.TransactionSortField;
+import com.banking.transactions.dto.TransferDto;
+import com.banking.transactions.dto.TransferRequestDto;
 import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.event.TransactionEventType;
 import com.banking.transactions.exception.TransactionNotFoundException;
 import com.banking.transactions.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -27,6 +43,18 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionSettler transactionSettler;
+
+    @Mock
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -37,30 +65,135 @@ class TransactionServiceTest {
     void setUp() {
         transactionDto = new TransactionDto();
         transactionDto.setAccountId(2002L);
-        transactionDto.setType("Deposit");
+        transactionDto.setType(TransactionType.DEPOSIT);
         transactionDto.setAmount(new BigDecimal("750.00"));
-        transactionDto.setStatus("SUCCESS");
+        transactionDto.setStatus(TransactionStatus.SUCCESS);
 
         transaction = new Transaction();
         transaction.setId(1L);
         transaction.setAccountId(2002L);
-        transaction.setType("Deposit");
+        transaction.setType(TransactionType.DEPOSIT);
         transaction.setAmount(new BigDecimal("750.00"));
         transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setStatus("SUCCESS");
+        transaction.setStatus(TransactionStatus.SUCCESS);
     }
 
     @Test
-    void createTransaction_Success() {
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+    void createTransaction_CommitsPendingRowBeforeSettling() {
+        claimForRequest();
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        when(transactionSettler.settle(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction claimed = invocation.getArgument(0);
+            assertEquals(TransactionStatus.PENDING, claimed.getStatus());
+            claimed.setStatus(TransactionStatus.SUCCESS);
+            return TransactionStatus.SUCCESS;
+        });
 
         TransactionDto result = transactionService.createTransaction(transactionDto);
 
-        assertNotNull(result);
         assertEquals(transactionDto.getAccountId(), result.getAccountId());
         assertEquals(transactionDto.getType(), result.getType());
-        assertEquals("SUCCESS", result.getStatus());
-        verify(transactionRepository).save(any(Transaction.class));
+        assertEquals(TransactionStatus.SUCCESS, result.getStatus());
+        InOrder order = inOrder(transactionSettler, transactionRepository, outboxService);
+        order.verify(transactionSettler).claimForRequest(any(Transaction.class));
+        order.verify(transactionRepository).save(any(Transaction.class));
+        order.verify(outboxService).append(eq(TransactionEventType.CREATED), any(Transaction.class));
+        order.verify(transactionSettler).settle(any(Transaction.class));
+    }
+
+    @Test
+    void createTransaction_ReturnsSettlementOutcome() {
+        claimForRequest();
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        when(transactionSettler.settle(any(Transaction.class))).thenAnswer(invocation -> {
+            ((Transaction) invocation.getArgument(0)).setStatus(TransactionStatus.FAILED);
+            return TransactionStatus.FAILED;
+        });
+
+        TransactionDto result = transactionService.createTransaction(transactionDto);
+
+        assertEquals(TransactionStatus.FAILED, result.getStatus());
+    }
+
+    @Test
+    void createTransaction_LeavesRowPendingWhenSettlementFails() {
+        claimForRequest();
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        when(transactionSettler.settle(any(Transaction.class))).thenAnswer(invocation -> {
+            ((Transaction) invocation.getArgument(0)).setStatus(TransactionStatus.SUCCESS);
+            throw new IllegalStateException("Connection lost");
+        });
+
+        TransactionDto result = transactionService.createTransaction(transactionDto);
+
+        assertEquals(1L, result.getId());
+        assertEquals(TransactionStatus.PENDING, result.getStatus());
+    }
+
+    @Test
+    void createTransaction_FailsWithoutPostingWhenRowCannotBeSaved() {
+        when(transactionRepository.save(any(Transaction.class))).thenThrow(new IllegalStateException("Database unavailable"));
+
+        assertThrows(IllegalStateException.class, () -> transactionService.createTransaction(transactionDto));
+        verify(transactionSettler, never()).settle(any(Transaction.class));
+    }
+
+    @Test
+    void createTransfer_SettlesDebitLegAndReturnsBothLegs() {
+        claimForRequest();
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        when(transactionSettler.settle(any(Transaction.class))).thenReturn(TransactionStatus.SUCCESS);
+        Transaction debit = transferLeg(1L, 1001L, TransactionType.WITHDRAWAL, 2002L);
+        Transaction credit = transferLeg(2L, 2002L, TransactionType.DEPOSIT, 1001L);
+        when(transactionRepository.findByTransferIdOrderByIdAsc(anyString())).thenReturn(Arrays.asList(debit, credit));
+
+        TransferDto result = transactionService.createTransfer(
+                new TransferRequestDto(1001L, 2002L, new BigDecimal("250.00")));
+
+        ArgumentCaptor<Transaction> created = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(created.capture());
+        assertEquals(1001L, created.getValue().getAccountId());
+        assertEquals(TransactionType.WITHDRAWAL, created.getValue().getType());
+        assertEquals(2002L, created.getValue().getCounterpartyAccountId());
+        assertNotNull(created.getValue().getTransferId());
+        verify(transactionRepository).findByTransferIdOrderByIdAsc(created.getValue().getTransferId());
+        verify(outboxService).append(TransactionEventType.CREATED, created.getValue());
+        assertEquals(1L, result.getDebit().getId());
+        assertEquals(2L, result.getCredit().getId());
+        assertEquals(TransactionType.DEPOSIT, result.getCredit().getType());
+    }
+
+    @Test
+    void getTransfer_UnknownTransfer() {
+        when(transactionRepository.findByTransferIdOrderByIdAsc("missing")).thenReturn(List.of());
+
+        assertThrows(TransactionNotFoundException.class, () -> transactionService.getTransfer("missing"));
+    }
+
+    @Test
+    void getStatement_ReplaysPeriodFromOpeningBalance() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        TransactionDto deposit = new TransactionDto(1L, 2002L, TransactionType.DEPOSIT, new BigDecimal("750.00"),
+                from.plusDays(1), TransactionStatus.SUCCESS);
+        TransactionDto withdrawal = new TransactionDto(2L, 2002L, TransactionType.WITHDRAWAL, new BigDecimal("50.00"),
+                from.plusDays(3), TransactionStatus.SUCCESS);
+        when(balanceSnapshotService.getBalanceBefore(2002L, from)).thenReturn(new BigDecimal("1000.00"));
+        when(transactionRepository.findInPeriod(2002L, TransactionStatus.SUCCESS, from, to))
+                .thenReturn(Arrays.asList(deposit, withdrawal));
+
+        StatementDto statement = transactionService.getStatement(2002L, from, to);
+
+        assertEquals(new BigDecimal("1000.00"), statement.getOpeningBalance());
+        assertEquals(new BigDecimal("1700.00"), statement.getClosingBalance());
+        assertEquals(2, statement.getTransactions().size());
+    }
+
+    @Test
+    void getStatement_RejectsEmptyPeriod() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getStatement(2002L, from, from));
     }
 
     @Test
@@ -81,31 +214,118 @@ class TransactionServiceTest {
     }
 
     @Test
-    void getAllTransactions_Success() {
-        when(transactionRepository.findAll()).thenReturn(Arrays.asList(transaction));
+    void getTransactionPage_CursorResumesAfterLastRow() {
+        TransactionFilter filter = new TransactionFilter(null, null, 1001L, null, TransactionType.DEPOSIT);
+        LocalDateTime date = LocalDateTime.of(2024, 1, 10, 9, 30);
+        TransactionDto first = new TransactionDto(7L, 1001L, TransactionType.DEPOSIT, new BigDecimal("10.00"), date, TransactionStatus.SUCCESS);
+        TransactionDto second = new TransactionDto(8L, 1001L, TransactionType.DEPOSIT, new BigDecimal("20.00"), date, TransactionStatus.SUCCESS);
+        when(transactionRepository.search(filter, TransactionSortField.TRANSACTION_DATE, Sort.Direction.ASC, null, null, 0, 2))
+                .thenReturn(List.of(first, second));
+
+        TransactionPageDto page = transactionService.getTransactionPage(filter, "transactionDate", 0, null, 1);
+
+        assertEquals(List.of(first), page.getTransactions());
+        assertEquals(0, page.getPage());
+        assertNotNull(page.getNextCursor());
+
+        when(transactionRepository.search(filter, TransactionSortField.TRANSACTION_DATE, Sort.Direction.ASC, date, 7L, 0, 2))
+                .thenReturn(List.of(second));
+
+        TransactionPageDto next = transactionService.getTransactionPage(filter, "transactionDate", 0, page.getNextCursor(), 1);
+
+        assertEquals(List.of(second), next.getTransactions());
+        assertNull(next.getPage());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void getTransactionPage_CapsPageSize() {
+        TransactionFilter filter = new TransactionFilter();
+        when(transactionRepository.search(filter, TransactionSortField.ID, Sort.Direction.DESC, null, null, 0, TransactionService.MAX_PAGE_SIZE + 1))
+                .thenReturn(Arrays.asList(transactionDto));
+
+        TransactionPageDto page = transactionService.getTransactionPage(filter, "id,desc", 0, null, 10_000);
+
+        assertEquals(1, page.getTransactions().size());
+        assertEquals(TransactionService.MAX_PAGE_SIZE, page.getSize());
+    }
+
+    @Test
+    void getTransactionPage_RejectsUnknownSortProperty() {
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.getTransactionPage(new TransactionFilter(), "amount", 0, null, 50));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getTransactionPageByAccountId_ReturnsCursorWhenMoreRowsExist() {
+        LocalDateTime newestDate = LocalDateTime.of(2024, 1, 10, 9, 30);
+        TransactionDto newest = new TransactionDto(1L, 2002L, TransactionType.DEPOSIT, new BigDecimal("750.00"),
+                newestDate, TransactionStatus.SUCCESS);
+        TransactionDto older = new TransactionDto(2L, 2002L, TransactionType.DEPOSIT, new BigDecimal("10.00"),
+                newestDate.minusDays(1), TransactionStatus.SUCCESS);
+        when(transactionRepository.findFirstPageByAccountId(eq(2002L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(newest, older));
+
+        TransactionPageDto page = transactionService.getTransactionPageByAccountId(2002L, null, 1);
+
+        assertEquals(1, page.getTransactions().size());
+        assertNotNull(page.getNextCursor());
+
+        when(transactionRepository.findPageByAccountIdBefore(eq(2002L), eq(newestDate), eq(1L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(older));
 
-        List<TransactionDto> results = transactionService.getAllTransactions();
+        TransactionPageDto nextPage = transactionService.getTransactionPageByAccountId(2002L, page.getNextCursor(), 1);
 
-        assertNotNull(results);
-        assertEquals(1, results.size());
+        assertEquals(2L, nextPage.getTransactions().get(0).getId());
+        assertNull(nextPage.getNextCursor());
+    }
+
+    @Test
+    void getTransactionPageByAccountId_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+            () -> transactionService.getTransactionPageByAccountId(2002L, "not-a-cursor", 10));
     }
 
     @Test
     void updateTransaction_Success() {
-        transaction.setStatus("PENDING");
-        transactionDto.setStatus("SUCCESS");
+        transaction.setStatus(TransactionStatus.PENDING);
+        transactionDto.setStatus(TransactionStatus.PENDING);
+        transactionDto.setAmount(new BigDecimal("800.00"));
         when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
 
         TransactionDto result = transactionService.updateTransaction(1L, transactionDto);
 
-        assertNotNull(result);
+        assertEquals(new BigDecimal("800.00"), result.getAmount());
+        assertEquals(TransactionStatus.PENDING, result.getStatus());
         verify(transactionRepository).save(any(Transaction.class));
+        verify(outboxService).append(TransactionEventType.UPDATED, transaction);
+    }
+
+    @Test
+    void updateTransaction_RejectsStatusChange() {
+        transactionDto.setStatus(TransactionStatus.SUCCESS);
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.updateTransaction(1L, transactionDto));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void updateTransaction_RejectsTransferLeg() {
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setTransferId("transfer-1");
+        transactionDto.setStatus(null);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.updateTransaction(1L, transactionDto));
+        verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
     @Test
     void updateTransaction_CompletedTransaction() {
-        transaction.setStatus("SUCCESS");
+        transaction.setStatus(TransactionStatus.SUCCESS);
+        transactionDto.setStatus(null);
         when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
 
         assertThrows(IllegalStateException.class, 
@@ -114,7 +334,7 @@ class TransactionServiceTest {
 
     @Test
     void deleteTransaction_Success() {
-        transaction.setStatus("PENDING");
+        transaction.setStatus(TransactionStatus.PENDING);
         when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
         doNothing().when(transactionRepository).deleteById(1L);
 
@@ -124,10 +344,28 @@ class TransactionServiceTest {
 
     @Test
     void deleteTransaction_CompletedTransaction() {
-        transaction.setStatus("SUCCESS");
+        transaction.setStatus(TransactionStatus.SUCCESS);
         when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
 
         assertThrows(IllegalStateException.class, 
             () -> transactionService.deleteTransaction(1L));
     }
+
+    private void claimForRequest() {
+        doAnswer(invocation -> {
+            ((Transaction) invocation.getArgument(0)).setStatus(TransactionStatus.PENDING);
+            return null;
+        }).when(transactionSettler).claimForRequest(any(Transaction.class));
+    }
+
+    private Transaction transferLeg(Long id, Long accountId, TransactionType type, Long counterpartyAccountId) {
+        return new Transaction(id, accountId, type, new BigDecimal("250.00"), LocalDateTime.now(),
+                TransactionStatus.SUCCESS, null, null, "transfer-1", counterpartyAccountId);
+    }
+
+    private Transaction saved(Transaction transaction) {
+        transaction.setId(1L);
+        transaction.setTransactionDate(LocalDateTime.now());
+        return transaction;
+    }
 }
@@ -0,0 +1,313 @@
+package com.banking.transactions.service;
+
+import com.banking.transactions.client.AccountsClient;
+import com.banking.transactions.dto.AccountBalanceDto;
+import com.banking.transactions.dto.TransferBalancesDto;
+import com.banking.transactions.entity.Transaction;
+import com.banking.transactions.entity.TransactionStatus;
+import com.banking.transactions.entity.TransactionType;
+import com.banking.transactions.event.TransactionEventType;
+import com.banking.transactions.exception.AccountsServiceUnavailableException;
+import com.banking.transactions.exception.PostingRejectedException;
+import com.banking.transactions.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionSettlerTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountsClient accountsClient;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionSettler transactionSettler;
+
+    @BeforeEach
+    void setUp() {
+        transactionSettler = new TransactionSettler(transactionRepository, accountsClient, outboxService, balanceSnapshotService,
+                new TransactionTemplate(transactionManager), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void claimForRequest_LeasesNewTransactionAsPending() {
+        Transaction transaction = new Transaction();
+
+        transactionSettler.claimForRequest(transaction);
+
+        assertEquals(TransactionStatus.PENDING, transaction.getStatus());
+        assertNotNull(transaction.getClaimedBy());
+        assertTrue(transaction.getLeaseUntil().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void settle_PostsUnderTransactionReferenceAndRecordsSuccess() {
+        Transaction transaction = pending(7L);
+        when(accountsClient.post(1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "transaction-7"))
+                .thenReturn(new AccountBalanceDto(1001L, new BigDecimal("1100.00")));
+        when(transactionRepository.completeSettlement(eq(7L), eq("worker"), eq(TransactionStatus.SUCCESS),
+                any(LocalDateTime.class), eq(TransactionStatus.PENDING))).thenReturn(1);
+
+        assertEquals(TransactionStatus.SUCCESS, transactionSettler.settle(transaction));
+
+        assertEquals(TransactionStatus.SUCCESS, transaction.getStatus());
+        assertNull(transaction.getClaimedBy());
+        assertNull(transaction.getLeaseUntil());
+        verify(outboxService).append(TransactionEventType.UPDATED, transaction);
+        verify(balanceSnapshotService).recordPosting(transaction, new BigDecimal("1100.00"));
+    }
+
+    @Test
+    void settle_RecordsTheTimeAccountsServiceAppliedThePosting() {
+        Transaction transaction = pending(7L);
+        LocalDateTime postedAt = LocalDateTime.now().minusSeconds(2);
+        when(accountsClient.post(1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "transaction-7"))
+                .thenReturn(new AccountBalanceDto(1001L, new BigDecimal("1100.00"), postedAt));
+        when(transactionRepository.completeSettlement(7L, "worker", TransactionStatus.SUCCESS, postedAt, TransactionStatus.PENDING))
+                .thenReturn(1);
+
+        assertEquals(TransactionStatus.SUCCESS, transactionSettler.settle(transaction));
+
+        assertEquals(postedAt, transaction.getTransactionDate());
+    }
+
+    @Test
+    void settle_ConcurrentSettlementsOnOneAccountKeepTheOrderPostingsWereApplied() throws Exception {
+        Transaction first = pending(7L);
+        Transaction second = pending(8L);
+        LocalDateTime firstPostedAt = LocalDateTime.now().minusSeconds(2);
+        LocalDateTime secondPostedAt = firstPostedAt.plusNanos(1_000);
+        CountDownLatch firstApplied = new CountDownLatch(1);
+        CountDownLatch secondRecorded = new CountDownLatch(1);
+        // Accounts-service applies the first posting before the second...
+        when(accountsClient.post(1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "transaction-7")).thenAnswer(invocation -> {
+            firstApplied.countDown();
+            return new AccountBalanceDto(1001L, new BigDecimal("1100.00"), firstPostedAt);
+        });
+        when(accountsClient.post(1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "transaction-8")).thenAnswer(invocation -> {
+            assertTrue(firstApplied.await(5, TimeUnit.SECONDS));
+            return new AccountBalanceDto(1001L, new BigDecimal("1200.00"), secondPostedAt);
+        });
+        // ...but the first settlement records its outcome only after the second has recorded its own
+        when(transactionRepository.completeSettlement(eq(7L), eq("worker"), eq(TransactionStatus.SUCCESS),
+                any(LocalDateTime.class), eq(TransactionStatus.PENDING))).thenAnswer(invocation -> {
+            assertTrue(secondRecorded.await(5, TimeUnit.SECONDS));
+            return 1;
+        });
+        when(transactionRepository.completeSettlement(eq(8L), eq("worker"), eq(TransactionStatus.SUCCESS),
+                any(LocalDateTime.class), eq(TransactionStatus.PENDING))).thenReturn(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<TransactionStatus> firstOutcome = executor.submit(() -> transactionSettler.settle(first));
+        Future<TransactionStatus> secondOutcome = executor.submit(() -> {
+            TransactionStatus outcome = transactionSettler.settle(second);
+            secondRecorded.countDown();
+            return outcome;
+        });
+        executor.shutdown();
+
+        assertEquals(TransactionStatus.SUCCESS, firstOutcome.get(10, TimeUnit.SECONDS));
+        assertEquals(TransactionStatus.SUCCESS, secondOutcome.get(10, TimeUnit.SECONDS));
+        InOrder recorded = inOrder(balanceSnapshotService);
+        recorded.verify(balanceSnapshotService).recordPosting(second, new BigDecimal("1200.00"));
+        recorded.verify(balanceSnapshotService).recordPosting(first, new BigDecimal("1100.00"));
+        // Dated in the order the balances were produced, not the order the outcomes were recorded
+        assertEquals(firstPostedAt, first.getTransactionDate());
+        assertEquals(secondPostedAt, second.getTransactionDate());
+        assertTrue(first.getTransactionDate().isBefore(second.getTransactionDate()));
+    }
+
+    @Test
+    void settle_SnapshotFailureRollsBackTheOutcome() {
+        Transaction transaction = pending(7L);
+        when(accountsClient.post(1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "transaction-7"))
+                .thenReturn(new AccountBalanceDto(1001L, new BigDecimal("1100.00")));
+        when(transactionRepository.completeSettlement(eq(7L), eq("worker"), eq(TransactionStatus.SUCCESS),
+                any(LocalDateTime.class), eq(TransactionStatus.PENDING))).thenReturn(1);
+        doThrow(new DataAccessResourceFailureException("Database unavailable"))
+                .when(balanceSnapshotService).recordPosting(transaction, new BigDecimal("1100.00"));
+
+        // The row stays PENDING under its lease and is settled again, which does not post twice
+        assertThrows(DataAccessResourceFailureException.class, () -> transactionSettler.settle(transaction));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void settle_RejectedPostingFails() {
+        Transaction transaction = pending(7L);
+        when(accountsClient.post(anyLong(), any(TransactionType.class), any(BigDecimal.class), anyString()))
+                .thenThrow(new PostingRejectedException("Insufficient funds"));
+        when(transactionRepository.completeSettlement(eq(7L), eq("worker"), eq(TransactionStatus.FAILED),
+                any(LocalDateTime.class), eq(TransactionStatus.PENDING))).thenReturn(1);
+
+        assertEquals(TransactionStatus.FAILED, transactionSettler.settle(transaction));
+
+        assertEquals(TransactionStatus.FAILED, transaction.getStatus());
+        verifyNoInteractions(balanceSnapshotService);
+    }
+
+    @Test
+    void settle_UnavailableAccountsServiceLeavesRowPending() {
+        Transaction transaction = pending(7L);
+        when(accountsClient.post(anyLong(), any(TransactionType.class), any(BigDecimal.class), anyString()))
+                .thenThrow(new AccountsServiceUnavailableException("Accounts service unavailable", null));
+
+        assertEquals(TransactionStatus.PENDING, transactionSettler.settle(transaction));
+
+        assertEquals(TransactionStatus.PENDING, transaction.getStatus());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void settle_RecordsNothingAfterClaimWasTakenOver() {
+        Transaction transaction = pending(7L);
+        when(accountsClient.post(1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "transaction-7"))
+                .thenReturn(new AccountBalanceDto(1001L, new BigDecimal("1100.00")));
+        when(transactionRepository.completeSettlement(eq(7L), eq("worker"), eq(TransactionStatus.SUCCESS),
+                any(LocalDateTime.class), eq(TransactionStatus.PENDING))).thenReturn(0);
+
+        assertEquals(TransactionStatus.PENDING, transactionSettler.settle(transaction));
+
+        assertEquals(TransactionStatus.PENDING, transaction.getStatus());
+        assertEquals("worker", transaction.getClaimedBy());
+        verifyNoInteractions(outboxService, balanceSnapshotService);
+    }
+
+    @Test
+    void settle_SecondOwnerPostsUnderTheSameReference() {
+        Transaction first = pending(7L);
+        Transaction takenOver = pending(7L);
+        takenOver.setClaimedBy("other-worker");
+        when(accountsClient.post(eq(1001L), eq(TransactionType.DEPOSIT), eq(new BigDecimal("100.00")), anyString()))
+                .thenReturn(new AccountBalanceDto(1001L, new BigDecimal("1100.00")));
+        when(transactionRepository.completeSettlement(eq(7L), anyString(), eq(TransactionStatus.SUCCESS),
+                any(LocalDateTime.class), eq(TransactionStatus.PENDING))).thenReturn(0, 1);
+
+        transactionSettler.settle(first);
+        transactionSettler.settle(takenOver);
+
+        verify(accountsClient, times(2)).post(1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"), "transaction-7");
+        verify(outboxService, times(1)).append(TransactionEventType.UPDATED, takenOver);
+    }
+
+    @Test
+    void settle_TransferDebitPostsOneTransferAndWritesCreditLeg() {
+        Transaction debit = pendingTransferDebit(7L);
+        LocalDateTime debitPostedAt = LocalDateTime.now().minusSeconds(2);
+        LocalDateTime creditPostedAt = debitPostedAt.minusSeconds(1);
+        when(accountsClient.transfer(1001L, 2002L, new BigDecimal("100.00"), "transaction-7"))
+                .thenReturn(new TransferBalancesDto(new AccountBalanceDto(1001L, new BigDecimal("900.00"), debitPostedAt),
+                        new AccountBalanceDto(2002L, new BigDecimal("600.00"), creditPostedAt)));
+        when(transactionRepository.completeSettlement(7L, "worker", TransactionStatus.SUCCESS, debitPostedAt, TransactionStatus.PENDING))
+                .thenReturn(1);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(TransactionStatus.SUCCESS, transactionSettler.settle(debit));
+
+        ArgumentCaptor<Transaction> credit = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(credit.capture());
+        assertEquals(2002L, credit.getValue().getAccountId());
+        assertEquals(TransactionType.DEPOSIT, credit.getValue().getType());
+        assertEquals(new BigDecimal("100.00"), credit.getValue().getAmount());
+        assertEquals(TransactionStatus.SUCCESS, credit.getValue().getStatus());
+        assertEquals("transfer-1", credit.getValue().getTransferId());
+        assertEquals(1001L, credit.getValue().getCounterpartyAccountId());
+        // Each leg is dated when its own account applied it
+        assertEquals(debitPostedAt, debit.getTransactionDate());
+        assertEquals(creditPostedAt, credit.getValue().getTransactionDate());
+        verify(outboxService).append(TransactionEventType.UPDATED, debit);
+        verify(outboxService).append(TransactionEventType.CREATED, credit.getValue());
+        verify(balanceSnapshotService).recordPosting(debit, new BigDecimal("900.00"));
+        verify(balanceSnapshotService).recordPosting(credit.getValue(), new BigDecimal("600.00"));
+        verify(accountsClient, never()).post(anyLong(), any(TransactionType.class), any(BigDecimal.class), anyString());
+    }
+
+    @Test
+    void settle_RejectedTransferWritesNoCreditLeg() {
+        Transaction debit = pendingTransferDebit(7L);
+        when(accountsClient.transfer(anyLong(), anyLong(), any(BigDecimal.class), anyString()))
+                .thenThrow(new PostingRejectedException("Insufficient funds"));
+        when(transactionRepository.completeSettlement(eq(7L), eq("worker"), eq(TransactionStatus.FAILED),
+                any(LocalDateTime.class), eq(TransactionStatus.PENDING))).thenReturn(1);
+
+        assertEquals(TransactionStatus.FAILED, transactionSettler.settle(debit));
+
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(outboxService, never()).append(eq(TransactionEventType.CREATED), any(Transaction.class));
+        verifyNoInteractions(balanceSnapshotService);
+    }
+
+    @Test
+    void settle_TakenOverTransferWritesNoCreditLeg() {
+        Transaction debit = pendingTransferDebit(7L);
+        when(accountsClient.transfer(1001L, 2002L, new BigDecimal("100.00"), "transaction-7"))
+                .thenReturn(new TransferBalancesDto(new AccountBalanceDto(1001L, new BigDecimal("900.00")),
+                        new AccountBalanceDto(2002L, new BigDecimal("600.00"))));
+        when(transactionRepository.completeSettlement(eq(7L), eq("worker"), eq(TransactionStatus.SUCCESS),
+                any(LocalDateTime.class), eq(TransactionStatus.PENDING))).thenReturn(0);
+
+        assertEquals(TransactionStatus.PENDING, transactionSettler.settle(debit));
+
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verifyNoInteractions(outboxService, balanceSnapshotService);
+    }
+
+    @Test
+    void settle_SkipsExpiredLease() {
+        Transaction transaction = pending(7L);
+        transaction.setLeaseUntil(LocalDateTime.now().minusSeconds(1));
+
+        assertEquals(TransactionStatus.PENDING, transactionSettler.settle(transaction));
+
+        verifyNoInteractions(accountsClient);
+    }
+
+    private Transaction pendingTransferDebit(Long id) {
+        Transaction debit = pending(id);
+        debit.setType(TransactionType.WITHDRAWAL);
+        debit.setTransferId("transfer-1");
+        debit.setCounterpartyAccountId(2002L);
+        return debit;
+    }
+
+    private Transaction pending(Long id) {
+        Transaction transaction = new Transaction(id, 1001L, TransactionType.DEPOSIT, new BigDecimal("100.00"),
+                LocalDateTime.now().minusMinutes(5), TransactionStatus.PENDING, null, null, null, null);
+        transaction.setClaimedBy("worker");
+        transaction.setLeaseUntil(LocalDateTime.now().plusSeconds(30));
+        return transaction;
+    }
+}